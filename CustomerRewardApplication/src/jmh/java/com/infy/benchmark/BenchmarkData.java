@@ -0,0 +1,82 @@
+package com.infy.benchmark;
+
+import com.infy.model.Customer;
+import com.infy.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible transaction sets for the benchmarks.
+ */
+public final class BenchmarkData {
+
+	static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+
+	/**
+	 * Shapes of the amount distribution, chosen to exercise each reward tier.
+	 */
+	public enum AmountDistribution {
+
+		/** Amounts spread evenly between 0 and 300. */
+		UNIFORM,
+
+		/** Mostly amounts of 50 or less, which earn no points. */
+		MOSTLY_SMALL,
+
+		/** Mostly amounts above 100, which hit both tiers. */
+		MOSTLY_LARGE;
+
+		double next(Random random) {
+			boolean typical = random.nextInt(10) < 9;
+			double amount = switch (this) {
+			case UNIFORM -> random.nextDouble() * 300;
+			case MOSTLY_SMALL -> typical ? random.nextDouble() * 50 : 50 + random.nextDouble() * 100;
+			case MOSTLY_LARGE -> typical ? 100 + random.nextDouble() * 900 : random.nextDouble() * 100;
+			};
+			return Math.round(amount * 100) / 100.0 + 0.01;
+		}
+	}
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Builds a customer with {@code count} transactions dated within
+	 * {@code spreadDays} days from {@link #FIRST_DATE}.
+	 */
+	static Customer customer(int count, int spreadDays, AmountDistribution distribution, long seed) {
+		Random random = new Random(seed);
+		Customer customer = new Customer();
+		customer.setCustomerId(1L);
+		customer.setCustomerName("Benchmark");
+
+		List<Transaction> transactions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Transaction transaction = new Transaction();
+			transaction.setTransactionId((long) i + 1);
+			transaction.setAmount(distribution.next(random));
+			transaction.setDate(FIRST_DATE.plusDays(random.nextInt(spreadDays)));
+			transaction.setCustomer(customer);
+			transactions.add(transaction);
+		}
+		customer.setTransaction(transactions);
+		return customer;
+	}
+
+	/**
+	 * The reward calculation the application shipped with, tiers hardcoded. Kept
+	 * as the baseline the compiled plans and the original grouping are measured
+	 * against.
+	 */
+	static int originalPoints(double amount) {
+		int points = 0;
+		if (amount > 100)
+			points += (amount - 100) * 2;
+		if (amount > 50)
+			points += (Math.min(amount, 100) - 50);
+		return points;
+	}
+}
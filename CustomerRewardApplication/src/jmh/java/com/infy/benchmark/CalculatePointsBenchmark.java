@@ -0,0 +1,103 @@
+package com.infy.benchmark;
+
+import com.infy.benchmark.BenchmarkData.AmountDistribution;
+import com.infy.rules.DateWindowBoostRule;
+import com.infy.rules.MonthlyCapRule;
+import com.infy.rules.RewardPlan;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the original hardcoded calculation over amounts drawn from
+ * each distribution, against the same tiers compiled into a
+ * {@link RewardPlan}, and a plan that also looks up boost windows by date.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatePointsBenchmark {
+
+	private static final int AMOUNTS = 1024;
+
+	@Param({ "UNIFORM", "MOSTLY_SMALL", "MOSTLY_LARGE" })
+	private AmountDistribution distribution;
+
+	private double[] amounts;
+
+	private LocalDate[] dates;
+
+	private RewardPlan defaultPlan;
+
+	private RewardPlan promotionPlan;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(7);
+		amounts = new double[AMOUNTS];
+		dates = new LocalDate[AMOUNTS];
+		for (int i = 0; i < AMOUNTS; i++) {
+			amounts[i] = distribution.next(random);
+			dates[i] = BenchmarkData.FIRST_DATE.plusDays(random.nextInt(365));
+		}
+
+		defaultPlan = RewardPlan.DEFAULT;
+		RewardPlan.Builder promotion = RewardPlan.builder().rules(RewardPlan.DEFAULT_TIERS)
+				.rule(new MonthlyCapRule(1000));
+		for (int month = 1; month <= 12; month += 3) {
+			LocalDate from = LocalDate.of(2024, month, 10);
+			promotion.rule(new DateWindowBoostRule(from, from.plusDays(6), new BigDecimal("1.5")));
+		}
+		promotionPlan = promotion.build();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(AMOUNTS)
+	public long originalCalculation() {
+		long total = 0;
+		for (double amount : amounts) {
+			total += BenchmarkData.originalPoints(amount);
+		}
+		return total;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(AMOUNTS)
+	public long compiledDefaultPlan() {
+		RewardPlan plan = defaultPlan;
+		long total = 0;
+		for (double amount : amounts) {
+			total += plan.points(amount);
+		}
+		return total;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(AMOUNTS)
+	public long compiledPromotionPlan() {
+		RewardPlan plan = promotionPlan;
+		long total = 0;
+		for (int i = 0; i < AMOUNTS; i++) {
+			total += plan.points(amounts[i], dates[i]);
+		}
+		return total;
+	}
+}
@@ -0,0 +1,157 @@
+package com.infy.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+import com.infy.benchmark.BenchmarkData.AmountDistribution;
+import com.infy.model.Customer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Request-path cost of the log calls made by {@code POST /addCustomer}, on a
+ * standalone logback context configured like {@code logback-spring.xml}. The
+ * console is replaced by a discarding stream so a terminal does not skew the
+ * numbers; the file is written to a temporary directory.
+ * <ul>
+ * <li>{@code LEGACY}: the former setup, {@code com.infy} at DEBUG on
+ * synchronous console and file appenders, logging the customer entity.</li>
+ * <li>{@code ASYNC_BLOCKING}: async appenders over a rolling file at INFO,
+ * waiting for queue space, which is the cost once the writer is saturated.</li>
+ * <li>{@code ASYNC}: the shipped setup, which drops events instead of
+ * waiting.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LoggingOverheadBenchmark {
+
+	private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+	@Param({ "LEGACY", "ASYNC_BLOCKING", "ASYNC" })
+	private String pipeline;
+
+	private LoggerContext context;
+
+	private Logger logger;
+
+	private Path directory;
+
+	private Customer customer;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("logging-benchmark");
+		context = new LoggerContext();
+		customer = BenchmarkData.customer(5, 31, AmountDistribution.UNIFORM, 17);
+
+		logger = context.getLogger("com.infy.controller.RewardsController");
+		logger.setAdditive(false);
+		OutputStreamAppender<ILoggingEvent> console = encoded(new OutputStreamAppender<>(), "CONSOLE");
+		console.setOutputStream(OutputStream.nullOutputStream());
+		console.start();
+
+		if ("LEGACY".equals(pipeline)) {
+			logger.setLevel(Level.DEBUG);
+			FileAppender<ILoggingEvent> file = encoded(new FileAppender<>(), "FILE");
+			file.setFile(directory.resolve("CustomerRewards.log").toString());
+			file.start();
+			logger.addAppender(console);
+			logger.addAppender(file);
+		} else {
+			logger.setLevel(Level.INFO);
+			RollingFileAppender<ILoggingEvent> file = encoded(new RollingFileAppender<>(), "FILE");
+			file.setFile(directory.resolve("CustomerRewards.log").toString());
+			SizeAndTimeBasedRollingPolicy<ILoggingEvent> policy = new SizeAndTimeBasedRollingPolicy<>();
+			policy.setContext(context);
+			policy.setParent(file);
+			policy.setFileNamePattern(directory.resolve("CustomerRewards.%d{yyyy-MM-dd}.%i.log.gz").toString());
+			policy.setMaxFileSize(FileSize.valueOf("50MB"));
+			policy.setMaxHistory(14);
+			policy.setTotalSizeCap(FileSize.valueOf("1GB"));
+			policy.start();
+			file.setRollingPolicy(policy);
+			file.start();
+
+			boolean neverBlock = "ASYNC".equals(pipeline);
+			logger.addAppender(async(console, "ASYNC_CONSOLE", neverBlock));
+			logger.addAppender(async(file, "ASYNC_FILE", neverBlock));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		context.stop();
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public void addCustomer() {
+		if ("LEGACY".equals(pipeline)) {
+			logger.debug("Adding Customer : {}", customer);
+			logger.info("Customer added successfully : {}", customer);
+		} else {
+			logger.debug("Adding Customer : {}", customer.getCustomerName());
+			logger.info("Customer added successfully : {}", customer.getCustomerId());
+		}
+	}
+
+	private <A extends OutputStreamAppender<ILoggingEvent>> A encoded(A appender, String name) {
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern(PATTERN);
+		encoder.start();
+		appender.setContext(context);
+		appender.setName(name);
+		appender.setEncoder(encoder);
+		return appender;
+	}
+
+	private Appender<ILoggingEvent> async(Appender<ILoggingEvent> delegate, String name, boolean neverBlock) {
+		AsyncAppender appender = new AsyncAppender();
+		appender.setContext(context);
+		appender.setName(name);
+		appender.setQueueSize(8192);
+		appender.setNeverBlock(neverBlock);
+		appender.setIncludeCallerData(false);
+		appender.addAppender(delegate);
+		appender.start();
+		return appender;
+	}
+}
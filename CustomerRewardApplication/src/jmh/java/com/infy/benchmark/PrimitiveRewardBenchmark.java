@@ -0,0 +1,111 @@
+package com.infy.benchmark;
+
+import com.infy.benchmark.BenchmarkData.AmountDistribution;
+import com.infy.dto.CustomerSummary;
+import com.infy.dto.RewardSummary;
+import com.infy.model.Customer;
+import com.infy.model.Transaction;
+import com.infy.rules.RewardPlan;
+import com.infy.service.RewardEngine;
+import com.infy.service.RewardEngine.MonthlyBuckets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-transaction cost of the boxed map based reward computation against the
+ * primitive columnar path. Scores are per transaction, so
+ * {@code gc.alloc.rate.norm} of {@link #primitiveBuckets} should read zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+@OperationsPerInvocation(PrimitiveRewardBenchmark.TRANSACTIONS)
+public class PrimitiveRewardBenchmark {
+
+	static final int TRANSACTIONS = 10_000;
+
+	@Param({ "31", "365", "1825" })
+	private int spreadDays;
+
+	private Customer customer;
+
+	private List<Transaction> transactions;
+
+	private int[] epochMonths;
+
+	private int[] epochDays;
+
+	private long[] amountCents;
+
+	private MonthlyBuckets buckets;
+
+	@Setup
+	public void setup() {
+		customer = BenchmarkData.customer(TRANSACTIONS, spreadDays, AmountDistribution.UNIFORM, 19);
+		transactions = customer.getTransaction();
+		epochMonths = new int[TRANSACTIONS];
+		epochDays = new int[TRANSACTIONS];
+		amountCents = new long[TRANSACTIONS];
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			epochMonths[i] = RewardEngine.epochMonth(transactions.get(i).getDate());
+			epochDays[i] = (int) transactions.get(i).getDate().toEpochDay();
+			amountCents[i] = RewardEngine.toCents(transactions.get(i).getAmount());
+		}
+		buckets = new MonthlyBuckets();
+		RewardEngine.accumulate(epochMonths, epochDays, amountCents, TRANSACTIONS, RewardPlan.DEFAULT, buckets);
+	}
+
+	@Benchmark
+	public Map<String, Object> boxedMaps() {
+		List<Map<String, Object>> rewardByMonth = transactions.stream()
+				.collect(Collectors.groupingBy(t -> t.getDate().getMonth().toString(), LinkedHashMap::new,
+						Collectors.summingInt(t -> BenchmarkData.originalPoints(t.getAmount()))))
+				.entrySet().stream().map(entry -> {
+					Map<String, Object> map = new HashMap<>();
+					map.put("month", entry.getKey());
+					map.put("points", entry.getValue());
+					return map;
+				}).collect(Collectors.toList());
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("Customer Details", customer);
+		response.put("Rewards Breakdown", rewardByMonth);
+		response.put("Total Rewards", rewardByMonth.stream().mapToInt(m -> (int) m.get("points")).sum());
+		return response;
+	}
+
+	@Benchmark
+	public long primitiveBuckets() {
+		buckets.clear();
+		RewardEngine.accumulate(epochMonths, epochDays, amountCents, TRANSACTIONS, RewardPlan.DEFAULT, buckets);
+		return buckets.totalPoints();
+	}
+
+	@Benchmark
+	public RewardSummary primitiveSummary() {
+		buckets.clear();
+		RewardEngine.accumulate(epochMonths, epochDays, amountCents, TRANSACTIONS, RewardPlan.DEFAULT, buckets);
+		return buckets.toSummary(CustomerSummary.of(customer));
+	}
+}
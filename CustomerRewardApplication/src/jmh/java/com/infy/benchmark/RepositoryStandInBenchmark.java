@@ -0,0 +1,147 @@
+package com.infy.benchmark;
+
+import com.infy.benchmark.BenchmarkData.AmountDistribution;
+import com.infy.model.Transaction;
+import com.infy.service.RewardEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reward calculation against an in-memory H2 database standing in for the
+ * repository: loading every transaction of the range and grouping in Java,
+ * against grouping in SQL with the points expression of
+ * {@code TransactionRepository#aggregateMonthlyPoints}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryStandInBenchmark {
+
+	private static final String LOAD_TRANSACTIONS = "SELECT transaction_id, amount, date FROM transaction "
+			+ "WHERE customer_id = ? AND date BETWEEN ? AND ?";
+
+	private static final String AGGREGATE_MONTHLY_POINTS = "SELECT YEAR(date), MONTH(date), COUNT(*), "
+			+ "SUM(CASE WHEN amount > 100 THEN FLOOR((amount - 100) * 2) + 50 "
+			+ "WHEN amount > 50 THEN FLOOR(amount - 50) ELSE 0 END), MIN(transaction_id) FROM transaction "
+			+ "WHERE customer_id = ? AND date BETWEEN ? AND ? GROUP BY YEAR(date), MONTH(date) "
+			+ "ORDER BY MIN(transaction_id)";
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	private int transactionCount;
+
+	@Param({ "365" })
+	private int spreadDays;
+
+	private Connection connection;
+
+	private RewardEngine rewardEngine;
+
+	private Date startDate;
+
+	private Date endDate;
+
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE transaction (transaction_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+					+ "amount DOUBLE NOT NULL, date DATE, customer_id BIGINT)");
+			statement.execute("CREATE INDEX idx_transaction_customer_date ON transaction (customer_id, date)");
+		}
+
+		List<Transaction> transactions = BenchmarkData
+				.customer(transactionCount, spreadDays, AmountDistribution.UNIFORM, 13).getTransaction();
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection
+				.prepareStatement("INSERT INTO transaction (amount, date, customer_id) VALUES (?, ?, 1)")) {
+			for (int i = 0; i < transactions.size(); i++) {
+				insert.setDouble(1, transactions.get(i).getAmount());
+				insert.setDate(2, Date.valueOf(transactions.get(i).getDate()));
+				insert.addBatch();
+				if (i % 1000 == 999) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+		connection.setAutoCommit(true);
+
+		rewardEngine = new RewardEngine(Integer.MAX_VALUE);
+		startDate = Date.valueOf(BenchmarkData.FIRST_DATE);
+		endDate = Date.valueOf(BenchmarkData.FIRST_DATE.plusDays(spreadDays));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE transaction");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public List<RewardEngine.MonthlyPoints> loadAndGroupInJava() throws SQLException {
+		List<Transaction> transactions = new ArrayList<>();
+		try (PreparedStatement query = connection.prepareStatement(LOAD_TRANSACTIONS)) {
+			bindRange(query);
+			try (ResultSet rows = query.executeQuery()) {
+				while (rows.next()) {
+					Transaction transaction = new Transaction();
+					transaction.setTransactionId(rows.getLong(1));
+					transaction.setAmount(rows.getDouble(2));
+					transaction.setDate(rows.getObject(3, LocalDate.class));
+					transactions.add(transaction);
+				}
+			}
+		}
+		return rewardEngine.aggregateSequential(transactions);
+	}
+
+	@Benchmark
+	public long aggregateInDatabase() throws SQLException {
+		long points = 0;
+		try (PreparedStatement query = connection.prepareStatement(AGGREGATE_MONTHLY_POINTS)) {
+			bindRange(query);
+			try (ResultSet rows = query.executeQuery()) {
+				while (rows.next()) {
+					points += rows.getLong(4);
+				}
+			}
+		}
+		return points;
+	}
+
+	private void bindRange(PreparedStatement query) throws SQLException {
+		query.setLong(1, 1L);
+		query.setDate(2, startDate);
+		query.setDate(3, endDate);
+	}
+}
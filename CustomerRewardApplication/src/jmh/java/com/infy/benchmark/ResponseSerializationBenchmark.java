@@ -0,0 +1,76 @@
+package com.infy.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.infy.benchmark.BenchmarkData.AmountDistribution;
+import com.infy.model.Customer;
+import com.infy.service.RewardEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Jackson serialization of the {@code Map<String, Object>} rewards response,
+ * which embeds the customer with its full transaction list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	private int transactionCount;
+
+	@Param({ "31", "365", "1825" })
+	private int spreadDays;
+
+	private ObjectMapper objectMapper;
+
+	private Map<String, Object> response;
+
+	@Setup
+	public void setup() {
+		// Configured like the mapper Spring Boot builds for the controllers
+		objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+		Customer customer = BenchmarkData.customer(transactionCount, spreadDays, AmountDistribution.UNIFORM, 17);
+		List<Map<String, Object>> rewardByMonth = new RewardEngine(Integer.MAX_VALUE)
+				.aggregateSequential(customer.getTransaction()).stream().map(month -> {
+					Map<String, Object> map = new HashMap<>();
+					map.put("month", month.month().getMonth().toString());
+					map.put("points", (int) month.points());
+					return map;
+				}).collect(Collectors.toList());
+
+		response = new HashMap<>();
+		response.put("Customer Details", customer);
+		response.put("Rewards Breakdown", rewardByMonth);
+		response.put("Total Rewards", rewardByMonth.stream().mapToInt(m -> (int) m.get("points")).sum());
+	}
+
+	@Benchmark
+	public byte[] serializeResponse() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(response);
+	}
+}
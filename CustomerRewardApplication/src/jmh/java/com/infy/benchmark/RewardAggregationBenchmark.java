@@ -0,0 +1,85 @@
+package com.infy.benchmark;
+
+import com.infy.benchmark.BenchmarkData.AmountDistribution;
+import com.infy.model.Transaction;
+import com.infy.service.RewardEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Monthly aggregation of one customer's transactions: the stream grouping the
+ * per-customer endpoint used before aggregation moved into the database,
+ * against the sequential and parallel modes of {@link RewardEngine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RewardAggregationBenchmark {
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	private int transactionCount;
+
+	@Param({ "31", "365", "1825" })
+	private int spreadDays;
+
+	@Param({ "UNIFORM", "MOSTLY_LARGE" })
+	private AmountDistribution distribution;
+
+	private List<Transaction> transactions;
+
+	private RewardEngine rewardEngine;
+
+	@Setup
+	public void setup() {
+		transactions = BenchmarkData.customer(transactionCount, spreadDays, distribution, 11).getTransaction();
+		rewardEngine = new RewardEngine(Integer.MAX_VALUE);
+	}
+
+	@Benchmark
+	public Map<String, Object> streamGrouping() {
+		List<Map<String, Object>> rewardByMonth = transactions.stream()
+				.collect(Collectors.groupingBy(t -> t.getDate().getMonth().toString(), LinkedHashMap::new,
+						Collectors.summingInt(t -> BenchmarkData.originalPoints(t.getAmount()))))
+				.entrySet().stream().map(entry -> {
+					Map<String, Object> map = new HashMap<>();
+					map.put("month", entry.getKey());
+					map.put("points", entry.getValue());
+					return map;
+				}).collect(Collectors.toList());
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("Rewards Breakdown", rewardByMonth);
+		response.put("Total Rewards", rewardByMonth.stream().mapToInt(m -> (int) m.get("points")).sum());
+		return response;
+	}
+
+	@Benchmark
+	public List<RewardEngine.MonthlyPoints> engineSequential() {
+		return rewardEngine.aggregateSequential(transactions);
+	}
+
+	@Benchmark
+	public List<RewardEngine.MonthlyPoints> engineParallel() {
+		return rewardEngine.aggregateParallel(transactions);
+	}
+}
@@ -0,0 +1,83 @@
+package com.infy.benchmark;
+
+import com.infy.dto.RecomputationResult;
+import com.infy.rules.RewardPlan;
+import com.infy.snapshot.MonthlyPointsConsumer;
+import com.infy.snapshot.TransactionSnapshot;
+import com.infy.snapshot.TransactionSnapshotWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to recompute the rewards of a whole memory-mapped transaction snapshot,
+ * on one thread and on every processor. Customers hold 100 transactions each,
+ * spread over two years; divide {@code rows} by the score for rows per
+ * millisecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class SnapshotRecomputeBenchmark {
+
+	private static final int TRANSACTIONS_PER_CUSTOMER = 100;
+
+	@Param({ "1000000", "10000000" })
+	private int rows;
+
+	private Path file;
+
+	private TransactionSnapshot snapshot;
+
+	@Setup
+	public void setup() throws IOException {
+		file = Files.createTempFile("transactions", ".snap");
+		SplittableRandom random = new SplittableRandom(23);
+		int firstDay = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+		try (TransactionSnapshotWriter writer = new TransactionSnapshotWriter(file)) {
+			for (int row = 0; row < rows; row++) {
+				long customerId = row / TRANSACTIONS_PER_CUSTOMER + 1;
+				int day = firstDay + (row % TRANSACTIONS_PER_CUSTOMER) * 730 / TRANSACTIONS_PER_CUSTOMER;
+				writer.append(customerId, day, random.nextLong(30_000));
+			}
+			writer.finish();
+		}
+		snapshot = TransactionSnapshot.open(file);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public RecomputationResult sequential() {
+		return snapshot.recompute(RewardPlan.DEFAULT, 1, MonthlyPointsConsumer.NONE);
+	}
+
+	@Benchmark
+	public RecomputationResult parallel() {
+		return snapshot.recompute(RewardPlan.DEFAULT, Runtime.getRuntime().availableProcessors(),
+				MonthlyPointsConsumer.NONE);
+	}
+}
@@ -0,0 +1,150 @@
+package com.infy.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-month range lookup of a customer's transactions, the access pattern of
+ * {@code TransactionRepository#findByCustomerCustomerIdAndDateBetween}, on an
+ * in-memory H2 database migrated with the application's Flyway scripts.
+ *
+ * The table grows by lengthening every customer's history, one transaction a
+ * day, while each lookup still matches about 30 rows. With the
+ * {@code (customer_id, date)} index the lookup cost should stay nearly flat as
+ * the table grows; with only the foreign key index on {@code customer_id} it
+ * grows with the history of the customer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionRangeScanBenchmark {
+
+	private static final String URL = "jdbc:h2:mem:rangescan;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+	private static final int CUSTOMERS = 100;
+
+	private static final LocalDate FIRST_DATE = LocalDate.of(2000, 1, 1);
+
+	private static final String FIND_RANGE = "SELECT transaction_id, amount, date FROM transaction "
+			+ "WHERE customer_id = ? AND date BETWEEN ? AND ?";
+
+	@Param({ "10000", "100000", "1000000" })
+	private int tableSize;
+
+	@Param({ "customer_date", "customer_only" })
+	private String index;
+
+	private Connection connection;
+
+	private PreparedStatement query;
+
+	private long[] customerIds;
+
+	private Date monthStart;
+
+	private Date monthEnd;
+
+	private SplittableRandom random;
+
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		connection = DriverManager.getConnection(URL, "sa", "");
+		Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+		if (index.equals("customer_only")) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("DROP INDEX idx_transaction_customer_date");
+			}
+		}
+
+		customerIds = new long[CUSTOMERS];
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement("INSERT INTO customer (customer_name) VALUES (?)",
+				Statement.RETURN_GENERATED_KEYS)) {
+			for (int c = 0; c < CUSTOMERS; c++) {
+				insert.setString(1, "Customer " + c);
+				insert.executeUpdate();
+				try (ResultSet keys = insert.getGeneratedKeys()) {
+					keys.next();
+					customerIds[c] = keys.getLong(1);
+				}
+			}
+		}
+
+		int days = tableSize / CUSTOMERS;
+		SplittableRandom amounts = new SplittableRandom(23);
+		try (PreparedStatement insert = connection
+				.prepareStatement("INSERT INTO transaction (amount, date, customer_id) VALUES (?, ?, ?)")) {
+			int batched = 0;
+			for (int day = 0; day < days; day++) {
+				Date date = Date.valueOf(FIRST_DATE.plusDays(day));
+				for (long customerId : customerIds) {
+					insert.setDouble(1, amounts.nextInt(1, 30000) / 100.0);
+					insert.setDate(2, date);
+					insert.setLong(3, customerId);
+					insert.addBatch();
+					if (++batched % 1000 == 0) {
+						insert.executeBatch();
+					}
+				}
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+		connection.setAutoCommit(true);
+
+		LocalDate lastDate = FIRST_DATE.plusDays(days - 1);
+		monthStart = Date.valueOf(lastDate.withDayOfMonth(1));
+		monthEnd = Date.valueOf(lastDate);
+		query = connection.prepareStatement(FIND_RANGE);
+		random = new SplittableRandom(29);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		query.close();
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP ALL OBJECTS");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public double findLatestMonth() throws SQLException {
+		query.setLong(1, customerIds[random.nextInt(CUSTOMERS)]);
+		query.setDate(2, monthStart);
+		query.setDate(3, monthEnd);
+		double sum = 0;
+		try (ResultSet rows = query.executeQuery()) {
+			while (rows.next()) {
+				sum += rows.getDouble(2);
+			}
+		}
+		return sum;
+	}
+}
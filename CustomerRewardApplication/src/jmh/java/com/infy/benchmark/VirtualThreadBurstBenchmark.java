@@ -0,0 +1,176 @@
+package com.infy.benchmark;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.benchmark.BenchmarkData.AmountDistribution;
+import com.infy.model.Customer;
+import com.infy.service.RewardsService;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A burst of concurrent reward requests over HTTP against the running
+ * application, once with a Tomcat pool of {@link #PLATFORM_WORKERS} platform
+ * threads and once with the virtual-threads profile. Every connection checkout
+ * from the pool is held for {@link #QUERY_LATENCY_MILLIS}, standing in
+ * for a remote database, and the pool has {@link #POOL_SIZE} connections in
+ * both runs. Platform workers cap the requests in progress below the pool;
+ * virtual threads leave the pool as the only limit. The score is the time to
+ * complete the whole burst.
+ *
+ * The virtual run needs a Java 21 runtime:
+ * {@code mvn -Pjava21,jmh -DskipTests test-compile exec:exec -Djmh.args=VirtualThreadBurstBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadBurstBenchmark {
+
+	private static final int PLATFORM_WORKERS = 20;
+
+	private static final int POOL_SIZE = 80;
+
+	private static final long QUERY_LATENCY_MILLIS = 200;
+
+	@Param({ "platform", "virtual" })
+	private String threads;
+
+	@Param({ "400" })
+	private int requests;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient client;
+
+	private String rewardsUri;
+
+	// Every request asks for a new range, so none is served from the cache
+	private final AtomicInteger rangeOffset = new AtomicInteger();
+
+	/**
+	 * Replaces the connection pool with one that holds every connection it
+	 * hands out for {@link #QUERY_LATENCY_MILLIS} before returning it. Without
+	 * replicas the pool is the auto-configured data source.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	static class DatabaseLatency {
+
+		@Bean
+		static BeanPostProcessor slowPrimaryPool() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof HikariDataSource configured)) {
+						return bean;
+					}
+					HikariDataSource slow = new HikariDataSource() {
+						@Override
+						public Connection getConnection() throws SQLException {
+							Connection connection = super.getConnection();
+							try {
+								Thread.sleep(QUERY_LATENCY_MILLIS);
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+							return connection;
+						}
+					};
+					// Not started yet, so only its settings are taken over
+					configured.copyStateTo(slow);
+					return slow;
+				}
+			};
+		}
+	}
+
+	@Setup
+	public void start() {
+		boolean virtual = threads.equals("virtual");
+		if (virtual && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("Virtual threads need a Java 21 runtime, see the class comment");
+		}
+		List<String> args = new ArrayList<>(List.of("--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:burst;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+				"--spring.datasource.username=sa", "--spring.datasource.password=",
+				"--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE, "--rewards.db.pool-size=" + POOL_SIZE,
+				// The whole burst queues for connections; none should time out and fail
+				"--spring.datasource.hikari.connection-timeout=60000", "--logging.level.com.infy=warn"));
+		if (virtual) {
+			args.add("--spring.profiles.active=virtual-threads");
+		} else {
+			args.add("--server.tomcat.threads.max=" + PLATFORM_WORKERS);
+		}
+		context = new SpringApplicationBuilder(CustomerRewardsApplication.class, DatabaseLatency.class)
+				.run(args.toArray(String[]::new));
+
+		Customer customer = BenchmarkData.customer(100, 365, AmountDistribution.UNIFORM, 42);
+		customer.setCustomerId(null);
+		customer.getTransaction().forEach(transaction -> transaction.setTransactionId(null));
+		Long customerId = context.getBean(RewardsService.class).saveCustomer(customer).getCustomerId();
+
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		rewardsUri = "http://localhost:" + port + "/api/rewards/calculateRewards/" + customerId
+				+ "?startDate=2024-01-01&endDate=";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(10))
+				.build();
+	}
+
+	@TearDown
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public int burst() {
+		List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(requests);
+		for (int i = 0; i < requests; i++) {
+			LocalDate endDate = LocalDate.of(2024, 12, 31).plusDays(rangeOffset.incrementAndGet());
+			responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(rewardsUri + endDate)).build(),
+					HttpResponse.BodyHandlers.discarding()));
+		}
+		int ok = 0;
+		for (CompletableFuture<HttpResponse<Void>> response : responses) {
+			if (response.join().statusCode() == 200) {
+				ok++;
+			}
+		}
+		if (ok != requests) {
+			throw new IllegalStateException((requests - ok) + " of " + requests + " requests failed");
+		}
+		return ok;
+	}
+}
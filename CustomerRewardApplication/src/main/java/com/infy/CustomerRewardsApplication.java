@@ -6,12 +6,14 @@ import org.slf4j.LoggerFactory;
 
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application for Customer Rewards
  */
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = "com.infy")
+@EnableScheduling
 public class CustomerRewardsApplication {
 
 	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
@@ -0,0 +1,16 @@
+package com.infy.analytics;
+
+import java.time.YearMonth;
+
+/**
+ * A customer's points in a month of the reward ledger before and after one
+ * write, before the monthly cap.
+ *
+ * @param customerId the customer
+ * @param month      the month
+ * @param before     points before the write; null when the write added the
+ *                   customer's first transactions of the month
+ * @param after      points after the write
+ */
+public record MonthlyPointsChange(long customerId, YearMonth month, Long before, long after) {
+}
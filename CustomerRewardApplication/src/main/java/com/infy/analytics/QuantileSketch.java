@@ -0,0 +1,225 @@
+package com.infy.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate quantiles of non-negative whole numbers, such as amounts in
+ * cents or reward points, in a fixed amount of memory.
+ *
+ * Values are counted in logarithmic buckets: bucket {@code i} holds the values
+ * in {@code (gamma^(i-1), gamma^i]}, with
+ * {@code gamma = (1 + accuracy) / (1 - accuracy)}. Any quantile returned is
+ * therefore within {@code accuracy} of the true value, relative to that value,
+ * whatever the number of values or their distribution. The number of buckets
+ * depends on the accuracy only, about 1,700 for 1%.
+ *
+ * Sketches of the same accuracy merge by adding their bucket counts, so the
+ * sketch of a quarter is the merge of its months. Values can be removed
+ * again, which keeps a sketch of running totals current as they grow. Updates
+ * are lock-free; a reader racing with writers sees each bucket either before
+ * or after a concurrent update.
+ */
+public final class QuantileSketch {
+
+	/** Largest value told apart from larger ones, 10 trillion in cents. */
+	private static final double MAX_VALUE = 1e15;
+
+	private final double relativeAccuracy;
+
+	private final double logGamma;
+
+	private final AtomicLong zeroCount = new AtomicLong();
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLongArray counts;
+
+	/**
+	 * @param relativeAccuracy largest error of a quantile relative to its value,
+	 *                         between 0.0001 and 0.1
+	 */
+	public QuantileSketch(double relativeAccuracy) {
+		if (!(relativeAccuracy >= 0.0001 && relativeAccuracy <= 0.1)) {
+			throw new IllegalArgumentException("Relative accuracy must be between 0.0001 and 0.1");
+		}
+		this.relativeAccuracy = relativeAccuracy;
+		this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+		this.counts = new AtomicLongArray((int) Math.ceil(Math.log(MAX_VALUE) / logGamma) + 1);
+	}
+
+	/**
+	 * @return the relative accuracy the sketch was created with
+	 */
+	public double relativeAccuracy() {
+		return relativeAccuracy;
+	}
+
+	/**
+	 * @return number of values counted
+	 */
+	public long count() {
+		return count.get();
+	}
+
+	/**
+	 * Counts a value once.
+	 *
+	 * @param value the value, not negative
+	 */
+	public void add(long value) {
+		add(value, 1);
+	}
+
+	/**
+	 * Takes back a value counted earlier.
+	 *
+	 * @param value the value, not negative
+	 */
+	public void remove(long value) {
+		add(value, -1);
+	}
+
+	/**
+	 * Counts a value a number of times, or takes it back if the number is
+	 * negative.
+	 *
+	 * @param value the value, not negative
+	 * @param times how often to count it
+	 */
+	public void add(long value, long times) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Sketched values must not be negative");
+		}
+		if (value == 0) {
+			zeroCount.addAndGet(times);
+		} else {
+			counts.addAndGet(index(value), times);
+		}
+		count.addAndGet(times);
+	}
+
+	/**
+	 * Adds the counts of another sketch to this one.
+	 *
+	 * @param other a sketch with the same relative accuracy
+	 */
+	public void merge(QuantileSketch other) {
+		if (other.relativeAccuracy != relativeAccuracy) {
+			throw new IllegalArgumentException("Only sketches of the same accuracy can be merged");
+		}
+		zeroCount.addAndGet(other.zeroCount.get());
+		for (int i = 0; i < counts.length(); i++) {
+			long times = other.counts.get(i);
+			if (times != 0) {
+				counts.addAndGet(i, times);
+			}
+		}
+		count.addAndGet(other.count.get());
+	}
+
+	/**
+	 * Returns the value below which a fraction of the values fall.
+	 *
+	 * @param quantile the fraction, 0 to 1
+	 * @return the value, or 0 if the sketch is empty
+	 */
+	public long quantile(double quantile) {
+		long total = count.get();
+		if (total <= 0) {
+			return 0;
+		}
+		long rank = (long) (quantile * (total - 1));
+		long seen = zeroCount.get();
+		if (seen > rank) {
+			return 0;
+		}
+		int last = -1;
+		for (int i = 0; i < counts.length(); i++) {
+			long times = counts.get(i);
+			if (times > 0) {
+				seen += times;
+				last = i;
+				if (seen > rank) {
+					return value(i);
+				}
+			}
+		}
+		return last < 0 ? 0 : value(last);
+	}
+
+	/**
+	 * Returns how many values are at most a bound. Values within the accuracy
+	 * of the bound may be counted on either side of it.
+	 *
+	 * @param bound the bound, not negative
+	 * @return number of values up to the bound
+	 */
+	public long countAtMost(long bound) {
+		long seen = zeroCount.get();
+		if (bound > 0) {
+			int last = index(bound);
+			for (int i = 0; i <= last; i++) {
+				seen += counts.get(i);
+			}
+		}
+		return seen;
+	}
+
+	/**
+	 * Serializes the sketch, writing non-empty buckets only.
+	 *
+	 * @return the serialized sketch
+	 */
+	public byte[] toBytes() {
+		int nonEmpty = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			if (counts.get(i) != 0) {
+				nonEmpty++;
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES + Long.BYTES + Integer.BYTES
+				+ nonEmpty * (Integer.BYTES + Long.BYTES));
+		buffer.putDouble(relativeAccuracy).putLong(zeroCount.get()).putInt(nonEmpty);
+		for (int i = 0; i < counts.length() && nonEmpty > 0; i++) {
+			long times = counts.get(i);
+			if (times != 0) {
+				buffer.putInt(i).putLong(times);
+				nonEmpty--;
+			}
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Reads a sketch written by {@link #toBytes()}.
+	 *
+	 * @param bytes the serialized sketch
+	 * @return the sketch, with the relative accuracy it was written with
+	 */
+	public static QuantileSketch fromBytes(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		QuantileSketch sketch = new QuantileSketch(buffer.getDouble());
+		sketch.add(0, buffer.getLong());
+		for (int buckets = buffer.getInt(); buckets > 0; buckets--) {
+			int index = buffer.getInt();
+			long times = buffer.getLong();
+			sketch.counts.addAndGet(index, times);
+			sketch.count.addAndGet(times);
+		}
+		return sketch;
+	}
+
+	private int index(long value) {
+		return Math.min((int) Math.ceil(Math.log(value) / logGamma), counts.length() - 1);
+	}
+
+	/**
+	 * Midpoint of a bucket in relative terms, within the accuracy of every value
+	 * in it.
+	 */
+	private long value(int index) {
+		return Math.round(2 * Math.exp(index * logGamma) / (Math.exp(logGamma) + 1));
+	}
+}
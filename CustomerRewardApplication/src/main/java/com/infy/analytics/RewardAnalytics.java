@@ -0,0 +1,684 @@
+package com.infy.analytics;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.datasource.ReplicaRoutingDataSource;
+import com.infy.dto.MonthlyPointsView;
+import com.infy.dto.MonthlySketchRow;
+import com.infy.dto.RewardAnalyticsReport;
+import com.infy.dto.SpendBucket;
+import com.infy.event.TransactionsRecordingEvent;
+import com.infy.exception.InvalidRequestException;
+import com.infy.model.Transaction;
+import com.infy.repository.MonthlyRewardSummaryRepository;
+import com.infy.repository.RewardAnalyticsRepository;
+import com.infy.repository.TransactionBatchRepository;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRules;
+import com.infy.service.RewardEngine;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Approximate distribution statistics over all customers, per calendar month:
+ * percentiles of transaction amounts and of monthly points, a spend histogram
+ * and the number of distinct active customers.
+ *
+ * Each month keeps a {@link QuantileSketch} of amounts in cents, a
+ * {@link QuantileSketch} of the capped points of every customer in the month
+ * and a {@link DistinctCountSketch} of customer IDs. The sketches of a month
+ * take a fixed amount of memory, set by
+ * {@code rewards.analytics.relative-accuracy} and
+ * {@code rewards.analytics.distinct-precision}, so memory grows with the
+ * retained months only. A range of months is answered by merging its months,
+ * one merge of fixed cost per month. A write moves each customer month it
+ * touches within the points sketch from the total before the write to the
+ * total after it, both read back from the ledger in the write's transaction.
+ *
+ * Sketches are updated from the ledger's write path once a write commits. The
+ * amount and customer sketches are written to the database every
+ * {@code rewards.analytics.persist-interval} and on shutdown, together with the
+ * highest transaction ID they cover. On startup they are loaded and the
+ * transactions above that ID replayed; only when none are stored, or they were
+ * stored without the ID, are they rebuilt from the transaction table. Points
+ * sketches follow each customer's running ledger total, so they are reloaded
+ * from the ledger on startup and after it is rebuilt. Only the last
+ * {@code rewards.analytics.retained-months} are kept.
+ *
+ * Loads follow the same protocol as {@link com.infy.service.RewardLeaderboard}
+ * so that writes committing meanwhile are neither lost nor counted twice: a
+ * write holds a read lock from before it inserts its transactions until it has
+ * been applied after commit, while a load starts each of its queries, and
+ * persisting reads the sketches, under the write lock. Writes applied after the
+ * first query started are also queued and replayed onto the loaded sketches
+ * before they replace the current ones; the points of those applied before the
+ * ledger query started are already in it. Scheduled persisting only takes the
+ * write lock if no write holds the read lock and otherwise skips the cycle, so
+ * writes are held off only by loads, on startup and after rebuilds or rule
+ * changes, not periodically.
+ */
+@Component
+public class RewardAnalytics {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private final RewardAnalyticsRepository rewardAnalyticsRepository;
+
+	private final TransactionBatchRepository transactionBatchRepository;
+
+	private final MonthlyRewardSummaryRepository monthlyRewardSummaryRepository;
+
+	private final RewardRules rewardRules;
+
+	private final TransactionTemplate readTransaction;
+
+	private final TransactionTemplate writeTransaction;
+
+	private final double relativeAccuracy;
+
+	private final int distinctPrecision;
+
+	private final int retainedMonths;
+
+	private final long[] spendBucketCents;
+
+	private volatile ConcurrentMap<YearMonth, MonthSketches> months = new ConcurrentHashMap<>();
+
+	/** Highest ID of the transactions applied to {@link #months} */
+	private final AtomicLong lastTransactionId = new AtomicLong();
+
+	/** Whether {@link #months} were loaded, so that persisting cannot overwrite stored sketches */
+	private volatile boolean loaded;
+
+	/** Held for reading by writes until applied; for writing while a load starts a query or swaps */
+	private final ReentrantReadWriteLock recordLock = new ReentrantReadWriteLock();
+
+	/** Serializes loads, rebuilds and points reloads */
+	private final ReentrantLock reloadLock = new ReentrantLock();
+
+	/** Writes applied while a load is running, in the order applied; null otherwise */
+	private volatile Queue<RecordedWrite> pending;
+
+	public RewardAnalytics(RewardAnalyticsRepository rewardAnalyticsRepository,
+			TransactionBatchRepository transactionBatchRepository,
+			MonthlyRewardSummaryRepository monthlyRewardSummaryRepository, RewardRules rewardRules,
+			PlatformTransactionManager transactionManager,
+			@Value("${rewards.analytics.relative-accuracy:0.01}") double relativeAccuracy,
+			@Value("${rewards.analytics.distinct-precision:14}") int distinctPrecision,
+			@Value("${rewards.analytics.retained-months:24}") int retainedMonths,
+			@Value("${rewards.analytics.spend-buckets:25,50,100,250,500,1000}") List<BigDecimal> spendBuckets) {
+		this.rewardAnalyticsRepository = rewardAnalyticsRepository;
+		this.transactionBatchRepository = transactionBatchRepository;
+		this.monthlyRewardSummaryRepository = monthlyRewardSummaryRepository;
+		this.rewardRules = rewardRules;
+		this.relativeAccuracy = relativeAccuracy;
+		this.distinctPrecision = distinctPrecision;
+		this.retainedMonths = retainedMonths;
+		this.spendBucketCents = spendBuckets.stream().mapToLong(bound -> RewardEngine.toCents(bound.doubleValue()))
+				.sorted().toArray();
+		// Fails on startup if the accuracy or precision is out of range
+		new MonthSketches(relativeAccuracy, distinctPrecision);
+
+		// Runs from after-commit callbacks, so it must not join the finished transaction
+		this.readTransaction = new TransactionTemplate(transactionManager);
+		this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.readTransaction.setReadOnly(true);
+		this.writeTransaction = new TransactionTemplate(transactionManager);
+		this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Holds off loads from before a write path inserts transactions until the
+	 * write has been applied or rolled back. Transaction IDs are allocated on
+	 * insert, so every ID a write allocates after sketches were persisted is
+	 * above their watermark.
+	 *
+	 * @param event the write about to insert transactions
+	 */
+	@EventListener
+	public void onTransactionsRecording(TransactionsRecordingEvent event) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		Lock lock = recordLock.readLock();
+		lock.lock();
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				lock.unlock();
+			}
+		});
+	}
+
+	/**
+	 * Adds newly recorded transactions and the ledger changes they caused, once
+	 * the current transaction commits. Must be called before the transaction
+	 * commits; a load waits until the write has been applied or rolled back.
+	 *
+	 * @param transactions the inserted transactions, with IDs and customers set
+	 * @param changes      the resulting points per customer and month
+	 * @param plan         the plan that calculated the points, whose monthly
+	 *                     cap applies to them
+	 */
+	public void record(List<Transaction> transactions, List<MonthlyPointsChange> changes, RewardPlan plan) {
+		Lock lock = recordLock.readLock();
+		lock.lock();
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			try {
+				apply(new RecordedWrite(transactions, changes, plan));
+			} finally {
+				lock.unlock();
+			}
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				try {
+					if (status == STATUS_COMMITTED) {
+						apply(new RecordedWrite(transactions, changes, plan));
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Reports the distribution of spend and points over a range of months.
+	 *
+	 * @param from        first month as {@code yyyy-MM}; the current month when
+	 *                    null
+	 * @param to          last month as {@code yyyy-MM}; {@code from} when null
+	 * @param percentiles percentiles to report, each above 0 and at most 100
+	 * @return the report
+	 * @throws InvalidRequestException if a month or percentile is invalid, or
+	 *                                 the range starts before the retained
+	 *                                 months
+	 */
+	public RewardAnalyticsReport report(String from, String to, List<String> percentiles) {
+		YearMonth first = from == null ? YearMonth.now() : parseMonth(from);
+		YearMonth last = to == null ? first : parseMonth(to);
+		if (first.isAfter(last)) {
+			throw new InvalidRequestException("Start month cannot be after end month.");
+		}
+		if (first.isBefore(horizon())) {
+			throw new InvalidRequestException("Analytics month " + first + " is no longer retained.");
+		}
+		List<BigDecimal> levels = parsePercentiles(percentiles);
+
+		MonthSketches merged = new MonthSketches(relativeAccuracy, distinctPrecision);
+		months.forEach((month, sketches) -> {
+			if (!month.isBefore(first) && !month.isAfter(last)) {
+				merged.merge(sketches);
+			}
+		});
+
+		Map<String, Long> monthlyPoints = new LinkedHashMap<>();
+		Map<String, Double> spend = new LinkedHashMap<>();
+		for (BigDecimal level : levels) {
+			String key = "p" + level.stripTrailingZeros().toPlainString();
+			double quantile = level.doubleValue() / 100;
+			monthlyPoints.put(key, merged.points.quantile(quantile));
+			spend.put(key, merged.spend.quantile(quantile) / 100.0);
+		}
+		return new RewardAnalyticsReport(first.toString(), last.toString(), merged.transactions.get(),
+				merged.customers.estimate(), merged.customers.standardError(), merged.points.count(),
+				monthlyPoints, spend, spendHistogram(merged.spend), relativeAccuracy);
+	}
+
+	/**
+	 * Persists the sketches unless a write is in progress, in which case this
+	 * cycle is skipped rather than holding off writes until it has finished.
+	 */
+	@Scheduled(fixedDelayString = "${rewards.analytics.persist-interval:1m}",
+			initialDelayString = "${rewards.analytics.persist-interval:1m}")
+	public void persistIfIdle() {
+		if (!persist(false)) {
+			logger.debug("Reward analytics sketches not persisted, a write was in progress");
+		}
+	}
+
+	/**
+	 * Writes the sketches of months changed since the last call to the
+	 * database, with the highest transaction ID applied so far. Waits until no
+	 * write is in progress and holds off new ones while the sketches are
+	 * serialized, so they cover exactly the transactions up to that ID that had
+	 * committed. A failed write is retried on the next call. Does nothing before
+	 * the stored sketches were loaded.
+	 */
+	@PreDestroy
+	public void persist() {
+		persist(true);
+	}
+
+	/**
+	 * @param wait whether to wait for writes in progress; otherwise nothing is
+	 *             persisted while any is
+	 * @return false if nothing was persisted because a write was in progress
+	 */
+	private boolean persist(boolean wait) {
+		if (!loaded) {
+			return true;
+		}
+		YearMonth horizon = horizon();
+		List<MonthSketches> written = new ArrayList<>();
+		List<MonthlySketchRow> rows = new ArrayList<>();
+		// A write's sketch updates are not atomic, so they can only be read while none is in progress
+		if (wait) {
+			recordLock.writeLock().lock();
+		} else if (!recordLock.writeLock().tryLock()) {
+			return false;
+		}
+		try {
+			Map<YearMonth, MonthSketches> current = months;
+			current.keySet().removeIf(month -> month.isBefore(horizon));
+			// Months not written keep an older ID; load() replays from the highest stored one
+			long watermark = lastTransactionId.get();
+			current.forEach((month, sketches) -> {
+				if (sketches.dirty.compareAndSet(true, false)) {
+					written.add(sketches);
+					rows.add(new MonthlySketchRow(month.getYear(), month.getMonthValue(), sketches.transactions.get(),
+							sketches.spend.toBytes(), sketches.customers.toBytes(), watermark));
+				}
+			});
+		} finally {
+			recordLock.writeLock().unlock();
+		}
+		if (rows.isEmpty()) {
+			return true;
+		}
+		try {
+			ReplicaRoutingDataSource.onPrimary(() -> writeTransaction.execute(status -> {
+				rewardAnalyticsRepository.saveAll(rows);
+				return null;
+			}));
+		} catch (RuntimeException e) {
+			written.forEach(sketches -> sketches.dirty.set(true));
+			logger.warn("Reward analytics sketches could not be persisted, retrying later", e);
+			return true;
+		}
+		logger.debug("Reward analytics sketches persisted for {} months", rows.size());
+		return true;
+	}
+
+	/**
+	 * Loads the stored sketches on startup and replays the transactions written
+	 * after they were stored, or rebuilds them from the transaction table if
+	 * there are none, and reloads the points sketches from the ledger.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		YearMonth horizon = horizon();
+		List<MonthlySketchRow> rows = ReplicaRoutingDataSource.onPrimary(() -> readTransaction.execute(
+				status -> rewardAnalyticsRepository.findFromMonth(horizon.getYear(), horizon.getMonthValue())));
+		ConcurrentMap<YearMonth, MonthSketches> stored = new ConcurrentHashMap<>();
+		long watermark = 0;
+		for (MonthlySketchRow row : rows) {
+			MonthSketches sketches = MonthSketches.from(row);
+			if (sketches.spend.relativeAccuracy() != relativeAccuracy
+					|| sketches.customers.precision() != distinctPrecision) {
+				logger.info("Reward analytics settings changed, rebuilding sketches");
+				rebuild();
+				return;
+			}
+			if (row.lastTransactionId() == null) {
+				logger.info("Reward analytics sketches were stored without a transaction watermark, rebuilding");
+				rebuild();
+				return;
+			}
+			stored.put(YearMonth.of(row.rewardYear(), row.rewardMonth()), sketches);
+			watermark = Math.max(watermark, row.lastTransactionId());
+		}
+		if (stored.isEmpty()) {
+			rebuild();
+			return;
+		}
+		long replayed = reload(stored, watermark, horizon);
+		logger.info("Reward analytics loaded for {} months since {}, {} transactions after ID {} replayed",
+				stored.size(), horizon, replayed, watermark);
+	}
+
+	/**
+	 * Rebuilds every sketch of the retained months from the transaction table
+	 * and the ledger, and stores them.
+	 *
+	 * @return number of months, transactions and customer months covered
+	 */
+	public Map<String, Object> rebuild() {
+		long start = System.currentTimeMillis();
+		YearMonth horizon = horizon();
+		ConcurrentMap<YearMonth, MonthSketches> rebuilt = new ConcurrentHashMap<>();
+		reload(rebuilt, 0, horizon);
+		persist();
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("months", rebuilt.size());
+		result.put("transactions", rebuilt.values().stream().mapToLong(sketches -> sketches.transactions.get()).sum());
+		result.put("customerMonths",
+				rebuilt.values().stream().mapToLong(sketches -> sketches.points.count()).sum());
+		result.put("elapsedMillis", System.currentTimeMillis() - start);
+		logger.info("Reward analytics rebuilt for {} months since {}", rebuilt.size(), horizon);
+		return result;
+	}
+
+	/**
+	 * Replaces the points sketches with ones loaded from the reward ledger, with
+	 * the monthly cap of the plan in effect. Runs after each ledger rebuild, in a
+	 * transaction of its own on the primary database.
+	 */
+	public void reloadPoints() {
+		reloadLock.lock();
+		try {
+			RewardPlan plan = rewardRules.plan();
+			YearMonth horizon = horizon();
+			Map<YearMonth, QuantileSketch> points = new ConcurrentHashMap<>();
+			ReplicaRoutingDataSource.onPrimary(() -> readTransaction.execute(status -> {
+				try (Stream<MonthlyPointsView> ledger = startQuery(() -> streamLedger(horizon), queued -> {})) {
+					ledger.forEach(row -> monthPoints(points, YearMonth.of(row.getRewardYear(), row.getRewardMonth()))
+							.add(plan.capMonth(row.getPoints())));
+				}
+				return null;
+			}));
+
+			recordLock.writeLock().lock();
+			try {
+				for (RecordedWrite write : pending) {
+					for (MonthlyPointsChange change : write.changes()) {
+						if (!change.month().isBefore(horizon)) {
+							move(monthPoints(points, change.month()), change, write.plan());
+						}
+					}
+				}
+				Map<YearMonth, MonthSketches> current = months;
+				points.forEach((month, reloaded) -> sketches(current, month).points = reloaded);
+				current.forEach((month, sketches) -> {
+					if (!points.containsKey(month)) {
+						sketches.points = new QuantileSketch(relativeAccuracy);
+					}
+				});
+			} finally {
+				recordLock.writeLock().unlock();
+			}
+		} finally {
+			pending = null;
+			reloadLock.unlock();
+		}
+	}
+
+	/**
+	 * Adds the transactions after a watermark and the ledger's points to
+	 * sketches loaded or rebuilt so far, replays the writes applied meanwhile
+	 * and puts the result in place of the current sketches.
+	 *
+	 * @return number of transactions read from the table
+	 */
+	private long reload(ConcurrentMap<YearMonth, MonthSketches> target, long watermark, YearMonth horizon) {
+		reloadLock.lock();
+		try {
+			RewardPlan plan = rewardRules.plan();
+			AtomicLong targetWatermark = new AtomicLong(watermark);
+			AtomicLong read = new AtomicLong();
+			int[] pointsFrom = new int[1];
+			ReplicaRoutingDataSource.onPrimary(() -> readTransaction.execute(status -> {
+				try (Stream<Transaction> transactions = startQuery(
+						() -> transactionBatchRepository.streamAfter(horizon.atDay(1), watermark), queued -> {})) {
+					transactions.forEach(transaction -> {
+						addTransaction(target, targetWatermark, transaction, horizon);
+						read.incrementAndGet();
+					});
+				}
+				// Writes queued from the start of the ledger query on are not in it
+				try (Stream<MonthlyPointsView> ledger = startQuery(() -> streamLedger(horizon),
+						queued -> pointsFrom[0] = queued)) {
+					ledger.forEach(row -> sketches(target, YearMonth.of(row.getRewardYear(), row.getRewardMonth()))
+							.points.add(plan.capMonth(row.getPoints())));
+				}
+				return null;
+			}));
+
+			recordLock.writeLock().lock();
+			try {
+				int index = 0;
+				for (RecordedWrite write : pending) {
+					for (Transaction transaction : write.transactions()) {
+						addTransaction(target, targetWatermark, transaction, horizon);
+					}
+					if (index++ >= pointsFrom[0]) {
+						addPoints(target, write.changes(), horizon, write.plan());
+					}
+				}
+				months = target;
+				lastTransactionId.set(targetWatermark.get());
+				loaded = true;
+			} finally {
+				recordLock.writeLock().unlock();
+			}
+			return read.get();
+		} finally {
+			pending = null;
+			reloadLock.unlock();
+		}
+	}
+
+	/**
+	 * Starts a query under the write lock, so that every write is either
+	 * applied before it starts or not yet visible to it, and queues the writes
+	 * applied from then on if not already queued. The stream executes its query
+	 * when opened.
+	 *
+	 * @param started called under the lock with the number of writes queued
+	 *                before the query started
+	 */
+	private <T> Stream<T> startQuery(Supplier<Stream<T>> query, IntConsumer started) {
+		recordLock.writeLock().lock();
+		try {
+			Stream<T> stream = query.get();
+			if (pending == null) {
+				pending = new ConcurrentLinkedQueue<>();
+			}
+			started.accept(pending.size());
+			return stream;
+		} finally {
+			recordLock.writeLock().unlock();
+		}
+	}
+
+	private Stream<MonthlyPointsView> streamLedger(YearMonth horizon) {
+		return monthlyRewardSummaryRepository.streamFromMonth(horizon.getYear(), horizon.getMonthValue());
+	}
+
+	private void apply(RecordedWrite write) {
+		YearMonth horizon = horizon();
+		Map<YearMonth, MonthSketches> current = months;
+		for (Transaction transaction : write.transactions()) {
+			addTransaction(current, lastTransactionId, transaction, horizon);
+		}
+		addPoints(current, write.changes(), horizon, write.plan());
+		Queue<RecordedWrite> reloading = pending;
+		if (reloading != null) {
+			reloading.add(write);
+		}
+	}
+
+	private void addTransaction(Map<YearMonth, MonthSketches> target, AtomicLong watermark, Transaction transaction,
+			YearMonth horizon) {
+		watermark.accumulateAndGet(transaction.getTransactionId(), Math::max);
+		YearMonth month = YearMonth.from(transaction.getDate());
+		if (!month.isBefore(horizon)) {
+			sketches(target, month).addTransaction(transaction.getCustomer().getCustomerId(),
+					RewardEngine.toCents(transaction.getAmount()));
+		}
+	}
+
+	private void addPoints(Map<YearMonth, MonthSketches> target, List<MonthlyPointsChange> changes,
+			YearMonth horizon, RewardPlan plan) {
+		for (MonthlyPointsChange change : changes) {
+			if (!change.month().isBefore(horizon)) {
+				move(sketches(target, change.month()).points, change, plan);
+			}
+		}
+	}
+
+	/**
+	 * Moves a customer month from its capped total before a write to the one
+	 * after it. A customer month seen for the first time is added even with
+	 * zero points. Writes to the same customer month may be applied out of
+	 * order, since removing and adding counts commute.
+	 */
+	private static void move(QuantileSketch points, MonthlyPointsChange change, RewardPlan plan) {
+		if (change.before() != null) {
+			points.remove(plan.capMonth(change.before()));
+		}
+		points.add(plan.capMonth(change.after()));
+	}
+
+	private QuantileSketch monthPoints(Map<YearMonth, QuantileSketch> points, YearMonth month) {
+		return points.computeIfAbsent(month, key -> new QuantileSketch(relativeAccuracy));
+	}
+
+	private MonthSketches sketches(Map<YearMonth, MonthSketches> current, YearMonth month) {
+		return current.computeIfAbsent(month, key -> new MonthSketches(relativeAccuracy, distinctPrecision));
+	}
+
+	/**
+	 * Splits the amounts at {@code rewards.analytics.spend-buckets}, with one
+	 * more open-ended bucket above the last bound.
+	 */
+	private List<SpendBucket> spendHistogram(QuantileSketch spend) {
+		List<SpendBucket> buckets = new ArrayList<>(spendBucketCents.length + 1);
+		long lower = 0;
+		long below = 0;
+		for (long bound : spendBucketCents) {
+			long atMost = spend.countAtMost(bound);
+			buckets.add(new SpendBucket(lower / 100.0, bound / 100.0, atMost - below));
+			lower = bound;
+			below = atMost;
+		}
+		buckets.add(new SpendBucket(lower / 100.0, null, spend.count() - below));
+		return buckets;
+	}
+
+	/**
+	 * First retained month.
+	 */
+	private YearMonth horizon() {
+		return YearMonth.now().minusMonths(retainedMonths - 1L);
+	}
+
+	private static YearMonth parseMonth(String month) {
+		try {
+			return YearMonth.parse(month);
+		} catch (DateTimeParseException e) {
+			throw new InvalidRequestException("Analytics months must be formatted as yyyy-MM.");
+		}
+	}
+
+	private static List<BigDecimal> parsePercentiles(List<String> percentiles) {
+		List<BigDecimal> levels = new ArrayList<>(percentiles.size());
+		for (String percentile : percentiles) {
+			try {
+				BigDecimal level = new BigDecimal(percentile.trim());
+				if (level.signum() > 0 && level.compareTo(BigDecimal.valueOf(100)) <= 0) {
+					levels.add(level);
+					continue;
+				}
+			} catch (NumberFormatException e) {
+				// Reported below
+			}
+			throw new InvalidRequestException("Percentiles must be numbers above 0 and at most 100.");
+		}
+		return levels;
+	}
+
+	/**
+	 * The sketches of one month. The points are replaced as a whole when
+	 * reloaded from the ledger.
+	 */
+	private static final class MonthSketches {
+
+		private final AtomicLong transactions = new AtomicLong();
+
+		private final QuantileSketch spend;
+
+		private final DistinctCountSketch customers;
+
+		/** Capped points of every customer in the month */
+		private volatile QuantileSketch points;
+
+		/** Whether the amounts or customers changed since they were persisted */
+		private final AtomicBoolean dirty = new AtomicBoolean();
+
+		private MonthSketches(double relativeAccuracy, int distinctPrecision) {
+			this(new QuantileSketch(relativeAccuracy), new DistinctCountSketch(distinctPrecision));
+		}
+
+		private MonthSketches(QuantileSketch spend, DistinctCountSketch customers) {
+			this.spend = spend;
+			this.customers = customers;
+			this.points = new QuantileSketch(spend.relativeAccuracy());
+		}
+
+		private static MonthSketches from(MonthlySketchRow row) {
+			MonthSketches sketches = new MonthSketches(QuantileSketch.fromBytes(row.spendSketch()),
+					DistinctCountSketch.fromBytes(row.customerSketch()));
+			sketches.transactions.set(row.transactionCount());
+			return sketches;
+		}
+
+		private void addTransaction(long customerId, long amountCents) {
+			transactions.incrementAndGet();
+			spend.add(Math.max(amountCents, 0));
+			customers.add(customerId);
+			dirty.set(true);
+		}
+
+		private void merge(MonthSketches other) {
+			transactions.addAndGet(other.transactions.get());
+			spend.merge(other.spend);
+			customers.merge(other.customers);
+			points.merge(other.points);
+		}
+	}
+
+	/**
+	 * The transactions and ledger changes of one committed write, with the plan
+	 * that calculated the points.
+	 */
+	private record RecordedWrite(List<Transaction> transactions, List<MonthlyPointsChange> changes,
+			RewardPlan plan) {
+	}
+}
@@ -1,25 +1,60 @@
 package com.infy.controller;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import com.infy.CustomerRewardsApplication;
+import com.infy.analytics.RewardAnalytics;
+import com.infy.dto.BatchRewardsRequest;
+import com.infy.dto.BulkCustomerRequest;
+import com.infy.dto.BulkIngestionResponse;
 import com.infy.dto.CustomerDto;
+import com.infy.dto.CustomerSummary;
+import com.infy.dto.ExportFormat;
+import com.infy.dto.ImportFormat;
+import com.infy.dto.ImportResult;
+import com.infy.dto.Leaderboard;
+import com.infy.dto.QueuedIngestionResponse;
+import com.infy.dto.RecomputationResult;
+import com.infy.dto.RewardAnalyticsReport;
+import com.infy.dto.RewardSummary;
+import com.infy.dto.SnapshotSummary;
+import com.infy.dto.TransactionPage;
+import com.infy.exception.IngestionQueueFullException;
 import com.infy.exception.InvalidRequestException;
 import com.infy.model.Customer;
-import com.infy.model.Transaction;
+import com.infy.rules.RewardRules;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRulesProperties;
+import com.infy.service.CustomerWriteLocks;
+import com.infy.service.RewardLeaderboard;
+import com.infy.service.RewardsCache;
+import com.infy.service.RewardsExportService;
+import com.infy.service.RewardsRequestCoalescer;
 import com.infy.service.RewardsService;
+import com.infy.service.TransactionDeduplicator;
+import com.infy.service.TransactionHistoryService;
+import com.infy.service.TransactionIngestionService;
+import com.infy.service.TransactionWriteBehindQueue;
+import com.infy.snapshot.TransactionSnapshotService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 import org.slf4j.Logger;
 
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,16 +69,56 @@ public class RewardsController {
 
 	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
 
+	private static final String TEXT_CSV_VALUE = "text/csv";
+
+	private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
 	@Autowired
 	private RewardsService rewardsService;
 
+	@Autowired
+	private TransactionIngestionService transactionIngestionService;
+
+	@Autowired
+	private RewardsCache rewardsCache;
+
+	@Autowired
+	private RewardsExportService rewardsExportService;
+
+	@Autowired
+	private RewardsRequestCoalescer rewardsRequestCoalescer;
+
+	@Autowired
+	private RewardLeaderboard rewardLeaderboard;
+
+	@Autowired
+	private RewardAnalytics rewardAnalytics;
+
+	@Autowired
+	private CustomerWriteLocks customerWriteLocks;
+
+	@Autowired
+	private TransactionHistoryService transactionHistoryService;
+
+	@Autowired
+	private RewardRules rewardRules;
+
+	@Autowired
+	private TransactionDeduplicator transactionDeduplicator;
+
+	@Autowired
+	private TransactionSnapshotService transactionSnapshotService;
+
+	@Autowired
+	private ObjectProvider<TransactionWriteBehindQueue> transactionWriteBehindQueue;
+
 	/**
 	 * Endpoint to add a new customer along with transaction history.
 	 *
 	 * @param customerDto Data transfer object containing customer name and
 	 *                    transaction list.
-	 * @return ResponseEntity with saved customer details and HTTP status 201
-	 *         (Created).
+	 * @return ResponseEntity with the ID and name of the saved customer and HTTP
+	 *         status 201 (Created).
 	 * @throws InvalidRequestException if the input is null .
 	 */
 	@PostMapping("/addCustomer")
@@ -52,23 +127,87 @@ public class RewardsController {
 			throw new InvalidRequestException("Customer data is missing");
 		}
 
-		Customer customer = new Customer();
-		customer.setCustomerName(customerDto.getCustomerName());
+		Customer customer = customerDto.toCustomer();
 
-		List<Transaction> customerTransactions = customerDto.getTransaction().stream().map(dto -> {
-			Transaction t = new Transaction();
-			t.setAmount(dto.getAmount());
-			t.setDate(dto.getDate());
-			t.setCustomer(customer);
-			return t;
-		}).collect(Collectors.toList());
+		logger.debug("Adding Customer : {}", customer.getCustomerName());
+		Customer savedCustomer = rewardsService.saveCustomer(customer);
+		logger.info("Customer added successfully : {}", savedCustomer.getCustomerId());
+		return new ResponseEntity<>(CustomerSummary.of(savedCustomer), HttpStatus.CREATED);
+	}
 
-		customer.setTransaction(customerTransactions);
+	/**
+	 * Endpoint to queue a customer and its transactions for write-behind
+	 * ingestion. The request is validated and acknowledged at once; the data is
+	 * saved shortly after by the queue's writer. Every transaction must carry an
+	 * external ID so the request can be retried safely. Only available when
+	 * {@code rewards.ingestion.write-behind.enabled} is set.
+	 *
+	 * @param customerDto Data transfer object containing customer name and
+	 *                    transaction list.
+	 * @return ResponseEntity with the accepted transaction count and queue depth
+	 *         and HTTP status 202 (Accepted).
+	 * @throws InvalidRequestException     if the input is null or queued
+	 *                                     ingestion is not enabled.
+	 * @throws IngestionQueueFullException if the queue is full; the response
+	 *                                     is 503 with a Retry-After header.
+	 */
+	@PostMapping("/addCustomer/async")
+	public ResponseEntity<?> addCustomerAsync(@Valid @RequestBody(required = false) CustomerDto customerDto) {
+		if (customerDto == null) {
+			throw new InvalidRequestException("Customer data is missing");
+		}
 
-		logger.debug("Adding Customer : {}", customer);
-		Customer savedCustomer = rewardsService.saveCustomer(customer);
-		logger.info("Customer added successfully : {}", savedCustomer);
-		return new ResponseEntity<>(savedCustomer, HttpStatus.CREATED);
+		logger.debug("Queueing Customer : {}", customerDto.getCustomerName());
+		QueuedIngestionResponse response = writeBehindQueue().enqueue(customerDto);
+		logger.debug("Customer queued, queue depth : {}", response.getQueueDepth());
+		return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+	}
+
+	/**
+	 * Endpoint to ingest many customers and their transactions in one call using
+	 * batched inserts.
+	 *
+	 * @param request list of customers, each with its transaction list.
+	 * @return ResponseEntity with saved counts, generated customer IDs and insert
+	 *         throughput, with HTTP status 201 (Created).
+	 * @throws InvalidRequestException if the input is null.
+	 */
+	@PostMapping("/transactions/bulk")
+	public ResponseEntity<?> addCustomersInBulk(@Valid @RequestBody(required = false) BulkCustomerRequest request) {
+		if (request == null) {
+			throw new InvalidRequestException("Bulk request data is missing");
+		}
+
+		List<Customer> customers = request.getCustomers().stream().map(CustomerDto::toCustomer)
+				.collect(Collectors.toList());
+
+		logger.debug("Bulk ingesting {} customers", customers.size());
+		BulkIngestionResponse response = transactionIngestionService.ingestCustomers(customers);
+		logger.info("Bulk ingestion completed : {} transactions", response.getTransactionsSaved());
+		return new ResponseEntity<>(response, HttpStatus.CREATED);
+	}
+
+	/**
+	 * Endpoint to stream transactions for existing customers from an NDJSON or CSV
+	 * body. Records are persisted in chunks while the body is read; invalid
+	 * records are reported without stopping the import.
+	 *
+	 * @param request the HTTP request whose body holds one record per line.
+	 * @return ResponseEntity with import counts and per-record errors, with HTTP
+	 *         status 200 (OK).
+	 * @throws IOException if the request body cannot be opened.
+	 */
+	@PostMapping(value = "/transactions/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE })
+	public ResponseEntity<?> importTransactions(HttpServletRequest request) throws IOException {
+		ImportFormat format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TEXT_CSV)
+				? ImportFormat.CSV
+				: ImportFormat.NDJSON;
+
+		logger.debug("Importing {} transaction stream", format);
+		ImportResult result = transactionIngestionService.importTransactions(request.getInputStream(), format);
+		logger.info("Transaction import completed : {} imported, {} rejected", result.getRecordsImported(),
+				result.getErrorCount());
+		return new ResponseEntity<>(result, HttpStatus.OK);
 	}
 
 	/**
@@ -94,8 +233,332 @@ public class RewardsController {
 		}
 
 		logger.debug("Calculating rewards for customer : {}", customerId);
-		Map<String, Object> rewards = rewardsService.calculateRewards(customerId, startDate, endDate);
+		RewardSummary rewards = rewardsService.calculateRewardSummary(customerId, startDate, endDate);
 		logger.info("Rewards calculated successfully for customer: {}", customerId);
 		return new ResponseEntity<>(rewards, HttpStatus.OK);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Asynchronous variant of {@link #getRewards}. The calculation runs on the
+	 * application task executor, releasing the request thread, and concurrent
+	 * identical requests share one calculation.
+	 *
+	 * @param customerId ID of the customer whose rewards need to be calculated.
+	 * @param startDate  Start date of the reward calculation period (ISO format).
+	 * @param endDate    End date of the reward calculation period (ISO format).
+	 * @return future of the ResponseEntity containing the reward breakdown and
+	 *         customer details.
+	 * @throws InvalidRequestException if input parameters are invalid.
+	 */
+	@GetMapping("/calculateRewards/{customerId}/async")
+	public CompletableFuture<ResponseEntity<RewardSummary>> getRewardsAsync(@PathVariable Long customerId,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+		if (customerId == null || customerId <= 0) {
+			throw new InvalidRequestException("Customer ID must be a positive number");
+		}
+
+		if (startDate.isAfter(endDate)) {
+			throw new InvalidRequestException("Start date cannot be after end date.");
+		}
+
+		logger.debug("Calculating rewards asynchronously for customer : {}", customerId);
+		return rewardsRequestCoalescer.calculateRewardSummary(customerId, startDate, endDate)
+				.thenApply(rewards -> new ResponseEntity<>(rewards, HttpStatus.OK));
+	}
+
+	/**
+	 * Endpoint to calculate reward points of many customers within one date range.
+	 * Customers without transactions in the range get an error entry instead of
+	 * failing the whole batch.
+	 *
+	 * @param request customer IDs and the reward calculation period.
+	 * @return ResponseEntity with the reward breakdown per customer ID and HTTP
+	 *         status 200 (OK).
+	 * @throws InvalidRequestException if the input is null or the dates are
+	 *                                 invalid.
+	 */
+	@PostMapping("/calculateRewards/batch")
+	public ResponseEntity<?> getRewardsBatch(@Valid @RequestBody(required = false) BatchRewardsRequest request) {
+		if (request == null) {
+			throw new InvalidRequestException("Batch request data is missing");
+		}
+
+		if (request.getStartDate().isAfter(request.getEndDate())) {
+			throw new InvalidRequestException("Start date cannot be after end date.");
+		}
+
+		logger.debug("Calculating rewards for {} customers", request.getCustomerIds().size());
+		Map<Long, Map<String, Object>> rewards = rewardsService.calculateRewardsBatch(request.getCustomerIds(),
+				request.getStartDate(), request.getEndDate());
+		logger.info("Batch rewards calculated successfully for {} customers", rewards.size());
+		return new ResponseEntity<>(rewards, HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to export the reward totals of every customer within a date range.
+	 * Records are written to the response while transactions are read, one per
+	 * customer with transactions in the range.
+	 *
+	 * @param startDate Start date of the export period (ISO format).
+	 * @param endDate   End date of the export period (ISO format).
+	 * @param format    Record format, NDJSON (default) or CSV.
+	 * @param response  the HTTP response the records are streamed to.
+	 * @throws InvalidRequestException if the format or the dates are invalid.
+	 * @throws IOException             if the response body cannot be opened.
+	 */
+	@GetMapping("/export")
+	public void exportRewards(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+			@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+		ExportFormat exportFormat = toExportFormat(format);
+
+		if (startDate.isAfter(endDate)) {
+			throw new InvalidRequestException("Start date cannot be after end date.");
+		}
+
+		String extension = exportFormat == ExportFormat.CSV ? "csv" : "ndjson";
+		response.setContentType(exportFormat == ExportFormat.CSV ? TEXT_CSV_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				"attachment; filename=\"rewards-" + startDate + "-" + endDate + "." + extension + "\"");
+
+		logger.debug("Exporting rewards from {} to {}", startDate, endDate);
+		long customers = rewardsExportService.exportRewards(startDate, endDate, exportFormat,
+				response.getOutputStream());
+		logger.info("Rewards exported successfully for {} customers", customers);
+	}
+
+	/**
+	 * Endpoint to read the customers with the most reward points in a month or
+	 * quarter. Served from the in-memory leaderboard, so the cost depends on
+	 * {@code k} only, not on the number of customers.
+	 *
+	 * @param period {@code month} or {@code quarter} for the current one, or a
+	 *               month as {@code yyyy-MM} or a quarter as {@code yyyy-Qn}.
+	 * @param k      number of customers to return.
+	 * @return ResponseEntity with the top customers, most points first, and HTTP
+	 *         status 200 (OK).
+	 * @throws InvalidRequestException if the period or k is invalid.
+	 */
+	@GetMapping("/leaderboard")
+	public ResponseEntity<?> getLeaderboard(@RequestParam(defaultValue = "month") String period,
+			@RequestParam(defaultValue = "10") int k) {
+		logger.debug("Reading leaderboard of {} with {} customers", period, k);
+		Leaderboard leaderboard = rewardLeaderboard.top(period, k);
+		return new ResponseEntity<>(leaderboard, HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to read approximate distribution statistics over all customers
+	 * for a range of months: percentiles of monthly points and of transaction
+	 * amounts, a spend histogram and the distinct active customers. Answered
+	 * from fixed-size sketches, so the cost does not depend on the number of
+	 * transactions or customers.
+	 *
+	 * @param from        first month as {@code yyyy-MM}; the current month when
+	 *                    omitted.
+	 * @param to          last month as {@code yyyy-MM}; {@code from} when
+	 *                    omitted.
+	 * @param percentiles percentiles to report, e.g. 50,90,99.
+	 * @return ResponseEntity with the report and HTTP status 200 (OK).
+	 * @throws InvalidRequestException if a month or percentile is invalid.
+	 */
+	@GetMapping("/analytics")
+	public ResponseEntity<?> getAnalytics(@RequestParam(required = false) String from,
+			@RequestParam(required = false) String to,
+			@RequestParam(defaultValue = "50,90,99") List<String> percentiles) {
+		logger.debug("Reading reward analytics from {} to {}", from, to);
+		RewardAnalyticsReport report = rewardAnalytics.report(from, to, percentiles);
+		return new ResponseEntity<>(report, HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to rebuild the analytics sketches from the transaction table and
+	 * the reward ledger, e.g. after transactions were changed outside the
+	 * application.
+	 *
+	 * @return ResponseEntity with the months, transactions and customer months
+	 *         covered, and HTTP status 200 (OK).
+	 */
+	@PostMapping("/analytics/rebuild")
+	public ResponseEntity<?> rebuildAnalytics() {
+		Map<String, Object> result = rewardAnalytics.rebuild();
+		logger.info("Reward analytics rebuilt for {} months", result.get("months"));
+		return new ResponseEntity<>(result, HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to page through a customer's transactions, newest first. Pages
+	 * are read by seeking past the previous page, so deep pages cost the same as
+	 * the first one.
+	 *
+	 * @param customerId ID of the customer whose transactions are listed.
+	 * @param cursor     token returned as {@code nextCursor} by the previous
+	 *                   page; omitted for the first page.
+	 * @param size       maximum transactions per page; defaults to
+	 *                   {@code rewards.history.default-page-size}.
+	 * @return ResponseEntity with the page and the token of the next one, with
+	 *         HTTP status 200 (OK).
+	 * @throws InvalidRequestException if the customer ID, cursor or size is
+	 *                                 invalid.
+	 */
+	@GetMapping("/customers/{customerId}/transactions")
+	public ResponseEntity<?> getTransactions(@PathVariable Long customerId,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+
+		if (customerId == null || customerId <= 0) {
+			throw new InvalidRequestException("Customer ID must be a positive number");
+		}
+
+		logger.debug("Reading transactions of customer : {}", customerId);
+		TransactionPage page = transactionHistoryService.findTransactions(customerId, cursor, size);
+		logger.info("Transaction page read for customer: {} with {} transactions", customerId,
+				page.transactions().size());
+		return new ResponseEntity<>(page, HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to read the reward rules in effect.
+	 *
+	 * @return ResponseEntity with the tiers, boosts and monthly cap, with HTTP
+	 *         status 200 (OK).
+	 */
+	@GetMapping("/rules")
+	public ResponseEntity<?> getRules() {
+		return new ResponseEntity<>(rewardRules.definition(), HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to replace the reward rules at runtime. The rules are compiled
+	 * before they take effect, and the reward ledger is recomputed with them.
+	 *
+	 * @param rules the new tiers, boosts and monthly cap; without tiers the
+	 *              default tiers apply.
+	 * @return ResponseEntity with the rules now in effect and HTTP status 200
+	 *         (OK).
+	 * @throws InvalidRequestException if the input is null or the rules are
+	 *                                 invalid.
+	 */
+	@PutMapping("/rules")
+	public ResponseEntity<?> replaceRules(@RequestBody(required = false) RewardRulesProperties rules) {
+		if (rules == null) {
+			throw new InvalidRequestException("Reward rules are missing");
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Replacing reward rules : {}", rules);
+		}
+		rewardRules.replace(rules);
+		logger.info("Reward rules replaced successfully");
+		return new ResponseEntity<>(rewardRules.definition(), HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to write every transaction into a columnar snapshot file, from
+	 * which rewards can be recomputed without reading the database.
+	 *
+	 * @return ResponseEntity with the file, rows and size of the snapshot and
+	 *         HTTP status 201 (Created).
+	 */
+	@PostMapping("/snapshot")
+	public ResponseEntity<?> writeSnapshot() {
+		SnapshotSummary summary = transactionSnapshotService.dump();
+		logger.info("Transaction snapshot written with {} rows", summary.rows());
+		return new ResponseEntity<>(summary, HttpStatus.CREATED);
+	}
+
+	/**
+	 * Endpoint to recompute the rewards of every transaction from the snapshot
+	 * file, under the rules in effect or under candidate rules that are not put
+	 * into effect. The reward ledger is left unchanged.
+	 *
+	 * @param rules candidate tiers, boosts and monthly cap; the rules in effect
+	 *              when omitted.
+	 * @return ResponseEntity with the recomputed totals and HTTP status 200 (OK).
+	 * @throws InvalidRequestException if no snapshot exists or the rules are
+	 *                                 invalid.
+	 */
+	@PostMapping("/snapshot/recompute")
+	public ResponseEntity<?> recomputeSnapshot(@RequestBody(required = false) RewardRulesProperties rules) {
+		RewardPlan plan = rules == null ? rewardRules.plan() : rewardRules.preview(rules);
+		RecomputationResult result = transactionSnapshotService.recompute(plan);
+		logger.info("Rewards recomputed from snapshot for {} customers", result.customers());
+		return new ResponseEntity<>(result, HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to read hit, miss and eviction statistics of the rewards cache.
+	 *
+	 * @return ResponseEntity with cache statistics and HTTP status 200 (OK).
+	 */
+	@GetMapping("/cache/stats")
+	public ResponseEntity<?> getCacheStats() {
+		return new ResponseEntity<>(rewardsCache.stats(), HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to read how many asynchronous reward requests were coalesced into
+	 * an in-flight calculation.
+	 *
+	 * @return ResponseEntity with coalescing statistics and HTTP status 200 (OK).
+	 */
+	@GetMapping("/coalescing/stats")
+	public ResponseEntity<?> getCoalescingStats() {
+		return new ResponseEntity<>(rewardsRequestCoalescer.stats(), HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to read how many ingested transactions were skipped as duplicates
+	 * by external ID, and how many of those were caught without a database
+	 * lookup.
+	 *
+	 * @return ResponseEntity with deduplication statistics and HTTP status 200
+	 *         (OK).
+	 */
+	@GetMapping("/ingestion/dedup/stats")
+	public ResponseEntity<?> getDeduplicationStats() {
+		return new ResponseEntity<>(transactionDeduplicator.stats(), HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to read how often writers of the same customer waited for each
+	 * other, in total and for the most contended lock stripes.
+	 *
+	 * @return ResponseEntity with customer write lock statistics and HTTP status
+	 *         200 (OK).
+	 */
+	@GetMapping("/ingestion/locks/stats")
+	public ResponseEntity<?> getWriteLockStats() {
+		return new ResponseEntity<>(customerWriteLocks.stats(), HttpStatus.OK);
+	}
+
+	/**
+	 * Endpoint to read the depth of the write-behind ingestion queue and how many
+	 * customers it accepted, rejected and wrote.
+	 *
+	 * @return ResponseEntity with queue statistics and HTTP status 200 (OK).
+	 */
+	@GetMapping("/ingestion/queue/stats")
+	public ResponseEntity<?> getIngestionQueueStats() {
+		return new ResponseEntity<>(writeBehindQueue().stats(), HttpStatus.OK);
+	}
+
+	private TransactionWriteBehindQueue writeBehindQueue() {
+		TransactionWriteBehindQueue queue = transactionWriteBehindQueue.getIfAvailable();
+		if (queue == null) {
+			throw new InvalidRequestException("Queued ingestion is not enabled.");
+		}
+		return queue;
+	}
+
+	private ExportFormat toExportFormat(String format) {
+		for (ExportFormat candidate : ExportFormat.values()) {
+			if (candidate.name().equalsIgnoreCase(format)) {
+				return candidate;
+			}
+		}
+		throw new InvalidRequestException("Export format must be ndjson or csv");
+	}
+}
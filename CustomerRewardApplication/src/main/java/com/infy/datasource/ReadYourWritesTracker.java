@@ -0,0 +1,79 @@
+package com.infy.datasource;
+
+import com.infy.event.TransactionsRecordedEvent;
+import com.infy.model.Transaction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which customers were written within the last
+ * {@code rewards.datasource.read-your-writes-window}, so their reads go to the
+ * primary until the replicas have caught up. The window should exceed the
+ * usual replication lag. Without replicas every read goes to the primary and
+ * this only costs a cache lookup.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+	private final Cache<Long, Boolean> recentWrites;
+
+	public ReadYourWritesTracker(@Value("${rewards.datasource.read-your-writes-window:5s}") Duration window,
+			@Value("${rewards.datasource.read-your-writes-maximum-size:100000}") long maximumSize) {
+		this.recentWrites = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maximumSize).build();
+	}
+
+	/**
+	 * Runs a read, on the primary if any of the customers was written within the
+	 * window.
+	 *
+	 * @param customerIds the customers the read is about
+	 * @param read        the read, which opens its own transaction
+	 * @return the result of the read
+	 */
+	public <T> T read(Collection<Long> customerIds, Supplier<T> read) {
+		for (Long customerId : customerIds) {
+			if (recentWrites.getIfPresent(customerId) != null) {
+				return ReplicaRoutingDataSource.onPrimary(read);
+			}
+		}
+		return read.get();
+	}
+
+	/**
+	 * Starts the window of the written customers when the write is recorded, so
+	 * reads racing with the commit already go to the primary.
+	 *
+	 * @param event the transactions that were inserted
+	 */
+	@EventListener
+	public void onTransactionsRecorded(TransactionsRecordedEvent event) {
+		markWritten(event);
+	}
+
+	/**
+	 * Restarts the window once the write has committed, which is when
+	 * replication of it begins.
+	 *
+	 * @param event the transactions that were inserted
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+	public void onTransactionsCommitted(TransactionsRecordedEvent event) {
+		markWritten(event);
+	}
+
+	private void markWritten(TransactionsRecordedEvent event) {
+		for (Transaction transaction : event.transactions()) {
+			recentWrites.put(transaction.getCustomer().getCustomerId(), Boolean.TRUE);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.infy.datasource;
+
+import com.infy.CustomerRewardsApplication;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with one that sends read-only
+ * transactions to the replicas under {@code rewards.datasource.replicas}.
+ * Without replicas the auto-configured single pool is used unchanged.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "rewards.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfiguration {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	/**
+	 * The primary pool, configured by {@code spring.datasource} and
+	 * {@code spring.datasource.hikari} like the auto-configured one.
+	 *
+	 * @param properties the {@code spring.datasource} properties
+	 * @return the primary pool
+	 */
+	@Bean
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+		return dataSource;
+	}
+
+	/**
+	 * Routes between the primary and replica pools. A bean of its own so the
+	 * replica pools it creates are closed on shutdown.
+	 *
+	 * @param primaryDataSource the primary pool
+	 * @param properties        the replica settings
+	 * @param meterRegistry     registry of the routing counters
+	 * @return the routing data source
+	 */
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+			ReplicaProperties properties, MeterRegistry meterRegistry) {
+		List<DataSource> replicas = new ArrayList<>();
+		for (ReplicaProperties.Replica replica : properties.getReplicas()) {
+			HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).url(replica.getUrl())
+					.username(replica.getUsername()).password(replica.getPassword()).build();
+			dataSource.setPoolName("replica-" + replicas.size());
+			dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+			dataSource.setReadOnly(true);
+			replicas.add(dataSource);
+		}
+		logger.info("Routing read-only transactions to {} replicas", replicas.size());
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas, meterRegistry);
+	}
+
+	/**
+	 * The data source used by JPA, JDBC templates and Flyway.
+	 *
+	 * @param replicaRoutingDataSource the routing data source
+	 * @return the routing data source behind a lazy connection proxy
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+}
@@ -0,0 +1,37 @@
+package com.infy.datasource;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas configured under {@code rewards.datasource.replicas}. The
+ * primary keeps its {@code spring.datasource} settings.
+ */
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "rewards.datasource")
+public class ReplicaProperties {
+
+	private List<Replica> replicas = new ArrayList<>();
+
+	/**
+	 * Connection settings of one replica.
+	 */
+	@Data
+	@NoArgsConstructor
+	public static class Replica {
+
+		private String url;
+
+		private String username;
+
+		private String password;
+
+		private int maximumPoolSize = 10;
+	}
+}
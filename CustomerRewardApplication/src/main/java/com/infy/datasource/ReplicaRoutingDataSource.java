@@ -0,0 +1,127 @@
+package com.infy.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Routes connections of read-only transactions to the replicas, round robin,
+ * and every other connection to the primary. A thread can pin its reads to
+ * the primary with {@link #onPrimary}.
+ *
+ * The read-only flag of a transaction is only set after the transaction has
+ * begun, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * which defers fetching the connection to the first statement.
+ *
+ * The replica pools are created for and owned by this data source, and closed
+ * when it is destroyed. The primary is left to whoever created it.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+	static final String PRIMARY = "primary";
+
+	private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+	private final List<String> replicaKeys = new ArrayList<>();
+
+	private final List<DataSource> replicas;
+
+	private final Map<String, Counter> connections = new HashMap<>();
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * @param primary       the primary data source
+	 * @param replicas      the replica data sources, closed with this one
+	 * @param meterRegistry registry of the per-target connection counters
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, MeterRegistry meterRegistry) {
+		this.replicas = List.copyOf(replicas);
+		Map<Object, Object> targets = new LinkedHashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			String key = "replica-" + i;
+			targets.put(key, replicas.get(i));
+			replicaKeys.add(key);
+		}
+		for (Object key : targets.keySet()) {
+			connections.put((String) key, meterRegistry.counter("rewards.datasource.connections", "target",
+					(String) key));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+	}
+
+	/**
+	 * Runs an action with every connection it opens on this thread routed to
+	 * the primary, including those of read-only transactions.
+	 *
+	 * @param action the action to run
+	 * @return the result of the action
+	 */
+	public static <T> T onPrimary(Supplier<T> action) {
+		Boolean previous = PINNED.get();
+		PINNED.set(Boolean.TRUE);
+		try {
+			return action.get();
+		} finally {
+			if (previous == null) {
+				PINNED.remove();
+			} else {
+				PINNED.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Closes the replica pools.
+	 *
+	 * @throws IOException if a pool fails to close; the others are still closed
+	 */
+	@Override
+	public void destroy() throws IOException {
+		IOException failure = null;
+		for (DataSource replica : replicas) {
+			if (replica instanceof Closeable closeable) {
+				try {
+					closeable.close();
+				} catch (IOException e) {
+					if (failure == null) {
+						failure = e;
+					} else {
+						failure.addSuppressed(e);
+					}
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String key = PRIMARY;
+		if (!replicaKeys.isEmpty() && PINNED.get() == null
+				&& TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			key = replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+		}
+		connections.get(key).increment();
+		return key;
+	}
+}
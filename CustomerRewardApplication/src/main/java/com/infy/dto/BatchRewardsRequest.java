@@ -0,0 +1,30 @@
+package com.infy.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object for calculating rewards of many customers over one date
+ * range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRewardsRequest {
+
+	@NotNull(message = "Customer ID list cannot be null")
+	@Size(min = 1, message = "Customer ID list cannot be empty")
+	private List<@NotNull(message = "Customer ID cannot be null") Long> customerIds;
+
+	@NotNull(message = "Start date cannot be null")
+	private LocalDate startDate;
+
+	@NotNull(message = "End date cannot be null")
+	private LocalDate endDate;
+}
@@ -0,0 +1,24 @@
+package com.infy.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for ingesting many customers and their transactions in a
+ * single call.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCustomerRequest {
+
+	@NotNull(message = "Customer list cannot be null")
+	@Size(min = 1, message = "Customer list cannot be empty")
+	private List<@Valid CustomerDto> customers;
+}
@@ -0,0 +1,30 @@
+package com.infy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a bulk ingestion call, including the measured insert throughput.
+ * Transactions whose external ID was already recorded are counted in
+ * {@code duplicatesSkipped} instead of {@code transactionsSaved}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIngestionResponse {
+
+	private int customersSaved;
+
+	private int transactionsSaved;
+
+	private int duplicatesSkipped;
+
+	private List<Long> customerIds;
+
+	private long elapsedMillis;
+
+	private double rowsPerSecond;
+}
@@ -1,5 +1,8 @@
 package com.infy.dto;
 
+import com.infy.model.Customer;
+import com.infy.model.Transaction;
+
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -7,7 +10,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.springframework.util.StringUtils;
+
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Data Transfer Object for customer details and their transactions.
@@ -24,4 +30,27 @@ public class CustomerDto {
 	@NotNull(message = "Transaction list cannot be null")
 	@Size(min = 1, message = "Transaction list cannot be empty")
 	private List<TransactionDto> transaction;
+
+	/**
+	 * Maps this request to a new, unsaved customer entity. Blank external IDs
+	 * are treated as absent.
+	 *
+	 * @return the customer with its transactions
+	 */
+	public Customer toCustomer() {
+		Customer customer = new Customer();
+		customer.setCustomerName(customerName);
+
+		List<Transaction> customerTransactions = transaction.stream().map(dto -> {
+			Transaction t = new Transaction();
+			t.setAmount(dto.getAmount());
+			t.setDate(dto.getDate());
+			t.setExternalId(StringUtils.hasText(dto.getExternalId()) ? dto.getExternalId() : null);
+			t.setCustomer(customer);
+			return t;
+		}).collect(Collectors.toList());
+
+		customer.setTransaction(customerTransactions);
+		return customer;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.infy.dto;
+
+import com.infy.model.Customer;
+
+/**
+ * Read projection of a customer with only its ID and name. Returned in place
+ * of the {@link Customer} entity so responses never serialize, or lazily load,
+ * the customer's transaction history.
+ *
+ * @param customerId   the customer ID
+ * @param customerName the customer name
+ */
+public record CustomerSummary(Long customerId, String customerName) {
+
+	/**
+	 * @param customer a customer entity
+	 * @return the ID and name of the customer
+	 */
+	public static CustomerSummary of(Customer customer) {
+		return new CustomerSummary(customer.getCustomerId(), customer.getCustomerName());
+	}
+}
@@ -0,0 +1,13 @@
+package com.infy.dto;
+
+/**
+ * Record formats produced by the streaming rewards export.
+ */
+public enum ExportFormat {
+
+	/** One JSON object per line. */
+	NDJSON,
+
+	/** Comma separated values with a header line naming the columns. */
+	CSV
+}
@@ -0,0 +1,18 @@
+package com.infy.dto;
+
+/**
+ * Scalar projection of a recorded external transaction ID and the customer
+ * that owns the transaction.
+ */
+public interface ExternalIdOwner {
+
+	/**
+	 * @return the client-supplied external ID
+	 */
+	String getExternalId();
+
+	/**
+	 * @return the ID of the customer the transaction belongs to
+	 */
+	Long getCustomerId();
+}
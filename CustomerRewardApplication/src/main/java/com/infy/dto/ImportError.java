@@ -0,0 +1,18 @@
+package com.infy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A record rejected during a streaming import, identified by its line number.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportError {
+
+	private long line;
+
+	private String message;
+}
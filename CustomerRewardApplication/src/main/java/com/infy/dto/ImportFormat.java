@@ -0,0 +1,13 @@
+package com.infy.dto;
+
+/**
+ * Record formats accepted by the streaming transaction import.
+ */
+public enum ImportFormat {
+
+	/** One JSON object per line. */
+	NDJSON,
+
+	/** Comma separated values with a header line naming the columns. */
+	CSV
+}
@@ -0,0 +1,31 @@
+package com.infy.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a streaming transaction import. Only the first
+ * {@code rewards.ingestion.max-reported-errors} errors are listed;
+ * {@code errorCount} always holds the full number of rejected records.
+ * Records whose external ID was already recorded are counted in
+ * {@code duplicatesSkipped}, not as errors.
+ */
+@Data
+@NoArgsConstructor
+public class ImportResult {
+
+	private long recordsRead;
+
+	private long recordsImported;
+
+	private long duplicatesSkipped;
+
+	private long errorCount;
+
+	private List<ImportError> errors = new ArrayList<>();
+
+	private long elapsedMillis;
+}
@@ -0,0 +1,18 @@
+package com.infy.dto;
+
+import java.util.List;
+
+/**
+ * The customers with the most reward points in one month or quarter.
+ *
+ * @param period    the period, e.g. {@code 2024-05} or {@code 2024-Q2}
+ * @param customers number of customers with points in the period
+ * @param entries   the top customers, most points first; ties are ordered by
+ *                  customer ID
+ */
+public record Leaderboard(String period, int customers, List<LeaderboardEntry> entries) {
+
+	public Leaderboard {
+		entries = List.copyOf(entries);
+	}
+}
@@ -0,0 +1,11 @@
+package com.infy.dto;
+
+/**
+ * One customer's place on a rewards leaderboard.
+ *
+ * @param rank       position on the leaderboard, starting at 1
+ * @param customerId the customer ID
+ * @param points     points earned in the period, monthly cap applied
+ */
+public record LeaderboardEntry(int rank, long customerId, long points) {
+}
@@ -0,0 +1,24 @@
+package com.infy.dto;
+
+/**
+ * Projection of reward points aggregated in the database for one calendar month
+ * of a customer's transactions.
+ */
+public interface MonthlyPointsView {
+
+	Long getCustomerId();
+
+	Integer getRewardYear();
+
+	Integer getRewardMonth();
+
+	Long getTransactionCount();
+
+	Long getPoints();
+
+	/**
+	 * Lowest transaction ID in the month, used to keep months in the order their
+	 * first transaction was recorded.
+	 */
+	Long getFirstTransactionId();
+}
@@ -0,0 +1,11 @@
+package com.infy.dto;
+
+/**
+ * Reward points earned in one calendar month, as listed in the rewards
+ * breakdown. Months of different years with the same name are merged.
+ *
+ * @param month  the month name, e.g. {@code JANUARY}
+ * @param points reward points earned in the month
+ */
+public record MonthlyReward(String month, int points) {
+}
@@ -0,0 +1,19 @@
+package com.infy.dto;
+
+/**
+ * Persisted analytics sketches of one calendar month, in the serialized form of
+ * {@link com.infy.analytics.QuantileSketch} and
+ * {@link com.infy.analytics.DistinctCountSketch}.
+ *
+ * @param rewardYear        the year
+ * @param rewardMonth       the month, 1-12
+ * @param transactionCount  transactions recorded in the month
+ * @param spendSketch       quantiles of transaction amounts in cents
+ * @param customerSketch    distinct customers with transactions
+ * @param lastTransactionId highest transaction ID the sketches of every month
+ *                          covered when stored; null for rows stored without
+ *                          one
+ */
+public record MonthlySketchRow(int rewardYear, int rewardMonth, long transactionCount, byte[] spendSketch,
+		byte[] customerSketch, Long lastTransactionId) {
+}
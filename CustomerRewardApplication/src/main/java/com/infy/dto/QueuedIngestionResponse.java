@@ -0,0 +1,19 @@
+package com.infy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Acknowledgement of a customer accepted into the write-behind ingestion
+ * queue. The transactions are validated but not yet saved.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuedIngestionResponse {
+
+	private int transactionsAccepted;
+
+	private int queueDepth;
+}
@@ -0,0 +1,15 @@
+package com.infy.dto;
+
+/**
+ * Totals of reward points recomputed from a transaction snapshot.
+ *
+ * @param rows           transactions read
+ * @param customers      customers with at least one transaction
+ * @param customerMonths customer and month pairs with at least one transaction
+ * @param totalPoints    points of all customers, monthly cap applied
+ * @param elapsedMillis  time taken by the recomputation
+ * @param rowsPerSecond  transactions recomputed per second
+ */
+public record RecomputationResult(long rows, long customers, long customerMonths, long totalPoints,
+		long elapsedMillis, double rowsPerSecond) {
+}
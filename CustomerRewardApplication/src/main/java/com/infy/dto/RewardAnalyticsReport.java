@@ -0,0 +1,27 @@
+package com.infy.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate distribution of spend and reward points over all customers in a
+ * range of months, answered from sketches.
+ *
+ * @param from                 first month of the range
+ * @param to                   last month of the range
+ * @param transactions         transactions recorded in the range (exact)
+ * @param activeCustomers      estimated distinct customers with transactions
+ * @param activeCustomersError standard error of that estimate, relative to it
+ * @param customerMonths       customer and month pairs with transactions (exact)
+ * @param monthlyPoints        percentiles of the points of a customer in one
+ *                             month, monthly cap applied, keyed as {@code p50}
+ * @param spend                percentiles of transaction amounts, keyed as
+ *                             {@code p50}
+ * @param spendHistogram       transactions per amount range
+ * @param relativeAccuracy     largest error of a percentile relative to its
+ *                             value
+ */
+public record RewardAnalyticsReport(String from, String to, long transactions, long activeCustomers,
+		double activeCustomersError, long customerMonths, Map<String, Long> monthlyPoints, Map<String, Double> spend,
+		List<SpendBucket> spendHistogram, double relativeAccuracy) {
+}
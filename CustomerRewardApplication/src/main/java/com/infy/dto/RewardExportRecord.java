@@ -0,0 +1,25 @@
+package com.infy.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the rewards export: the reward total of a customer over the
+ * exported period.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({ "customerId", "customerName", "transactionCount", "totalPoints" })
+public class RewardExportRecord {
+
+	private Long customerId;
+
+	private String customerName;
+
+	private long transactionCount;
+
+	private long totalPoints;
+}
@@ -0,0 +1,49 @@
+package com.infy.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Typed rewards response of one customer. Serializes to the same JSON as the
+ * original map based response.
+ *
+ * @param customerDetails  ID and name of the customer
+ * @param rewardsBreakdown points per month, in order of each month's first
+ *                         transaction
+ * @param totalRewards     sum of the points of all months
+ */
+@JsonPropertyOrder({ "Customer Details", "Rewards Breakdown", "Total Rewards" })
+public record RewardSummary(@JsonProperty("Customer Details") CustomerSummary customerDetails,
+		@JsonProperty("Rewards Breakdown") List<MonthlyReward> rewardsBreakdown,
+		@JsonProperty("Total Rewards") int totalRewards) {
+
+	public RewardSummary {
+		rewardsBreakdown = List.copyOf(rewardsBreakdown);
+	}
+
+	/**
+	 * Converts the summary to the map shape returned by
+	 * {@code RewardsService#calculateRewards}. Every call returns new maps.
+	 *
+	 * @return map with Customer Details, Rewards Breakdown and Total Rewards
+	 */
+	public Map<String, Object> toMap() {
+		List<Map<String, Object>> rewardByMonth = rewardsBreakdown.stream().map(monthly -> {
+			Map<String, Object> map = new HashMap<>();
+			map.put("month", monthly.month());
+			map.put("points", monthly.points());
+			return map;
+		}).collect(Collectors.toList());
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("Customer Details", customerDetails);
+		response.put("Rewards Breakdown", rewardByMonth);
+		response.put("Total Rewards", totalRewards);
+		return response;
+	}
+}
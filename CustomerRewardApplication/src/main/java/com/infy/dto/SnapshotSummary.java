@@ -0,0 +1,12 @@
+package com.infy.dto;
+
+/**
+ * Outcome of writing a transaction snapshot.
+ *
+ * @param file          path of the snapshot file
+ * @param rows          number of transactions in the snapshot
+ * @param bytes         size of the file
+ * @param elapsedMillis time taken to read the table and write the file
+ */
+public record SnapshotSummary(String file, long rows, long bytes, long elapsedMillis) {
+}
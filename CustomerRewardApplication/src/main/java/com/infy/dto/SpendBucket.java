@@ -0,0 +1,12 @@
+package com.infy.dto;
+
+/**
+ * Number of transactions with an amount in a range of a spend histogram.
+ *
+ * @param from         lower bound of the amount (exclusive, except for 0)
+ * @param to           upper bound of the amount (inclusive); null for the last
+ *                     bucket
+ * @param transactions approximate number of transactions in the range
+ */
+public record SpendBucket(double from, Double to, long transactions) {
+}
@@ -0,0 +1,12 @@
+package com.infy.dto;
+
+/**
+ * The stored reward rules, as JSON in the format of
+ * {@link com.infy.rules.RewardRulesProperties}.
+ *
+ * @param version    raised by every replacement
+ * @param definition the rules in effect, which the ledger's points follow
+ * @param configured the {@code rewards.rules} properties last put into effect
+ */
+public record StoredRewardRules(long version, String definition, String configured) {
+}
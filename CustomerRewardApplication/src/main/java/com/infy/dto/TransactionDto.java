@@ -2,6 +2,7 @@ package com.infy.dto;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 /**
- * Data Transfer Object for individual transaction details.
+ * Data Transfer Object for individual transaction details. The optional
+ * external ID is the client's own identifier for the transaction; a
+ * transaction whose external ID was already recorded is skipped, so a request
+ * can be retried safely.
  */
 @Data
 @NoArgsConstructor
@@ -21,4 +25,17 @@ public class TransactionDto {
 
 	@NotNull(message = "Transaction date cannot be null")
 	private LocalDate date;
+
+	@Size(max = 64, message = "External ID must be at most 64 characters")
+	private String externalId;
+
+	/**
+	 * Creates a transaction without an external ID.
+	 *
+	 * @param amount the transaction amount
+	 * @param date   the transaction date
+	 */
+	public TransactionDto(double amount, LocalDate date) {
+		this(amount, date, null);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.infy.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Scalar projection of a transaction and its customer, read by the rewards
+ * export without loading Transaction or Customer entities.
+ */
+public interface TransactionExportRow {
+
+	/**
+	 * @return the customer ID
+	 */
+	Long getCustomerId();
+
+	/**
+	 * @return the customer name
+	 */
+	String getCustomerName();
+
+	/**
+	 * @return the transaction amount
+	 */
+	Double getAmount();
+
+	/**
+	 * @return the transaction date
+	 */
+	LocalDate getDate();
+}
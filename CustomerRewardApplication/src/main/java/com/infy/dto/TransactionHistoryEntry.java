@@ -0,0 +1,14 @@
+package com.infy.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One transaction of a customer's history, read as a projection without
+ * loading the Transaction entity.
+ *
+ * @param transactionId the transaction ID
+ * @param amount        the transaction amount
+ * @param date          the transaction date
+ */
+public record TransactionHistoryEntry(Long transactionId, double amount, LocalDate date) {
+}
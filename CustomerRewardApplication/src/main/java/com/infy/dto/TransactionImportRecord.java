@@ -0,0 +1,26 @@
+package com.infy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A single transaction record read from an NDJSON or CSV import stream. The
+ * amount, date and optional external ID are validated with the
+ * {@link TransactionDto} rules.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionImportRecord {
+
+	private Long customerId;
+
+	private double amount;
+
+	private LocalDate date;
+
+	private String externalId;
+}
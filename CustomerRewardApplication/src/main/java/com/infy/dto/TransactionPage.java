@@ -0,0 +1,17 @@
+package com.infy.dto;
+
+import java.util.List;
+
+/**
+ * One page of a customer's transaction history, newest first.
+ *
+ * @param transactions the transactions of the page
+ * @param nextCursor   opaque token to pass as {@code cursor} for the next
+ *                     page, or {@code null} on the last page
+ */
+public record TransactionPage(List<TransactionHistoryEntry> transactions, String nextCursor) {
+
+	public TransactionPage {
+		transactions = List.copyOf(transactions);
+	}
+}
@@ -0,0 +1,16 @@
+package com.infy.event;
+
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRules;
+
+/**
+ * Published by {@link RewardRules} inside the database transaction that puts a
+ * new plan into effect, so points stored under the previous plan can be
+ * recomputed. {@link RewardRules#plan()} still returns the previous plan while
+ * listeners run; the new one takes effect when the transaction commits, and
+ * not at all if a listener fails.
+ *
+ * @param plan the plan being put into effect
+ */
+public record RewardRulesChangedEvent(RewardPlan plan) {
+}
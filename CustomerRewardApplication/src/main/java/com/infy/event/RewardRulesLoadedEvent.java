@@ -0,0 +1,14 @@
+package com.infy.event;
+
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRules;
+
+/**
+ * Published by {@link RewardRules} after it put into effect rules that another
+ * instance stored. The shared ledger was already rebuilt under them by that
+ * instance, so only state derived from it in this instance has to follow.
+ *
+ * @param plan the plan now in effect
+ */
+public record RewardRulesLoadedEvent(RewardPlan plan) {
+}
@@ -0,0 +1,15 @@
+package com.infy.event;
+
+import java.util.List;
+
+import com.infy.model.Transaction;
+
+/**
+ * Published by every write path after new transactions have been inserted,
+ * inside the same database transaction. Each transaction carries its generated
+ * ID and a customer with its ID set.
+ *
+ * @param transactions the newly inserted transactions
+ */
+public record TransactionsRecordedEvent(List<Transaction> transactions) {
+}
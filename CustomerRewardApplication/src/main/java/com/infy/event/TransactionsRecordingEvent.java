@@ -0,0 +1,10 @@
+package com.infy.event;
+
+/**
+ * Published by every write path inside its database transaction before it
+ * inserts new transactions, followed by a {@link TransactionsRecordedEvent} once
+ * they are inserted. Lets listeners act before any transaction ID of the write
+ * is allocated.
+ */
+public record TransactionsRecordingEvent() {
+}
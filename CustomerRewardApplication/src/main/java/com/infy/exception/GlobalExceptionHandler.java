@@ -3,8 +3,13 @@ package com.infy.exception;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.infy.service.RewardsMetrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.validation.FieldError;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,11 +23,15 @@ import org.springframework.web.context.request.WebRequest;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+	@Autowired
+	private RewardsMetrics rewardsMetrics;
+
 	// Handles CustomerNotFoundException with HTTP 404 Not Found.
 
 	@ExceptionHandler(CustomerNotFoundException.class)
 	public ResponseEntity<ErrorDetails> handleCustomerNotFoundException(CustomerNotFoundException ex,
 			WebRequest request) {
+		rewardsMetrics.recordException(ex);
 		ErrorDetails errorDetails = new ErrorDetails(HttpStatus.NOT_FOUND.value(), ex.getMessage(),
 				request.getDescription(false));
 		return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
@@ -32,6 +41,7 @@ public class GlobalExceptionHandler {
 
 	@ExceptionHandler(InvalidRequestException.class)
 	public ResponseEntity<ErrorDetails> handleInvalidRequestException(InvalidRequestException ex, WebRequest request) {
+		rewardsMetrics.recordException(ex);
 		ErrorDetails errorDetails = new ErrorDetails(HttpStatus.BAD_REQUEST.value(), ex.getMessage(),
 				request.getDescription(false));
 		return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
@@ -42,6 +52,7 @@ public class GlobalExceptionHandler {
 	@ExceptionHandler(InvalidDateFormatException.class)
 	public ResponseEntity<ErrorDetails> handleInvalidDateFormatException(InvalidDateFormatException ex,
 			WebRequest request) {
+		rewardsMetrics.recordException(ex);
 		ErrorDetails errorDetails = new ErrorDetails(HttpStatus.BAD_REQUEST.value(), ex.getMessage(),
 				request.getDescription(false));
 		return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
@@ -52,6 +63,7 @@ public class GlobalExceptionHandler {
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex,
 			WebRequest request) {
+		rewardsMetrics.recordException(ex);
 
 		Map<String, String> errors = new HashMap<>();
 
@@ -62,10 +74,37 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
 	}
 
+	// Handles IngestionQueueFullException with HTTP 503 Service Unavailable and a
+	// Retry-After header, so clients back off instead of retrying at once.
+
+	@ExceptionHandler(IngestionQueueFullException.class)
+	public ResponseEntity<ErrorDetails> handleIngestionQueueFullException(IngestionQueueFullException ex,
+			WebRequest request) {
+		rewardsMetrics.recordException(ex);
+		ErrorDetails errorDetails = new ErrorDetails(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage(),
+				request.getDescription(false));
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(ex.getRetryAfter().toSeconds(), 1)))
+				.body(errorDetails);
+	}
+
+	// Handles writes rejected by a unique constraint, such as a transaction whose
+	// external ID was recorded by a concurrent request, with HTTP 409 Conflict.
+
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ResponseEntity<ErrorDetails> handleDataIntegrityViolationException(DataIntegrityViolationException ex,
+			WebRequest request) {
+		rewardsMetrics.recordException(ex);
+		ErrorDetails errorDetails = new ErrorDetails(HttpStatus.CONFLICT.value(),
+				"The request conflicts with data written concurrently; retry it.", request.getDescription(false));
+		return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+	}
+
 	// Fallback handler for unhandled exceptions (HTTP 500).
 
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<ErrorDetails> handleGenericException(Exception ex, WebRequest request) {
+		rewardsMetrics.recordException(ex);
 		ErrorDetails errorDetails = new ErrorDetails(HttpStatus.INTERNAL_SERVER_ERROR.value(), ex.getMessage(),
 				request.getDescription(false));
 		return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,32 @@
+package com.infy.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when queued ingestion cannot accept more work, because the
+ * write-behind queue is full or shutting down.
+ */
+public class IngestionQueueFullException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Duration retryAfter;
+
+	/**
+	 * Constructs a new IngestionQueueFullException with the given message.
+	 *
+	 * @param message    the exception message
+	 * @param retryAfter how long the client should wait before retrying
+	 */
+	public IngestionQueueFullException(String message, Duration retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * @return how long the client should wait before retrying
+	 */
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
@@ -0,0 +1,33 @@
+package com.infy.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity holding the precomputed reward totals of one customer for one calendar
+ * month. Rows are updated incrementally whenever transactions are recorded.
+ */
+@Entity
+@IdClass(MonthlyRewardSummaryId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyRewardSummary {
+
+	@Id
+	private Long customerId;
+
+	@Id
+	private Integer rewardYear;
+
+	@Id
+	private Integer rewardMonth;
+
+	private Long transactionCount;
+
+	private Double amountSum;
+
+	private Long points;
+
+	private Long firstTransactionId;
+}
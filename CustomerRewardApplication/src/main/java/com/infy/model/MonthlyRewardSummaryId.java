@@ -0,0 +1,24 @@
+package com.infy.model;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Composite key of {@link MonthlyRewardSummary}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyRewardSummaryId implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long customerId;
+
+	private Integer rewardYear;
+
+	private Integer rewardMonth;
+}
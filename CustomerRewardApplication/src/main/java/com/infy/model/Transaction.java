@@ -7,9 +7,14 @@ import lombok.*;
 import java.time.LocalDate;
 
 /**
- * Entity representing a transaction made by a customer.
+ * Entity representing a transaction made by a customer. The schema, including
+ * the (customerId, date) index backing every range lookup and the unique index
+ * on the optional client-supplied external ID, is managed by the Flyway
+ * migrations in {@code db/migration}.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_transaction_customer_date", columnList = "customerId, date"),
+		uniqueConstraints = @UniqueConstraint(name = "uk_transaction_external_id", columnNames = "externalId"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,6 +28,9 @@ public class Transaction {
 
 	private LocalDate date;
 
+	@Column(length = 64)
+	private String externalId;
+
 	@ManyToOne
 	@JoinColumn(name = "customerId")
 	@JsonIgnore
@@ -30,6 +38,7 @@ public class Transaction {
 
 	@Override
 	public String toString() {
-		return "Transaction{id=" + transactionId + ", amount=" + amount + ", date=" + date + "}";
+		return "Transaction{id=" + transactionId + ", amount=" + amount + ", date=" + date + ", externalId="
+				+ externalId + "}";
 	}
 }
\ No newline at end of file
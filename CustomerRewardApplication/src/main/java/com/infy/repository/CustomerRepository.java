@@ -1,8 +1,15 @@
 package com.infy.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.infy.dto.CustomerSummary;
 import com.infy.model.Customer;
 
 /**
@@ -12,4 +19,34 @@ import com.infy.model.Customer;
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+	/**
+	 * Returns which of the given customer IDs exist, without loading the
+	 * customers.
+	 *
+	 * @param customerIds the IDs to check
+	 * @return the subset of IDs that belong to existing customers
+	 */
+	@Query("SELECT c.customerId FROM Customer c WHERE c.customerId IN :customerIds")
+	List<Long> findExistingIds(@Param("customerIds") Collection<Long> customerIds);
+
+	/**
+	 * Retrieves the ID and name of a customer without loading the entity.
+	 *
+	 * @param customerId the ID of the customer
+	 * @return the customer summary, if the customer exists
+	 */
+	@Query("SELECT new com.infy.dto.CustomerSummary(c.customerId, c.customerName) FROM Customer c "
+			+ "WHERE c.customerId = :customerId")
+	Optional<CustomerSummary> findSummaryById(@Param("customerId") Long customerId);
+
+	/**
+	 * Retrieves the IDs and names of customers in a single query without loading
+	 * the entities.
+	 *
+	 * @param customerIds the IDs of the customers
+	 * @return the summaries of the customers found
+	 */
+	@Query("SELECT new com.infy.dto.CustomerSummary(c.customerId, c.customerName) FROM Customer c "
+			+ "WHERE c.customerId IN :customerIds")
+	List<CustomerSummary> findSummariesByIds(@Param("customerIds") Collection<Long> customerIds);
 }
@@ -0,0 +1,61 @@
+package com.infy.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+
+import com.infy.dto.MonthlyPointsView;
+import com.infy.model.MonthlyRewardSummary;
+import com.infy.model.MonthlyRewardSummaryId;
+
+/**
+ * Repository interface for reading the monthly reward ledger.
+ */
+@Repository
+public interface MonthlyRewardSummaryRepository extends JpaRepository<MonthlyRewardSummary, MonthlyRewardSummaryId> {
+
+	/**
+	 * Retrieves the summary rows of customers between two calendar months as
+	 * projections, so no ledger entity is loaded into the persistence context.
+	 *
+	 * @param customerIds the IDs of the customers
+	 * @param startYear   year of the first month (inclusive)
+	 * @param startMonth  first month, 1-12 (inclusive)
+	 * @param endYear     year of the last month (inclusive)
+	 * @param endMonth    last month, 1-12 (inclusive)
+	 * @return one row per customer and month that has at least one transaction
+	 */
+	@Query("SELECT s.customerId AS customerId, s.rewardYear AS rewardYear, s.rewardMonth AS rewardMonth, "
+			+ "s.transactionCount AS transactionCount, s.points AS points, "
+			+ "s.firstTransactionId AS firstTransactionId FROM MonthlyRewardSummary s WHERE s.customerId IN :customerIds "
+			+ "AND (s.rewardYear > :startYear OR (s.rewardYear = :startYear AND s.rewardMonth >= :startMonth)) "
+			+ "AND (s.rewardYear < :endYear OR (s.rewardYear = :endYear AND s.rewardMonth <= :endMonth))")
+	List<MonthlyPointsView> findByCustomerIdsAndMonthRange(@Param("customerIds") Collection<Long> customerIds,
+			@Param("startYear") int startYear, @Param("startMonth") int startMonth, @Param("endYear") int endYear,
+			@Param("endMonth") int endMonth);
+
+	/**
+	 * Streams the summary rows of every customer from a calendar month onwards
+	 * through a forward-only cursor, without loading ledger entities. Must be
+	 * consumed inside a transaction and closed afterwards.
+	 *
+	 * @param startYear  year of the first month (inclusive)
+	 * @param startMonth first month, 1-12 (inclusive)
+	 * @return one row per customer and month that has at least one transaction
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT s.customerId AS customerId, s.rewardYear AS rewardYear, s.rewardMonth AS rewardMonth, "
+			+ "s.transactionCount AS transactionCount, s.points AS points, "
+			+ "s.firstTransactionId AS firstTransactionId FROM MonthlyRewardSummary s "
+			+ "WHERE s.rewardYear > :startYear OR (s.rewardYear = :startYear AND s.rewardMonth >= :startMonth)")
+	Stream<MonthlyPointsView> streamFromMonth(@Param("startYear") int startYear, @Param("startMonth") int startMonth);
+}
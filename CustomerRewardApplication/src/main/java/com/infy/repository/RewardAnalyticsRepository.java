@@ -0,0 +1,76 @@
+package com.infy.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import com.infy.dto.MonthlySketchRow;
+
+/**
+ * JDBC access to the persisted analytics sketches, one row per calendar month.
+ */
+@Repository
+public class RewardAnalyticsRepository {
+
+	private static final String UPSERT_SKETCH = "INSERT INTO reward_analytics_sketch "
+			+ "(reward_year, reward_month, transaction_count, spend_sketch, customer_sketch, last_transaction_id, "
+			+ "updated_at) VALUES (:rewardYear, :rewardMonth, :transactionCount, :spendSketch, :customerSketch, "
+			+ ":lastTransactionId, :updatedAt) AS new ON DUPLICATE KEY UPDATE "
+			+ "transaction_count = new.transaction_count, spend_sketch = new.spend_sketch, "
+			+ "customer_sketch = new.customer_sketch, last_transaction_id = new.last_transaction_id, "
+			+ "updated_at = new.updated_at";
+
+	private static final String SELECT_SKETCHES = "SELECT reward_year, reward_month, transaction_count, spend_sketch, "
+			+ "customer_sketch, last_transaction_id FROM reward_analytics_sketch "
+			+ "WHERE reward_year > :startYear OR (reward_year = :startYear AND reward_month >= :startMonth)";
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	private String upsertSketch;
+
+	@PostConstruct
+	void prepareStatements() {
+		upsertSketch = UpsertStatements.forDatabase(UPSERT_SKETCH, jdbcTemplate.getJdbcTemplate().getDataSource());
+	}
+
+	/**
+	 * Inserts or replaces the sketches of the given months.
+	 *
+	 * @param rows the sketches, one per month
+	 */
+	public void saveAll(List<MonthlySketchRow> rows) {
+		Timestamp updatedAt = Timestamp.from(Instant.now());
+		SqlParameterSource[] params = rows.stream()
+				.map(row -> new MapSqlParameterSource().addValue("rewardYear", row.rewardYear())
+						.addValue("rewardMonth", row.rewardMonth())
+						.addValue("transactionCount", row.transactionCount())
+						.addValue("spendSketch", row.spendSketch())
+						.addValue("customerSketch", row.customerSketch())
+						.addValue("lastTransactionId", row.lastTransactionId()).addValue("updatedAt", updatedAt))
+				.toArray(SqlParameterSource[]::new);
+		jdbcTemplate.batchUpdate(upsertSketch, params);
+	}
+
+	/**
+	 * Reads the sketches of a month and every later one.
+	 *
+	 * @param startYear  first year (inclusive)
+	 * @param startMonth first month, 1-12 (inclusive)
+	 * @return one row per month with sketches
+	 */
+	public List<MonthlySketchRow> findFromMonth(int startYear, int startMonth) {
+		return jdbcTemplate.query(SELECT_SKETCHES,
+				new MapSqlParameterSource("startYear", startYear).addValue("startMonth", startMonth),
+				(rs, rowNum) -> new MonthlySketchRow(rs.getInt(1), rs.getInt(2), rs.getLong(3), rs.getBytes(4),
+						rs.getBytes(5), rs.getObject(6, Long.class)));
+	}
+}
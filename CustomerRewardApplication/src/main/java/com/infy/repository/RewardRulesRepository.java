@@ -0,0 +1,107 @@
+package com.infy.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.infy.dto.StoredRewardRules;
+
+/**
+ * JDBC access to the stored reward rules, a single row.
+ */
+@Repository
+public class RewardRulesRepository {
+
+	private static final String SELECT_RULES = "SELECT version, definition, configured FROM reward_rules WHERE id = 1";
+
+	private static final String SELECT_VERSION = "SELECT version FROM reward_rules WHERE id = 1";
+
+	private static final String INSERT_RULES = "INSERT INTO reward_rules (id, version, definition, configured, "
+			+ "updated_at) VALUES (1, :version, :definition, :configured, :updatedAt)";
+
+	private static final String UPDATE_RULES = "UPDATE reward_rules SET version = :version, definition = :definition, "
+			+ "configured = :configured, updated_at = :updatedAt WHERE id = 1";
+
+	private static final RowMapper<StoredRewardRules> ROW_MAPPER = (rs, rowNum) -> new StoredRewardRules(
+			rs.getLong(1), rs.getString(2), rs.getString(3));
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	private String lockVersionShared;
+
+	/**
+	 * H2, which stands in for MySQL in tests, has no shared row locks, so writes
+	 * lock the rules exclusively there and run one at a time.
+	 */
+	@PostConstruct
+	void prepareStatements() {
+		boolean mySql = UpsertStatements.isMySql(jdbcTemplate.getJdbcTemplate().getDataSource());
+		lockVersionShared = SELECT_VERSION + (mySql ? " FOR SHARE" : " FOR UPDATE");
+	}
+
+	/**
+	 * @return the stored rules, or empty before the first start stored them
+	 */
+	public Optional<StoredRewardRules> find() {
+		return jdbcTemplate.query(SELECT_RULES, ROW_MAPPER).stream().findFirst();
+	}
+
+	/**
+	 * Reads the stored rules and locks them until the current transaction ends,
+	 * so that no other replacement runs meanwhile.
+	 *
+	 * @return the stored rules
+	 * @throws org.springframework.dao.EmptyResultDataAccessException if none are
+	 *                                                                stored
+	 */
+	public StoredRewardRules lockForUpdate() {
+		return jdbcTemplate.queryForObject(SELECT_RULES + " FOR UPDATE", new MapSqlParameterSource(), ROW_MAPPER);
+	}
+
+	/**
+	 * Reads the version of the stored rules and locks them against replacement
+	 * until the current transaction ends, without holding off other readers.
+	 *
+	 * @return the stored version
+	 * @throws org.springframework.dao.EmptyResultDataAccessException if none are
+	 *                                                                stored
+	 */
+	public long lockVersionShared() {
+		return jdbcTemplate.queryForObject(lockVersionShared, new MapSqlParameterSource(), Long.class);
+	}
+
+	/**
+	 * Stores the rules of the first start.
+	 *
+	 * @param rules the rules
+	 * @throws org.springframework.dao.DuplicateKeyException if another instance
+	 *                                                       stored them first
+	 */
+	public void insert(StoredRewardRules rules) {
+		jdbcTemplate.update(INSERT_RULES, parameters(rules));
+	}
+
+	/**
+	 * Replaces the stored rules. Call with the row locked by
+	 * {@link #lockForUpdate()}.
+	 *
+	 * @param rules the rules
+	 */
+	public void update(StoredRewardRules rules) {
+		jdbcTemplate.update(UPDATE_RULES, parameters(rules));
+	}
+
+	private static MapSqlParameterSource parameters(StoredRewardRules rules) {
+		return new MapSqlParameterSource("version", rules.version()).addValue("definition", rules.definition())
+				.addValue("configured", rules.configured()).addValue("updatedAt", Timestamp.from(Instant.now()));
+	}
+}
@@ -0,0 +1,244 @@
+package com.infy.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.infy.model.Customer;
+import com.infy.model.MonthlyRewardSummary;
+import com.infy.model.MonthlyRewardSummaryId;
+import com.infy.model.Transaction;
+import com.infy.rules.RewardPlan;
+
+/**
+ * JDBC batch writer for customers, transactions and the monthly reward ledger.
+ * Customers and transactions use IDENTITY keys, which stops Hibernate from
+ * batching inserts, so bulk paths write through plain JDBC batches instead and
+ * copy the generated keys back onto the entities.
+ */
+@Repository
+public class TransactionBatchRepository {
+
+	private static final String INSERT_CUSTOMER = "INSERT INTO customer (customer_name) VALUES (:customerName)";
+
+	private static final String INSERT_TRANSACTION = "INSERT INTO transaction (amount, date, customer_id, external_id) "
+			+ "VALUES (:amount, :date, :customerId, :externalId)";
+
+	private static final String UPSERT_SUMMARY = "INSERT INTO monthly_reward_summary "
+			+ "(customer_id, reward_year, reward_month, transaction_count, amount_sum, points, first_transaction_id) "
+			+ "VALUES (:customerId, :rewardYear, :rewardMonth, :transactionCount, :amountSum, :points, "
+			+ ":firstTransactionId) AS new ON DUPLICATE KEY UPDATE "
+			+ "transaction_count = transaction_count + new.transaction_count, "
+			+ "amount_sum = amount_sum + new.amount_sum, points = points + new.points, "
+			+ "first_transaction_id = LEAST(first_transaction_id, new.first_transaction_id)";
+
+	private static final String SELECT_SUMMARY_TOTALS = "SELECT customer_id, reward_year, reward_month, "
+			+ "transaction_count, points FROM monthly_reward_summary "
+			+ "WHERE (customer_id, reward_year, reward_month) IN (:keys)";
+
+	private static final String DELETE_SUMMARIES = "DELETE FROM monthly_reward_summary";
+
+	// Points expression rendered by RewardPlan.pointsExpression
+	private static final String REBUILD_SUMMARIES = "INSERT INTO monthly_reward_summary "
+			+ "(customer_id, reward_year, reward_month, transaction_count, amount_sum, points, first_transaction_id) "
+			+ "SELECT customer_id, YEAR(date), MONTH(date), COUNT(*), SUM(amount), SUM(%s), MIN(transaction_id) "
+			+ "FROM transaction GROUP BY customer_id, YEAR(date), MONTH(date)";
+
+	private static final String SCAN_TRANSACTIONS = "SELECT customer_id, date, amount FROM transaction "
+			+ "ORDER BY customer_id, date";
+
+	private static final String SCAN_TRANSACTIONS_AFTER = "SELECT transaction_id, customer_id, date, amount "
+			+ "FROM transaction WHERE date >= ? AND transaction_id > ?";
+
+	private static final int SCAN_FETCH_SIZE = 1000;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	private String upsertSummary;
+
+	@PostConstruct
+	void prepareStatements() {
+		upsertSummary = UpsertStatements.forDatabase(UPSERT_SUMMARY, jdbcTemplate.getJdbcTemplate().getDataSource());
+	}
+
+	/**
+	 * Inserts customers in JDBC batches and assigns their generated IDs.
+	 *
+	 * @param customers the customers to insert
+	 * @param batchSize maximum number of rows sent per batch
+	 */
+	public void insertCustomers(List<Customer> customers, int batchSize) {
+		for (int from = 0; from < customers.size(); from += batchSize) {
+			List<Customer> chunk = customers.subList(from, Math.min(from + batchSize, customers.size()));
+			SqlParameterSource[] params = chunk.stream()
+					.map(c -> new MapSqlParameterSource("customerName", c.getCustomerName()))
+					.toArray(SqlParameterSource[]::new);
+
+			List<Long> keys = batchInsert(INSERT_CUSTOMER, params, "customer_id");
+			for (int i = 0; i < chunk.size(); i++) {
+				chunk.get(i).setCustomerId(keys.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Inserts transactions in JDBC batches and assigns their generated IDs. Every
+	 * transaction must reference a customer that already has an ID. Callers drop
+	 * already recorded external IDs first; a duplicate that slips through fails
+	 * the batch on the unique index rather than being silently ignored, since the
+	 * ledger is updated from exactly the rows passed in here.
+	 *
+	 * @param transactions the transactions to insert
+	 * @param batchSize    maximum number of rows sent per batch
+	 */
+	public void insertTransactions(List<Transaction> transactions, int batchSize) {
+		for (int from = 0; from < transactions.size(); from += batchSize) {
+			List<Transaction> chunk = transactions.subList(from, Math.min(from + batchSize, transactions.size()));
+			SqlParameterSource[] params = chunk.stream()
+					.map(t -> new MapSqlParameterSource().addValue("amount", t.getAmount())
+							.addValue("date", Date.valueOf(t.getDate()))
+							.addValue("customerId", t.getCustomer().getCustomerId())
+							.addValue("externalId", t.getExternalId()))
+					.toArray(SqlParameterSource[]::new);
+
+			List<Long> keys = batchInsert(INSERT_TRANSACTION, params, "transaction_id");
+			for (int i = 0; i < chunk.size(); i++) {
+				chunk.get(i).setTransactionId(keys.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Adds monthly deltas to the reward ledger, inserting rows for months that
+	 * have no summary yet. Each update is a single atomic statement.
+	 *
+	 * @param deltas    per-month totals of newly recorded transactions
+	 * @param batchSize maximum number of rows sent per batch
+	 */
+	public void upsertMonthlySummaries(List<MonthlyRewardSummary> deltas, int batchSize) {
+		for (int from = 0; from < deltas.size(); from += batchSize) {
+			SqlParameterSource[] params = deltas.subList(from, Math.min(from + batchSize, deltas.size())).stream()
+					.map(BeanPropertySqlParameterSource::new).toArray(SqlParameterSource[]::new);
+			jdbcTemplate.batchUpdate(upsertSummary, params);
+		}
+	}
+
+	/**
+	 * Reads the transaction count and points of the given ledger rows, as
+	 * visible to the current transaction. Read after
+	 * {@link #upsertMonthlySummaries} in the same transaction, they are the
+	 * totals including its deltas, since the upsert locks the rows until commit.
+	 *
+	 * @param keys      the rows to read
+	 * @param batchSize maximum number of rows read per query
+	 * @return the rows found, each with only its key, transaction count and
+	 *         points set
+	 */
+	public Map<MonthlyRewardSummaryId, MonthlyRewardSummary> findMonthlyTotals(
+			Collection<MonthlyRewardSummaryId> keys, int batchSize) {
+		List<Object[]> tuples = keys.stream()
+				.map(key -> new Object[] { key.getCustomerId(), key.getRewardYear(), key.getRewardMonth() }).toList();
+		Map<MonthlyRewardSummaryId, MonthlyRewardSummary> totals = new HashMap<>();
+		for (int from = 0; from < tuples.size(); from += batchSize) {
+			jdbcTemplate.query(SELECT_SUMMARY_TOTALS,
+					new MapSqlParameterSource("keys", tuples.subList(from, Math.min(from + batchSize, tuples.size()))),
+					(RowCallbackHandler) rs -> {
+						MonthlyRewardSummary total = new MonthlyRewardSummary(rs.getLong(1), rs.getInt(2), rs.getInt(3),
+								rs.getLong(4), null, rs.getLong(5), null);
+						totals.put(new MonthlyRewardSummaryId(total.getCustomerId(), total.getRewardYear(),
+								total.getRewardMonth()), total);
+					});
+		}
+		return totals;
+	}
+
+	/**
+	 * Recomputes the whole reward ledger from the transaction table.
+	 *
+	 * @param plan the reward plan the points are calculated with
+	 * @return number of summary rows written
+	 */
+	public int rebuildMonthlySummaries(RewardPlan plan) {
+		jdbcTemplate.getJdbcOperations().update(DELETE_SUMMARIES);
+		return jdbcTemplate.getJdbcOperations()
+				.update(REBUILD_SUMMARIES.formatted(plan.pointsExpression("amount", "date")));
+	}
+
+	/**
+	 * Reads the customer ID, date and amount of every transaction, ordered by
+	 * customer and date, through a forward-only cursor, so memory use does not
+	 * grow with the table. On MySQL the cursor relies on useCursorFetch=true.
+	 *
+	 * @param handler called once per row, with columns customer_id, date and
+	 *                amount
+	 */
+	public void scanOrderedByCustomer(RowCallbackHandler handler) {
+		jdbcTemplate.getJdbcOperations().query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(SCAN_TRANSACTIONS, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(SCAN_FETCH_SIZE);
+			return statement;
+		}, handler);
+	}
+
+	/**
+	 * Streams every transaction on or after a date whose ID is above a given
+	 * one, in no particular order, through a forward-only cursor. Rows outside
+	 * the range are filtered out by the database and nothing is sorted. After a
+	 * watermark the rows are a range of the primary key; from the first ID, the
+	 * date range covers the retained months, usually most of the table, which a
+	 * full scan reads faster than lookups through an index on date would. The
+	 * query runs when this method is called, so the rows are those committed by
+	 * then. The stream must be closed, inside the calling transaction.
+	 *
+	 * @param firstDate          first date to read (inclusive)
+	 * @param afterTransactionId highest transaction ID to skip; 0 for all
+	 * @return the transactions, each with only its ID, date, amount and the ID
+	 *         of its customer set
+	 */
+	public Stream<Transaction> streamAfter(LocalDate firstDate, long afterTransactionId) {
+		return jdbcTemplate.getJdbcOperations().queryForStream(connection -> {
+			PreparedStatement statement = connection.prepareStatement(SCAN_TRANSACTIONS_AFTER,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(SCAN_FETCH_SIZE);
+			statement.setDate(1, Date.valueOf(firstDate));
+			statement.setLong(2, afterTransactionId);
+			return statement;
+		}, (rs, rowNum) -> {
+			Customer customer = new Customer();
+			customer.setCustomerId(rs.getLong(2));
+			Transaction transaction = new Transaction();
+			transaction.setTransactionId(rs.getLong(1));
+			transaction.setCustomer(customer);
+			transaction.setDate(rs.getObject(3, LocalDate.class));
+			transaction.setAmount(rs.getDouble(4));
+			return transaction;
+		});
+	}
+
+	private List<Long> batchInsert(String sql, SqlParameterSource[] params, String keyColumn) {
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(sql, params, keyHolder, new String[] { keyColumn });
+		return keyHolder.getKeyList().stream().map(Map::values)
+				.map(values -> ((Number) values.iterator().next()).longValue()).toList();
+	}
+}
@@ -0,0 +1,31 @@
+package com.infy.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import com.infy.dto.MonthlyPointsView;
+import com.infy.rules.RewardPlan;
+
+/**
+ * Reward point aggregation over raw transactions. The points expression
+ * depends on the reward plan in effect, so these queries are built at runtime
+ * instead of being declared with {@code @Query}.
+ */
+public interface TransactionPointsRepository {
+
+	/**
+	 * Aggregates reward points per customer and (year, month) within a date
+	 * range. The points expression is rendered from the plan, so it matches
+	 * {@link RewardPlan#points(double, LocalDate)} and no Transaction entity is
+	 * loaded. Months are ordered by their first recorded transaction.
+	 *
+	 * @param customerIds the IDs of the customers
+	 * @param startDate   the start date (inclusive)
+	 * @param endDate     the end date (inclusive)
+	 * @param plan        the reward plan the points are calculated with
+	 * @return one row per customer and month that has at least one transaction
+	 */
+	List<MonthlyPointsView> aggregateMonthlyPoints(Collection<Long> customerIds, LocalDate startDate,
+			LocalDate endDate, RewardPlan plan);
+}
@@ -0,0 +1,46 @@
+package com.infy.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+
+import com.infy.dto.MonthlyPointsView;
+import com.infy.rules.RewardPlan;
+
+/**
+ * JPQL implementation of {@link TransactionPointsRepository}, mixed into
+ * {@link TransactionRepository} by Spring Data.
+ */
+class TransactionPointsRepositoryImpl implements TransactionPointsRepository {
+
+	private static final String AGGREGATE_MONTHLY_POINTS = "SELECT t.customer.customerId AS customerId, "
+			+ "YEAR(t.date) AS rewardYear, MONTH(t.date) AS rewardMonth, COUNT(t) AS transactionCount, "
+			+ "CAST(SUM(%s) AS Long) AS points, MIN(t.transactionId) AS firstTransactionId FROM Transaction t "
+			+ "WHERE t.customer.customerId IN :customerIds AND t.date BETWEEN :startDate AND :endDate "
+			+ "GROUP BY t.customer.customerId, YEAR(t.date), MONTH(t.date) ORDER BY MIN(t.transactionId)";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<MonthlyPointsView> aggregateMonthlyPoints(Collection<Long> customerIds, LocalDate startDate,
+			LocalDate endDate, RewardPlan plan) {
+		String jpql = AGGREGATE_MONTHLY_POINTS.formatted(plan.pointsExpression("t.amount", "t.date"));
+		return entityManager.createQuery(jpql, Tuple.class).setParameter("customerIds", customerIds)
+				.setParameter("startDate", startDate).setParameter("endDate", endDate).getResultStream()
+				.<MonthlyPointsView>map(row -> new MonthlyPointsRow(row.get("customerId", Long.class),
+						row.get("rewardYear", Integer.class), row.get("rewardMonth", Integer.class),
+						row.get("transactionCount", Long.class), row.get("points", Long.class),
+						row.get("firstTransactionId", Long.class)))
+				.toList();
+	}
+
+	// Components are named after the getters of the view they implement.
+	private record MonthlyPointsRow(Long getCustomerId, Integer getRewardYear, Integer getRewardMonth,
+			Long getTransactionCount, Long getPoints, Long getFirstTransactionId) implements MonthlyPointsView {
+	}
+}
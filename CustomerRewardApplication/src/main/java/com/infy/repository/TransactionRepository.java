@@ -1,11 +1,23 @@
 package com.infy.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import com.infy.dto.ExternalIdOwner;
+import com.infy.dto.TransactionExportRow;
+import com.infy.dto.TransactionHistoryEntry;
 import com.infy.model.Transaction;
 
 /**
@@ -13,7 +25,7 @@ import com.infy.model.Transaction;
  * query transactions by customer and date range.
  */
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionPointsRepository {
 
 	/**
 	 * Retrieves transactions for a specific customer within a date range.
@@ -32,4 +44,65 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 	 * @return list of transactions for the customer
 	 */
 	List<Transaction> findByCustomerCustomerId(Long customerId);
+
+	/**
+	 * Streams the transactions of every customer within a date range, ordered by
+	 * customer and date, as scalar rows. The rows are read through a forward-only cursor
+	 * with the given fetch size and no entity is added to the persistence
+	 * context, so memory use does not grow with the result. Must be consumed
+	 * inside a transaction and closed afterwards.
+	 *
+	 * @param startDate the start date (inclusive)
+	 * @param endDate   the end date (inclusive)
+	 * @return stream of transaction rows grouped by customer and month
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT c.customerId AS customerId, c.customerName AS customerName, t.amount AS amount, "
+			+ "t.date AS date FROM Transaction t JOIN t.customer c WHERE t.date BETWEEN :startDate AND :endDate "
+			+ "ORDER BY c.customerId, t.date")
+	Stream<TransactionExportRow> streamForExport(@Param("startDate") LocalDate startDate,
+			@Param("endDate") LocalDate endDate);
+
+	/**
+	 * Retrieves the newest transactions of a customer, ordered by date then ID,
+	 * both descending.
+	 *
+	 * @param customerId the ID of the customer
+	 * @param limit      maximum number of transactions
+	 * @return the first page of the customer's history
+	 */
+	@Query("SELECT new com.infy.dto.TransactionHistoryEntry(t.transactionId, t.amount, t.date) FROM Transaction t "
+			+ "WHERE t.customer.customerId = :customerId ORDER BY t.date DESC, t.transactionId DESC")
+	List<TransactionHistoryEntry> findHistoryFirstPage(@Param("customerId") Long customerId, Limit limit);
+
+	/**
+	 * Retrieves the transactions of a customer that follow the given
+	 * (date, transactionId) key in {@link #findHistoryFirstPage} order. The seek
+	 * predicate starts a range scan of the (customerId, date) index at the key,
+	 * whose InnoDB entries end with the transaction ID, so no preceding row is
+	 * read.
+	 *
+	 * @param customerId    the ID of the customer
+	 * @param date          date of the last transaction already returned
+	 * @param transactionId ID of the last transaction already returned
+	 * @param limit         maximum number of transactions
+	 * @return the next page of the customer's history
+	 */
+	@Query("SELECT new com.infy.dto.TransactionHistoryEntry(t.transactionId, t.amount, t.date) FROM Transaction t "
+			+ "WHERE t.customer.customerId = :customerId "
+			+ "AND (t.date < :date OR (t.date = :date AND t.transactionId < :transactionId)) "
+			+ "ORDER BY t.date DESC, t.transactionId DESC")
+	List<TransactionHistoryEntry> findHistoryAfter(@Param("customerId") Long customerId,
+			@Param("date") LocalDate date, @Param("transactionId") Long transactionId, Limit limit);
+
+	/**
+	 * Retrieves which of the given external IDs are already recorded, and the
+	 * customer owning each. Served by the unique external ID index.
+	 *
+	 * @param externalIds the external IDs to look up
+	 * @return one row per recorded external ID
+	 */
+	@Query("SELECT t.externalId AS externalId, t.customer.customerId AS customerId FROM Transaction t "
+			+ "WHERE t.externalId IN :externalIds")
+	List<ExternalIdOwner> findOwnersByExternalIds(@Param("externalIds") Collection<String> externalIds);
 }
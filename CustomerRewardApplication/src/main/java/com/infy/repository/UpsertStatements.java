@@ -0,0 +1,54 @@
+package com.infy.repository;
+
+import java.sql.DatabaseMetaData;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * Adapts {@code INSERT ... ON DUPLICATE KEY UPDATE} statements to the
+ * database. Statements are written in the MySQL 8 form, which names the
+ * inserted row with the row alias {@code new}, since {@code VALUES(col)} in the
+ * update clause is deprecated as of MySQL 8.0.20. H2, which stands in for
+ * MySQL in tests, only understands {@code VALUES(col)}, so for any other
+ * database the alias is dropped and each {@code new.col} rewritten.
+ */
+final class UpsertStatements {
+
+	private static final String ROW_ALIAS = " AS new ON DUPLICATE KEY UPDATE ";
+
+	private static final Pattern ALIASED_COLUMN = Pattern.compile("\\bnew\\.(\\w+)");
+
+	private UpsertStatements() {
+	}
+
+	/**
+	 * @param sql        an upsert using the row alias {@code new}
+	 * @param dataSource the database the statement runs on
+	 * @return the statement as the database accepts it
+	 */
+	static String forDatabase(String sql, DataSource dataSource) {
+		if (isMySql(dataSource)) {
+			return sql;
+		}
+		String update = sql.replace(ROW_ALIAS, " ON DUPLICATE KEY UPDATE ");
+		return ALIASED_COLUMN.matcher(update).replaceAll("VALUES($1)");
+	}
+
+	/**
+	 * @param dataSource the database
+	 * @return whether it is MySQL rather than a database standing in for it
+	 */
+	static boolean isMySql(DataSource dataSource) {
+		String product;
+		try {
+			product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+		} catch (MetaDataAccessException e) {
+			throw new IllegalStateException("Could not determine the database product", e);
+		}
+		return "MySQL".equalsIgnoreCase(product);
+	}
+}
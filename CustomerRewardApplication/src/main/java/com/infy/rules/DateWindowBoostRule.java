@@ -0,0 +1,20 @@
+package com.infy.rules;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Multiplies the points of every transaction dated within a window, e.g. 1.5
+ * for a holiday promotion. Windows of one plan must not overlap.
+ *
+ * @param from       first day of the window (inclusive)
+ * @param to         last day of the window (inclusive)
+ * @param multiplier factor applied to the points, with at most two decimals
+ */
+public record DateWindowBoostRule(LocalDate from, LocalDate to, BigDecimal multiplier) implements RewardRule {
+
+	@Override
+	public void contributeTo(RewardPlan.Builder plan) {
+		plan.boost(from, to, multiplier);
+	}
+}
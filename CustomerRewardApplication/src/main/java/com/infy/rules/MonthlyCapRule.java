@@ -0,0 +1,14 @@
+package com.infy.rules;
+
+/**
+ * Limits the points a customer earns in one calendar month.
+ *
+ * @param maxPoints the most points counted per customer and month
+ */
+public record MonthlyCapRule(long maxPoints) implements RewardRule {
+
+	@Override
+	public void contributeTo(RewardPlan.Builder plan) {
+		plan.monthlyCap(maxPoints);
+	}
+}
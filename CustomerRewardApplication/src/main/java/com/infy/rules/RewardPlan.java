@@ -0,0 +1,340 @@
+package com.infy.rules;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reward rules compiled into flat arrays. Tiers are sorted by threshold with
+ * the points earned below each threshold precomputed, so evaluating an amount
+ * is one comparison against the lowest threshold, which most small amounts
+ * stop at, then a scan from the top tier to the first threshold the amount
+ * exceeds and one multiply. Boost windows are sorted by start day and found by
+ * binary search, and are skipped entirely when there are none.
+ *
+ * Points of each tier are truncated to whole points, which reproduces the
+ * tiered calculation the application has always used. Instances are
+ * immutable and safe to share between threads.
+ */
+public final class RewardPlan {
+
+	private static final long HUNDREDTHS_SQUARED = 100 * 100;
+
+	/**
+	 * The default tiers: one point per dollar above 50 and two points per dollar
+	 * above 100.
+	 */
+	public static final List<TierRule> DEFAULT_TIERS = List.of(new TierRule(new BigDecimal("50"), BigDecimal.ONE),
+			new TierRule(new BigDecimal("100"), new BigDecimal("2")));
+
+	/**
+	 * Plan of the default tiers, without boosts or caps.
+	 */
+	public static final RewardPlan DEFAULT = builder().rules(DEFAULT_TIERS).build();
+
+	private final double lowestThreshold;
+
+	private final long lowestThresholdCents;
+
+	private final double[] thresholds;
+
+	private final long[] thresholdCents;
+
+	private final double[] rates;
+
+	private final long[] rateHundredths;
+
+	private final int[] basePoints;
+
+	private final long[] boostStartDays;
+
+	private final long[] boostEndDays;
+
+	private final long[] boostHundredths;
+
+	private final long monthlyCap;
+
+	private final List<BigDecimal> tierThresholds;
+
+	private final List<BigDecimal> tierRates;
+
+	private RewardPlan(Builder builder) {
+		List<TierRule> tiers = new ArrayList<>(builder.tiers);
+		tiers.sort(Comparator.comparing(TierRule::threshold));
+		int count = tiers.size();
+		thresholds = new double[count];
+		thresholdCents = new long[count];
+		rates = new double[count];
+		rateHundredths = new long[count];
+		basePoints = new int[count];
+		tierThresholds = tiers.stream().map(TierRule::threshold).toList();
+		tierRates = tiers.stream().map(TierRule::rate).toList();
+		for (int i = 0; i < count; i++) {
+			thresholds[i] = tiers.get(i).threshold().doubleValue();
+			thresholdCents[i] = hundredths(tiers.get(i).threshold(), "Tier threshold");
+			rates[i] = tiers.get(i).rate().doubleValue();
+			rateHundredths[i] = hundredths(tiers.get(i).rate(), "Tier rate");
+			if (i > 0) {
+				if (thresholdCents[i] == thresholdCents[i - 1]) {
+					throw new IllegalArgumentException("Tier thresholds must be distinct.");
+				}
+				long width = thresholdCents[i] - thresholdCents[i - 1];
+				basePoints[i] = basePoints[i - 1] + (int) (rateHundredths[i - 1] * width / HUNDREDTHS_SQUARED);
+			}
+		}
+
+		List<DateWindowBoostRule> boosts = new ArrayList<>(builder.boosts);
+		boosts.sort(Comparator.comparing(DateWindowBoostRule::from));
+		boostStartDays = new long[boosts.size()];
+		boostEndDays = new long[boosts.size()];
+		boostHundredths = new long[boosts.size()];
+		for (int i = 0; i < boosts.size(); i++) {
+			boostStartDays[i] = boosts.get(i).from().toEpochDay();
+			boostEndDays[i] = boosts.get(i).to().toEpochDay();
+			boostHundredths[i] = hundredths(boosts.get(i).multiplier(), "Boost multiplier");
+			if (i > 0 && boostStartDays[i] <= boostEndDays[i - 1]) {
+				throw new IllegalArgumentException("Boost windows must not overlap.");
+			}
+		}
+		lowestThreshold = count > 0 ? thresholds[0] : Double.POSITIVE_INFINITY;
+		lowestThresholdCents = count > 0 ? thresholdCents[0] : Long.MAX_VALUE;
+		monthlyCap = builder.monthlyCap;
+	}
+
+	/**
+	 * @return a builder for a new plan
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Calculates the points of an amount from the tiers only.
+	 *
+	 * @param amount the amount of the transaction
+	 * @return reward points of the amount
+	 */
+	public int points(double amount) {
+		if (!(amount > lowestThreshold)) {
+			return 0;
+		}
+		for (int i = thresholds.length - 1; i > 0; i--) {
+			if (amount > thresholds[i]) {
+				return basePoints[i] + (int) ((amount - thresholds[i]) * rates[i]);
+			}
+		}
+		return (int) ((amount - lowestThreshold) * rates[0]);
+	}
+
+	/**
+	 * Calculates the points of a transaction, including any boost of its date.
+	 *
+	 * @param amount the amount of the transaction
+	 * @param date   the date of the transaction
+	 * @return reward points of the transaction
+	 */
+	public int points(double amount, LocalDate date) {
+		return boost(points(amount), date.toEpochDay());
+	}
+
+	/**
+	 * Calculates the points of an amount in cents from the tiers only, using
+	 * integer arithmetic.
+	 *
+	 * @param amountCents the amount of the transaction in cents
+	 * @return reward points of the amount
+	 */
+	public int pointsCents(long amountCents) {
+		if (amountCents <= lowestThresholdCents) {
+			return 0;
+		}
+		for (int i = thresholdCents.length - 1; i > 0; i--) {
+			if (amountCents > thresholdCents[i]) {
+				return basePoints[i]
+						+ (int) (rateHundredths[i] * (amountCents - thresholdCents[i]) / HUNDREDTHS_SQUARED);
+			}
+		}
+		return (int) (rateHundredths[0] * (amountCents - lowestThresholdCents) / HUNDREDTHS_SQUARED);
+	}
+
+	/**
+	 * Applies the boost of the window containing a day, if any.
+	 *
+	 * @param points   points of the transaction before boosts
+	 * @param epochDay the day of the transaction, see
+	 *                 {@link LocalDate#toEpochDay()}
+	 * @return the boosted points
+	 */
+	public int boost(int points, long epochDay) {
+		if (boostStartDays.length == 0) {
+			return points;
+		}
+		int window = Arrays.binarySearch(boostStartDays, epochDay);
+		if (window < 0) {
+			window = -window - 2;
+		}
+		if (window < 0 || epochDay > boostEndDays[window]) {
+			return points;
+		}
+		return (int) (points * boostHundredths[window] / 100);
+	}
+
+	/**
+	 * Applies the monthly cap to the points of one customer and month.
+	 *
+	 * @param monthPoints points earned in the month
+	 * @return the points counted for the month
+	 */
+	public long capMonth(long monthPoints) {
+		return Math.min(monthPoints, monthlyCap);
+	}
+
+	/**
+	 * Renders the per-transaction points of this plan, boosts included, as an
+	 * expression valid in both JPQL and SQL, so database aggregation matches
+	 * {@link #points(double, LocalDate)}. Only numbers and dates of the plan are
+	 * inlined.
+	 *
+	 * @param amount the amount column or path
+	 * @param date   the date column or path
+	 * @return the points expression
+	 */
+	public String pointsExpression(String amount, String date) {
+		if (thresholds.length == 0) {
+			return "0";
+		}
+		StringBuilder tiers = new StringBuilder("CASE");
+		for (int i = thresholds.length - 1; i >= 0; i--) {
+			String threshold = literal(tierThresholds.get(i));
+			String rate = literal(tierRates.get(i));
+			String excess = amount + " - " + threshold;
+			tiers.append(" WHEN ").append(amount).append(" > ").append(threshold).append(" THEN FLOOR(")
+					.append("1".equals(rate) ? excess : "(" + excess + ") * " + rate).append(')');
+			if (basePoints[i] != 0) {
+				tiers.append(" + ").append(basePoints[i]);
+			}
+		}
+		tiers.append(" ELSE 0 END");
+		if (boostStartDays.length == 0) {
+			return tiers.toString();
+		}
+
+		StringBuilder boosted = new StringBuilder("CASE");
+		for (int i = 0; i < boostStartDays.length; i++) {
+			boosted.append(" WHEN ").append(date).append(" BETWEEN ").append(dateLiteral(boostStartDays[i]))
+					.append(" AND ").append(dateLiteral(boostEndDays[i])).append(" THEN FLOOR((").append(tiers)
+					.append(") * ").append(boostHundredths[i]).append(" / 100)");
+		}
+		return boosted.append(" ELSE ").append(tiers).append(" END").toString();
+	}
+
+	private static long hundredths(BigDecimal value, String name) {
+		if (value == null || value.signum() < 0) {
+			throw new IllegalArgumentException(name + " must be zero or positive.");
+		}
+		try {
+			return value.movePointRight(2).longValueExact();
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(name + " must have at most two decimals.");
+		}
+	}
+
+	private static String literal(BigDecimal value) {
+		return value.stripTrailingZeros().toPlainString();
+	}
+
+	private static String dateLiteral(long epochDay) {
+		return "{d '" + LocalDate.ofEpochDay(epochDay) + "'}";
+	}
+
+	/**
+	 * Collects the contributions of {@link RewardRule}s and compiles them into a
+	 * plan.
+	 */
+	public static final class Builder {
+
+		private final List<TierRule> tiers = new ArrayList<>();
+
+		private final List<DateWindowBoostRule> boosts = new ArrayList<>();
+
+		private long monthlyCap = Long.MAX_VALUE;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param threshold amount above which the tier applies
+		 * @param rate      points per dollar above the threshold
+		 * @return this builder
+		 */
+		public Builder tier(BigDecimal threshold, BigDecimal rate) {
+			if (threshold == null || rate == null) {
+				throw new IllegalArgumentException("Tier threshold and rate cannot be null.");
+			}
+			tiers.add(new TierRule(threshold, rate));
+			return this;
+		}
+
+		/**
+		 * @param from       first day of the window (inclusive)
+		 * @param to         last day of the window (inclusive)
+		 * @param multiplier factor applied to points within the window
+		 * @return this builder
+		 */
+		public Builder boost(LocalDate from, LocalDate to, BigDecimal multiplier) {
+			if (from == null || to == null || from.isAfter(to)) {
+				throw new IllegalArgumentException("Boost window must have a start on or before its end.");
+			}
+			boosts.add(new DateWindowBoostRule(from, to, multiplier));
+			return this;
+		}
+
+		/**
+		 * Limits the points per customer and month; the lowest of several caps
+		 * applies.
+		 *
+		 * @param maxPoints the most points counted per month
+		 * @return this builder
+		 */
+		public Builder monthlyCap(long maxPoints) {
+			if (maxPoints < 0) {
+				throw new IllegalArgumentException("Monthly cap must be zero or positive.");
+			}
+			monthlyCap = Math.min(monthlyCap, maxPoints);
+			return this;
+		}
+
+		/**
+		 * Adds a rule's contribution.
+		 *
+		 * @param rule the rule
+		 * @return this builder
+		 */
+		public Builder rule(RewardRule rule) {
+			rule.contributeTo(this);
+			return this;
+		}
+
+		/**
+		 * Adds the contributions of several rules.
+		 *
+		 * @param rules the rules
+		 * @return this builder
+		 */
+		public Builder rules(List<? extends RewardRule> rules) {
+			rules.forEach(this::rule);
+			return this;
+		}
+
+		/**
+		 * @return the compiled plan
+		 * @throws IllegalArgumentException if the rules are inconsistent
+		 */
+		public RewardPlan build() {
+			return new RewardPlan(this);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.infy.rules;
+
+/**
+ * Service provider interface for reward rules. A rule does not evaluate
+ * transactions itself; it contributes tiers, boosts or caps to a
+ * {@link RewardPlan.Builder}, and the resulting plan is what every reward path
+ * evaluates.
+ *
+ * Rules come from {@code rewards.rules.*} configuration, from the rules
+ * endpoint, and from any Spring bean implementing this interface, which is
+ * applied on top of the configured rules each time a plan is compiled.
+ */
+public interface RewardRule {
+
+	/**
+	 * Adds this rule to a plan being compiled.
+	 *
+	 * @param plan the plan builder
+	 * @throws IllegalArgumentException if the rule is invalid
+	 */
+	void contributeTo(RewardPlan.Builder plan);
+}
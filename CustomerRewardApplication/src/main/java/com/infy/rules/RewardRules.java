@@ -0,0 +1,341 @@
+package com.infy.rules;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.CustomerRewardsApplication;
+import com.infy.dto.StoredRewardRules;
+import com.infy.event.RewardRulesChangedEvent;
+import com.infy.event.RewardRulesLoadedEvent;
+import com.infy.event.TransactionsRecordingEvent;
+import com.infy.exception.InvalidRequestException;
+import com.infy.repository.RewardRulesRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the reward plan in effect. The plan is compiled from the configured
+ * rules plus every {@link RewardRule} bean, and can be replaced at runtime.
+ * Readers get the current plan with a single volatile read and never block; a
+ * replacement is compiled first and then published in one write, so a reader
+ * sees either the old plan or the new one, never a mix.
+ *
+ * Each replacement publishes a {@link RewardRulesChangedEvent} in a database
+ * transaction, in which the reward ledger is rebuilt under the new plan. The
+ * new plan is put into effect only once that transaction commits, before any
+ * other after-commit work, so readers keep the old plan together with the old
+ * ledger while the rebuild runs, and a failed rebuild leaves both in place.
+ *
+ * The definition in effect is stored in the database with a version raised by
+ * every replacement, in the same transaction as the rebuild, so the stored
+ * rules always match the ledger. On startup the stored rules are put into
+ * effect, unless the {@code rewards.rules} properties changed since they were
+ * last put into effect, in which case the properties replace them. Every
+ * {@code rewards.rules.refresh-interval} the stored version is checked, so rules
+ * replaced through another instance take effect here too.
+ *
+ * Writes compute their points with {@link #planForWrite()}, which locks the
+ * stored rules against replacement for the rest of the write's transaction,
+ * before the write inserts anything. A replacement on any instance therefore
+ * waits for the writes in progress to commit, and writes arriving meanwhile
+ * wait for it and then use the new plan, so no write adds points under the old
+ * plan to a ledger rebuilt under the new one.
+ */
+@Component
+@EnableConfigurationProperties(RewardRulesProperties.class)
+public class RewardRules {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private final ObjectProvider<RewardRule> ruleBeans;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final TransactionTemplate replaceTransaction;
+
+	private final RewardRulesRepository rewardRulesRepository;
+
+	private final ObjectMapper objectMapper;
+
+	private final RewardRulesProperties configured;
+
+	// Not a monitor: replacements hold it for a whole ledger rebuild, which would pin a virtual thread
+	private final ReentrantLock replaceLock = new ReentrantLock();
+
+	private final AtomicReference<ActiveRules> active;
+
+	// Stored rules of a later version than those in effect, compiled once for the writes until they take effect
+	private volatile ActiveRules ahead;
+
+	// Transaction resource key of the plan a write uses
+	private final Object writePlanKey = new Object();
+
+	/**
+	 * The rules definition together with the plan compiled from it and the
+	 * stored version, swapped as one value.
+	 */
+	private record ActiveRules(RewardRulesProperties definition, RewardPlan plan, long version) {
+	}
+
+	public RewardRules(RewardRulesProperties properties, ObjectProvider<RewardRule> ruleBeans,
+			ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+			RewardRulesRepository rewardRulesRepository, ObjectMapper objectMapper) {
+		this.ruleBeans = ruleBeans;
+		this.eventPublisher = eventPublisher;
+		this.replaceTransaction = new TransactionTemplate(transactionManager);
+		this.rewardRulesRepository = rewardRulesRepository;
+		this.objectMapper = objectMapper;
+		this.configured = properties;
+		this.active = new AtomicReference<>(load(storedOrSeed()));
+	}
+
+	/**
+	 * @return the plan in effect
+	 */
+	public RewardPlan plan() {
+		return active.get().plan();
+	}
+
+	/**
+	 * Returns the plan a write in the current transaction computes its points
+	 * with, and locks the stored rules until the transaction ends so that no
+	 * replacement rebuilds the ledger while the write is in progress. This is
+	 * the plan of the stored rules, which may not have taken effect here yet.
+	 * Later calls in the same transaction return the same plan.
+	 *
+	 * @return the plan for the current write; the plan in effect outside a
+	 *         transaction
+	 */
+	public RewardPlan planForWrite() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return plan();
+		}
+		RewardPlan bound = (RewardPlan) TransactionSynchronizationManager.getResource(writePlanKey);
+		if (bound != null) {
+			return bound;
+		}
+		RewardPlan plan = storedPlan(rewardRulesRepository.lockVersionShared());
+		TransactionSynchronizationManager.bindResource(writePlanKey, plan);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(writePlanKey);
+			}
+		});
+		return plan;
+	}
+
+	/**
+	 * Locks the stored rules like a replacement until the current transaction
+	 * ends, so that no write is in progress while the ledger is rebuilt.
+	 *
+	 * @return the plan of the stored rules
+	 */
+	public RewardPlan planForRebuild() {
+		return storedPlan(rewardRulesRepository.lockForUpdate().version());
+	}
+
+	/**
+	 * Takes the locks of a write before it inserts anything, so that a write
+	 * never waits for a replacement while holding rows the ledger rebuild
+	 * reads, nor while holding the locks of the other listeners.
+	 *
+	 * @param event the write about to insert transactions
+	 */
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onTransactionsRecording(TransactionsRecordingEvent event) {
+		planForWrite();
+	}
+
+	/**
+	 * @return the rules definition the plan in effect was compiled from
+	 */
+	public RewardRulesProperties definition() {
+		return active.get().definition();
+	}
+
+	/**
+	 * Puts the {@code rewards.rules} properties into effect on startup if they
+	 * changed since they were last put into effect, rebuilding the ledger under
+	 * them. Otherwise the stored rules, which may have been replaced at runtime,
+	 * stay in effect.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void applyConfiguredRules() {
+		String properties = toJson(configured);
+		if (!properties.equals(storedOrSeed().configured())) {
+			logger.info("Configured reward rules changed since they were last put into effect, replacing them");
+			replace(configured, properties);
+		}
+	}
+
+	/**
+	 * Puts the stored rules into effect if another instance replaced them.
+	 * Their ledger rebuild has already committed, so only a
+	 * {@link RewardRulesLoadedEvent} is published.
+	 */
+	@Scheduled(fixedDelayString = "${rewards.rules.refresh-interval:10s}",
+			initialDelayString = "${rewards.rules.refresh-interval:10s}")
+	public void refresh() {
+		rewardRulesRepository.find().filter(stored -> stored.version() > active.get().version())
+				.ifPresent(stored -> {
+					ActiveRules loaded = load(stored);
+					if (activate(loaded)) {
+						logger.info("Reward rules version {} loaded", stored.version());
+						eventPublisher.publishEvent(new RewardRulesLoadedEvent(loaded.plan()));
+					}
+				});
+	}
+
+	/**
+	 * Compiles a new rules definition, rebuilds the ledger under it and puts it
+	 * into effect once the rebuild commits. Replacements run one at a time.
+	 *
+	 * @param definition the new rules
+	 * @return the compiled plan
+	 * @throws InvalidRequestException if the rules are invalid; the current plan
+	 *                                 stays in effect
+	 * @throws RuntimeException        if the ledger rebuild fails; it is rolled
+	 *                                 back and the current plan stays in effect
+	 */
+	public RewardPlan replace(RewardRulesProperties definition) {
+		return replace(definition, null);
+	}
+
+	/**
+	 * @param properties the {@code rewards.rules} properties to store as last
+	 *                   put into effect; null to keep the stored ones
+	 */
+	private RewardPlan replace(RewardRulesProperties definition, String properties) {
+		RewardPlan plan = preview(definition);
+		replaceLock.lock();
+		try {
+			replaceTransaction.executeWithoutResult(status -> {
+				// Locks the stored rules until commit, also against replacements by other instances
+				StoredRewardRules stored = rewardRulesRepository.lockForUpdate();
+				ActiveRules replaced = new ActiveRules(definition, plan, stored.version() + 1);
+				rewardRulesRepository.update(new StoredRewardRules(replaced.version(), toJson(definition),
+						properties != null ? properties : stored.configured()));
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public int getOrder() {
+						return Ordered.HIGHEST_PRECEDENCE;
+					}
+
+					@Override
+					public void afterCommit() {
+						activate(replaced);
+					}
+				});
+				eventPublisher.publishEvent(new RewardRulesChangedEvent(plan));
+			});
+		} finally {
+			replaceLock.unlock();
+		}
+		logger.info("Reward rules replaced");
+		return plan;
+	}
+
+	/**
+	 * Compiles a rules definition without putting it into effect, for example
+	 * to recompute rewards under rules that are only being considered.
+	 *
+	 * @param definition the rules
+	 * @return the compiled plan
+	 * @throws InvalidRequestException if the rules are invalid
+	 */
+	public RewardPlan preview(RewardRulesProperties definition) {
+		try {
+			return compile(definition);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidRequestException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Puts rules into effect unless a later version already is.
+	 *
+	 * @return whether the rules were put into effect
+	 */
+	private boolean activate(ActiveRules rules) {
+		return active.accumulateAndGet(rules,
+				(current, next) -> next.version() > current.version() ? next : current) == rules;
+	}
+
+	/**
+	 * Returns the plan of a stored version, read with the stored rules locked.
+	 * Only a replacement that has committed but not taken effect here yet
+	 * stores a later version than the one in effect.
+	 */
+	private RewardPlan storedPlan(long version) {
+		ActiveRules current = active.get();
+		if (current.version() == version) {
+			return current.plan();
+		}
+		ActiveRules later = ahead;
+		if (later == null || later.version() != version) {
+			later = load(rewardRulesRepository.find().orElseThrow());
+			ahead = later;
+		}
+		return later.plan();
+	}
+
+	/**
+	 * Reads the stored rules, storing the configured ones with version 1 on the
+	 * first start; the ledger was built under the configured rules until then.
+	 */
+	private StoredRewardRules storedOrSeed() {
+		return rewardRulesRepository.find().orElseGet(() -> {
+			String properties = toJson(configured);
+			try {
+				rewardRulesRepository.insert(new StoredRewardRules(1, properties, properties));
+			} catch (DuplicateKeyException e) {
+				// Another instance stored them first
+				return rewardRulesRepository.find().orElseThrow();
+			}
+			return new StoredRewardRules(1, properties, properties);
+		});
+	}
+
+	private ActiveRules load(StoredRewardRules stored) {
+		RewardRulesProperties definition;
+		try {
+			definition = objectMapper.readValue(stored.definition(), RewardRulesProperties.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Stored reward rules version " + stored.version() + " are unreadable", e);
+		}
+		return new ActiveRules(definition, compile(definition), stored.version());
+	}
+
+	private String toJson(RewardRulesProperties definition) {
+		try {
+			return objectMapper.writeValueAsString(definition);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Reward rules could not be serialized", e);
+		}
+	}
+
+	private RewardPlan compile(RewardRulesProperties definition) {
+		RewardPlan.Builder builder = RewardPlan.builder().rules(definition.toRules());
+		ruleBeans.orderedStream().forEach(builder::rule);
+		return builder.build();
+	}
+}
@@ -0,0 +1,43 @@
+package com.infy.rules;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reward rules as configured under {@code rewards.rules}, also accepted as the
+ * body of the rules endpoint. Without tiers the
+ * {@link RewardPlan#DEFAULT_TIERS default tiers} apply.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "rewards.rules")
+public class RewardRulesProperties {
+
+	private List<TierRule> tiers = new ArrayList<>();
+
+	private List<DateWindowBoostRule> boosts = new ArrayList<>();
+
+	private Long monthlyCap;
+
+	/**
+	 * @return the configured rules, with the default tiers when none are set
+	 */
+	public List<RewardRule> toRules() {
+		List<RewardRule> rules = new ArrayList<>();
+		rules.addAll(tiers == null || tiers.isEmpty() ? RewardPlan.DEFAULT_TIERS : tiers);
+		if (boosts != null) {
+			rules.addAll(boosts);
+		}
+		if (monthlyCap != null) {
+			rules.add(new MonthlyCapRule(monthlyCap));
+		}
+		return rules;
+	}
+}
@@ -0,0 +1,20 @@
+package com.infy.rules;
+
+import java.math.BigDecimal;
+
+/**
+ * Earns {@code rate} points per dollar of the part of an amount above
+ * {@code threshold}, up to the next tier's threshold. The default rules are a
+ * rate of 1 above 50 and a rate of 2 above 100.
+ *
+ * @param threshold amount above which the tier applies, in dollars with at most
+ *                  two decimals
+ * @param rate      points per dollar, with at most two decimals
+ */
+public record TierRule(BigDecimal threshold, BigDecimal rate) implements RewardRule {
+
+	@Override
+	public void contributeTo(RewardPlan.Builder plan) {
+		plan.tier(threshold, rate);
+	}
+}
@@ -0,0 +1,188 @@
+package com.infy.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Orders concurrent writes to the same customer. Customer IDs are hashed onto
+ * a fixed set of fair locks ({@code rewards.ingestion.lock-stripes}), so writes
+ * to one customer run one after another in arrival order while writes to
+ * customers on other stripes run in parallel, without locking customer rows
+ * in the database.
+ *
+ * A writer takes the stripes of its customers inside its database transaction,
+ * before its first write, and keeps them until the transaction has completed.
+ * The next writer of the same customer therefore sees everything the previous
+ * one committed, including external IDs and ledger rows. Stripes are always
+ * taken in ascending order, so writers covering several customers cannot
+ * deadlock each other.
+ */
+@Component
+public class CustomerWriteLocks {
+
+	private static final int HOTTEST_STRIPES = 10;
+
+	private final ReentrantLock[] stripes;
+
+	private final AtomicLongArray acquired;
+
+	private final AtomicLongArray contended;
+
+	private final AtomicLongArray waitNanos;
+
+	private final AtomicLong totalAcquired = new AtomicLong();
+
+	private final AtomicLong totalContended = new AtomicLong();
+
+	private final Timer waitTimer;
+
+	public CustomerWriteLocks(@Value("${rewards.ingestion.lock-stripes:1024}") int stripeCount,
+			MeterRegistry meterRegistry) {
+		if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1) {
+			throw new IllegalArgumentException("rewards.ingestion.lock-stripes must be a power of two");
+		}
+		this.stripes = new ReentrantLock[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new ReentrantLock(true);
+		}
+		this.acquired = new AtomicLongArray(stripeCount);
+		this.contended = new AtomicLongArray(stripeCount);
+		this.waitNanos = new AtomicLongArray(stripeCount);
+		meterRegistry.more().counter("rewards.ingestion.locks.acquired", Tags.empty(), totalAcquired);
+		meterRegistry.more().counter("rewards.ingestion.locks.contended", Tags.empty(), totalContended);
+		this.waitTimer = Timer.builder("rewards.ingestion.locks.wait")
+				.description("Time writers waited for a customer write lock held by another writer")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Takes the write locks of the given customers for the rest of the current
+	 * transaction. They are released once the transaction has committed or
+	 * rolled back. Must be called before the transaction's first write, so no
+	 * writer waits for a stripe while holding database locks another stripe
+	 * holder needs.
+	 *
+	 * @param customerIds the customers about to be written; null IDs are ignored
+	 * @throws IllegalStateException if no transaction is active
+	 */
+	public void lockUntilCompletion(Collection<Long> customerIds) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("Customer write locks must be taken inside a transaction");
+		}
+		TreeSet<Integer> indexes = new TreeSet<>();
+		for (Long customerId : customerIds) {
+			if (customerId != null) {
+				indexes.add(stripe(customerId));
+			}
+		}
+		if (indexes.isEmpty()) {
+			return;
+		}
+
+		List<ReentrantLock> held = new ArrayList<>(indexes.size());
+		try {
+			for (int index : indexes) {
+				lock(index);
+				held.add(stripes[index]);
+			}
+		} catch (RuntimeException | Error e) {
+			unlock(held);
+			throw e;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				unlock(held);
+			}
+		});
+	}
+
+	/**
+	 * Returns lock acquisitions and contention in total and for the most
+	 * contended stripes.
+	 *
+	 * @return statistics keyed by name
+	 */
+	public Map<String, Object> stats() {
+		long total = totalAcquired.get();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("stripes", stripes.length);
+		result.put("acquired", total);
+		result.put("contended", totalContended.get());
+		result.put("contentionRate", total == 0 ? 0d : (double) totalContended.get() / total);
+		result.put("waitMillis", (long) waitTimer.totalTime(TimeUnit.MILLISECONDS));
+		result.put("held", IntStream.range(0, stripes.length).filter(i -> stripes[i].isLocked()).count());
+		result.put("hottestStripes", IntStream.range(0, stripes.length).filter(i -> contended.get(i) > 0).boxed()
+				.sorted(Comparator.comparingLong((Integer i) -> contended.get(i)).reversed()).limit(HOTTEST_STRIPES)
+				.map(this::stripeStats).toList());
+		return result;
+	}
+
+	private int stripe(long customerId) {
+		int hash = Long.hashCode(customerId);
+		return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+	}
+
+	private void lock(int index) {
+		ReentrantLock lock = stripes[index];
+		if (!tryLockFairly(lock)) {
+			long start = System.nanoTime();
+			lock.lock();
+			long waited = System.nanoTime() - start;
+			contended.incrementAndGet(index);
+			waitNanos.addAndGet(index, waited);
+			totalContended.incrementAndGet();
+			waitTimer.record(waited, TimeUnit.NANOSECONDS);
+		}
+		acquired.incrementAndGet(index);
+		totalAcquired.incrementAndGet();
+	}
+
+	/**
+	 * Takes the lock only if no other writer holds or waits for it. Unlike
+	 * {@link ReentrantLock#tryLock()} this does not barge ahead of queued
+	 * writers.
+	 */
+	private static boolean tryLockFairly(ReentrantLock lock) {
+		try {
+			return lock.tryLock(0, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static void unlock(List<ReentrantLock> held) {
+		for (int i = held.size() - 1; i >= 0; i--) {
+			held.get(i).unlock();
+		}
+	}
+
+	private Map<String, Object> stripeStats(int index) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("stripe", index);
+		result.put("acquired", acquired.get(index));
+		result.put("contended", contended.get(index));
+		result.put("waitMillis", TimeUnit.NANOSECONDS.toMillis(waitNanos.get(index)));
+		return result;
+	}
+}
@@ -0,0 +1,395 @@
+package com.infy.service;
+
+import com.infy.dto.CustomerSummary;
+import com.infy.dto.MonthlyReward;
+import com.infy.dto.RewardSummary;
+import com.infy.model.Transaction;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRules;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Calculates reward points and aggregates them per month for in-memory
+ * transaction sets, e.g. when replaying a year of transactions for analytics.
+ * Points follow the reward plan in effect when an aggregation starts, with the
+ * plan's monthly cap applied to each returned month.
+ *
+ * Inputs smaller than {@code rewards.engine.parallel-threshold} are aggregated
+ * on the calling thread. Larger inputs are split with their spliterator and
+ * aggregated on the common fork-join pool, each leaf filling its own primitive
+ * accumulator indexed by epoch month. Points and counts are integers and
+ * accumulators are merged in encounter order, so both modes return identical
+ * results.
+ *
+ * Callers holding amounts in cents can use {@link #accumulate} with reusable
+ * {@link MonthlyBuckets}, which allocates nothing per transaction. No request
+ * path calls it: rewards are read from the monthly ledger, and the snapshot
+ * recomputation evaluates cents straight from its mapped columns. It is kept
+ * for PrimitiveRewardBenchmark, which compares it with boxed grouping.
+ */
+@Component
+public class RewardEngine {
+
+	private final int parallelThreshold;
+
+	private final Supplier<RewardPlan> plans;
+
+	@Autowired
+	public RewardEngine(@Value("${rewards.engine.parallel-threshold:10000}") int parallelThreshold,
+			RewardRules rewardRules) {
+		this(parallelThreshold, rewardRules::plan);
+	}
+
+	/**
+	 * Creates an engine that always evaluates {@link RewardPlan#DEFAULT}.
+	 *
+	 * @param parallelThreshold transactions from which aggregation runs in
+	 *                          parallel
+	 */
+	public RewardEngine(int parallelThreshold) {
+		this(parallelThreshold, () -> RewardPlan.DEFAULT);
+	}
+
+	private RewardEngine(int parallelThreshold, Supplier<RewardPlan> plans) {
+		this.parallelThreshold = parallelThreshold;
+		this.plans = plans;
+	}
+
+	/**
+	 * Per-month aggregate of a transaction set.
+	 *
+	 * @param month            the calendar month
+	 * @param transactionCount number of transactions in the month
+	 * @param points           reward points earned in the month
+	 */
+	public record MonthlyPoints(YearMonth month, long transactionCount, long points) {
+	}
+
+	/**
+	 * Converts an amount to whole cents.
+	 *
+	 * @param amount the amount
+	 * @return the amount in cents, rounded half up
+	 */
+	public static long toCents(double amount) {
+		return Math.round(amount * 100);
+	}
+
+	/**
+	 * Returns the month of a date as months since year 0, the index used by
+	 * {@link MonthlyBuckets}.
+	 *
+	 * @param date the date
+	 * @return {@code year * 12 + month - 1}
+	 */
+	public static int epochMonth(LocalDate date) {
+		return epochMonth(date.getYear(), date.getMonthValue());
+	}
+
+	/**
+	 * @param year  the year
+	 * @param month the month of year, 1 to 12
+	 * @return {@code year * 12 + month - 1}
+	 */
+	public static int epochMonth(int year, int month) {
+		return year * 12 + month - 1;
+	}
+
+	/**
+	 * Adds columnar transactions to reusable buckets, with points calculated by
+	 * a reward plan in integer cents, boosts included. The monthly cap is not
+	 * applied. Nothing is allocated per transaction once the buckets' window
+	 * covers the months of the input.
+	 *
+	 * @param epochMonths month of each transaction, see {@link #epochMonth}
+	 * @param epochDays   day of each transaction, see
+	 *                    {@link LocalDate#toEpochDay()}
+	 * @param amountCents amount of each transaction in cents
+	 * @param length      number of transactions to read from the arrays
+	 * @param plan        the reward plan
+	 * @param buckets     the buckets to add to; not cleared first
+	 */
+	public static void accumulate(int[] epochMonths, int[] epochDays, long[] amountCents, int length,
+			RewardPlan plan, MonthlyBuckets buckets) {
+		for (int i = 0; i < length; i++) {
+			buckets.addCents(epochMonths[i], epochDays[i], amountCents[i], plan);
+		}
+	}
+
+	/**
+	 * Aggregates transactions per month, choosing the parallel mode when the input
+	 * reaches the configured threshold.
+	 *
+	 * @param transactions transactions with amount and date set
+	 * @return one entry per month with at least one transaction, in order of the
+	 *         month's first transaction
+	 */
+	public List<MonthlyPoints> aggregate(List<Transaction> transactions) {
+		return transactions.size() < parallelThreshold ? aggregateSequential(transactions)
+				: aggregateParallel(transactions);
+	}
+
+	/**
+	 * Aggregates transactions per month on the calling thread.
+	 *
+	 * @param transactions transactions with amount and date set
+	 * @return one entry per month with at least one transaction, in order of the
+	 *         month's first transaction
+	 */
+	public List<MonthlyPoints> aggregateSequential(List<Transaction> transactions) {
+		RewardPlan plan = plans.get();
+		MonthlyBuckets accumulator = new MonthlyBuckets();
+		transactions.spliterator().forEachRemaining(transaction -> accumulator.add(transaction, plan));
+		return capMonths(accumulator.toList(), plan);
+	}
+
+	/**
+	 * Aggregates transactions per month on the common fork-join pool.
+	 *
+	 * @param transactions transactions with amount and date set
+	 * @return one entry per month with at least one transaction, in order of the
+	 *         month's first transaction
+	 */
+	public List<MonthlyPoints> aggregateParallel(List<Transaction> transactions) {
+		RewardPlan plan = plans.get();
+		int leafSize = Math.max(1024, transactions.size() / (ForkJoinPool.getCommonPoolParallelism() * 4));
+		MonthlyBuckets result = ForkJoinPool.commonPool()
+				.invoke(new AggregateTask(transactions.spliterator(), leafSize, plan));
+		return capMonths(result.toList(), plan);
+	}
+
+	/**
+	 * Applies the plan's monthly cap once months are complete; leaves of a
+	 * parallel aggregation may each hold part of a month.
+	 */
+	private static List<MonthlyPoints> capMonths(List<MonthlyPoints> months, RewardPlan plan) {
+		return months.stream().map(month -> new MonthlyPoints(month.month(), month.transactionCount(),
+				plan.capMonth(month.points()))).toList();
+	}
+
+	/**
+	 * Splits its spliterator until it is small enough, aggregates the leaves and
+	 * merges them back prefix first, preserving encounter order.
+	 */
+	private static final class AggregateTask extends RecursiveTask<MonthlyBuckets> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Spliterator<Transaction> spliterator;
+
+		private final int leafSize;
+
+		private final RewardPlan plan;
+
+		AggregateTask(Spliterator<Transaction> spliterator, int leafSize, RewardPlan plan) {
+			this.spliterator = spliterator;
+			this.leafSize = leafSize;
+			this.plan = plan;
+		}
+
+		@Override
+		protected MonthlyBuckets compute() {
+			Spliterator<Transaction> prefix;
+			if (spliterator.estimateSize() <= leafSize || (prefix = spliterator.trySplit()) == null) {
+				MonthlyBuckets accumulator = new MonthlyBuckets();
+				spliterator.forEachRemaining(transaction -> accumulator.add(transaction, plan));
+				return accumulator;
+			}
+			AggregateTask left = new AggregateTask(prefix, leafSize, plan);
+			left.fork();
+			MonthlyBuckets right = new AggregateTask(spliterator, leafSize, plan).compute();
+			MonthlyBuckets result = left.join();
+			result.merge(right);
+			return result;
+		}
+	}
+
+	/**
+	 * Reusable counts and points per month in primitive arrays indexed by epoch
+	 * month ({@code year * 12 + month - 1}) relative to {@code base}, plus the
+	 * months in order of first encounter. The window grows as months outside it
+	 * appear; once it covers the data, adding a transaction allocates nothing.
+	 * Instances are not thread-safe.
+	 */
+	public static final class MonthlyBuckets {
+
+		private static final int INITIAL_MONTHS = 16;
+
+		private int base;
+
+		private long[] counts = new long[0];
+
+		private long[] points = new long[0];
+
+		private int[] order = new int[INITIAL_MONTHS];
+
+		private int months;
+
+		private long totalPoints;
+
+		/**
+		 * Adds one transaction with points calculated by a reward plan, boosts
+		 * included. The monthly cap is not applied.
+		 *
+		 * @param transaction transaction with amount and date set
+		 * @param plan        the reward plan
+		 */
+		public void add(Transaction transaction, RewardPlan plan) {
+			LocalDate date = transaction.getDate();
+			add(epochMonth(date), 1, plan.points(transaction.getAmount(), date));
+		}
+
+		/**
+		 * Adds one transaction with an amount in cents, with points calculated by
+		 * a reward plan, boosts included. The monthly cap is not applied.
+		 *
+		 * @param epochMonth  month of the transaction, see {@link RewardEngine#epochMonth}
+		 * @param epochDay    day of the transaction, see {@link LocalDate#toEpochDay()}
+		 * @param amountCents amount of the transaction in cents
+		 * @param plan        the reward plan
+		 */
+		public void addCents(int epochMonth, long epochDay, long amountCents, RewardPlan plan) {
+			add(epochMonth, 1, plan.boost(plan.pointsCents(amountCents), epochDay));
+		}
+
+		/**
+		 * Adds an already aggregated month.
+		 *
+		 * @param epochMonth       the month, see {@link RewardEngine#epochMonth}
+		 * @param transactionCount number of transactions in the month
+		 * @param monthPoints      reward points earned in the month
+		 */
+		public void add(int epochMonth, long transactionCount, long monthPoints) {
+			ensureWindow(epochMonth);
+			int slot = epochMonth - base;
+			if (counts[slot] == 0) {
+				if (months == order.length) {
+					order = Arrays.copyOf(order, months * 2);
+				}
+				order[months++] = epochMonth;
+			}
+			counts[slot] += transactionCount;
+			points[slot] += monthPoints;
+			totalPoints += monthPoints;
+		}
+
+		/**
+		 * Adds every month of another instance after the months of this one.
+		 *
+		 * @param other buckets holding transactions that follow this instance's
+		 */
+		public void merge(MonthlyBuckets other) {
+			for (int i = 0; i < other.months; i++) {
+				int epochMonth = other.order[i];
+				int slot = epochMonth - other.base;
+				add(epochMonth, other.counts[slot], other.points[slot]);
+			}
+		}
+
+		/**
+		 * Empties the buckets, keeping the arrays for reuse.
+		 */
+		public void clear() {
+			for (int i = 0; i < months; i++) {
+				int slot = order[i] - base;
+				counts[slot] = 0;
+				points[slot] = 0;
+			}
+			months = 0;
+			totalPoints = 0;
+		}
+
+		/**
+		 * @return reward points of all months added so far
+		 */
+		public long totalPoints() {
+			return totalPoints;
+		}
+
+		/**
+		 * @return one entry per month, in order of first encounter
+		 */
+		public List<MonthlyPoints> toList() {
+			List<MonthlyPoints> result = new ArrayList<>(months);
+			for (int i = 0; i < months; i++) {
+				int epochMonth = order[i];
+				YearMonth month = YearMonth.of(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1);
+				result.add(new MonthlyPoints(month, counts[epochMonth - base], points[epochMonth - base]));
+			}
+			return result;
+		}
+
+		/**
+		 * Builds the rewards breakdown, merging months of different years by name
+		 * in order of first encounter, as the rewards response always has.
+		 *
+		 * @return points per month name
+		 */
+		public List<MonthlyReward> toBreakdown() {
+			long[] pointsByMonth = new long[12];
+			boolean[] seen = new boolean[12];
+			int[] monthOrder = new int[12];
+			int names = 0;
+			for (int i = 0; i < months; i++) {
+				int monthOfYear = Math.floorMod(order[i], 12);
+				if (!seen[monthOfYear]) {
+					seen[monthOfYear] = true;
+					monthOrder[names++] = monthOfYear;
+				}
+				pointsByMonth[monthOfYear] += points[order[i] - base];
+			}
+			List<MonthlyReward> breakdown = new ArrayList<>(names);
+			for (int i = 0; i < names; i++) {
+				breakdown.add(new MonthlyReward(Month.of(monthOrder[i] + 1).toString(),
+						(int) pointsByMonth[monthOrder[i]]));
+			}
+			return breakdown;
+		}
+
+		/**
+		 * Builds the typed rewards response from the months added so far.
+		 *
+		 * @param customer the customer the transactions belong to
+		 * @return the rewards summary
+		 */
+		public RewardSummary toSummary(CustomerSummary customer) {
+			return new RewardSummary(customer, toBreakdown(), (int) totalPoints);
+		}
+
+		private void ensureWindow(int epochMonth) {
+			if (counts.length == 0) {
+				base = epochMonth;
+				counts = new long[INITIAL_MONTHS];
+				points = new long[INITIAL_MONTHS];
+				return;
+			}
+			int end = base + counts.length;
+			if (epochMonth >= base && epochMonth < end) {
+				return;
+			}
+			int length = Math.max(counts.length * 2, Math.max(end, epochMonth + 1) - Math.min(base, epochMonth));
+			int newBase = epochMonth < base ? end - length : base;
+			long[] newCounts = new long[length];
+			long[] newPoints = new long[length];
+			System.arraycopy(counts, 0, newCounts, base - newBase, counts.length);
+			System.arraycopy(points, 0, newPoints, base - newBase, points.length);
+			base = newBase;
+			counts = newCounts;
+			points = newPoints;
+		}
+	}
+}
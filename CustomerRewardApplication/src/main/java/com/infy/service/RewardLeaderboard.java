@@ -0,0 +1,410 @@
+package com.infy.service;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.datasource.ReplicaRoutingDataSource;
+import com.infy.dto.Leaderboard;
+import com.infy.dto.LeaderboardEntry;
+import com.infy.dto.MonthlyPointsView;
+import com.infy.event.TransactionsRecordedEvent;
+import com.infy.exception.InvalidRequestException;
+import com.infy.model.Transaction;
+import com.infy.repository.MonthlyRewardSummaryRepository;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRules;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Ranks customers by reward points per calendar month and quarter, in memory.
+ *
+ * Every period has a bucket holding each customer's points in a concurrent map
+ * and a {@link ConcurrentSkipListSet} ordered by points, so the top {@code k}
+ * customers are read in O(log n + k) without sorting. Writers update one
+ * customer at a time under that customer's map entry; no lock spans a bucket,
+ * and readers never block. A reader may see a customer's previous points while
+ * an update is in progress.
+ *
+ * The buckets are seeded from the reward ledger on startup and after the
+ * ledger is rebuilt, and updated from every committed
+ * {@link TransactionsRecordedEvent}. Quarters sum the points of their months
+ * after the monthly cap, like a reward calculation over the quarter. Only the
+ * quarters covering the last {@code rewards.leaderboard.retained-months} are
+ * kept.
+ *
+ * A write holds a read lock from before it reaches the ledger until its points
+ * are applied after commit, and a reload takes the write lock while its query
+ * starts. Every write is therefore either in the ledger rows the reload reads
+ * and already applied, or missing from them and applied after the query
+ * started; those are kept until the reload completes and added to the new
+ * buckets before they are swapped in.
+ */
+@Component
+public class RewardLeaderboard {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private static final Pattern QUARTER = Pattern.compile("(\\d{4})-Q([1-4])");
+
+	private final MonthlyRewardSummaryRepository monthlyRewardSummaryRepository;
+
+	private final RewardRules rewardRules;
+
+	private final TransactionTemplate reloadTransaction;
+
+	private final int retainedMonths;
+
+	private final int maxSize;
+
+	private volatile Standings standings;
+
+	// Read by writes from their ledger update until applied, written by reloads
+	// around the start of their query and the swap
+	private final ReentrantReadWriteLock ledgerLock = new ReentrantReadWriteLock();
+
+	private final ReentrantLock reloadLock = new ReentrantLock();
+
+	// Writes applied while a reload reads the ledger; null when no reload runs
+	private volatile Queue<RecordedPoints> pending;
+
+	public RewardLeaderboard(MonthlyRewardSummaryRepository monthlyRewardSummaryRepository, RewardRules rewardRules,
+			PlatformTransactionManager transactionManager,
+			@Value("${rewards.leaderboard.retained-months:24}") int retainedMonths,
+			@Value("${rewards.leaderboard.max-size:1000}") int maxSize) {
+		this.monthlyRewardSummaryRepository = monthlyRewardSummaryRepository;
+		this.rewardRules = rewardRules;
+		this.retainedMonths = retainedMonths;
+		this.maxSize = maxSize;
+		this.standings = new Standings(horizon());
+
+		// Runs from after-commit callbacks, so it must not join the finished transaction
+		this.reloadTransaction = new TransactionTemplate(transactionManager);
+		this.reloadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.reloadTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * Returns the customers with the most points in a period.
+	 *
+	 * @param period {@code month} or {@code quarter} for the current one, or a
+	 *               month as {@code yyyy-MM} or a quarter as {@code yyyy-Qn}
+	 * @param size   number of customers to return, 1 to
+	 *               {@code rewards.leaderboard.max-size}
+	 * @return the top customers, most points first
+	 * @throws InvalidRequestException if the period or size is invalid, or the
+	 *                                 period is no longer retained
+	 */
+	public Leaderboard top(String period, int size) {
+		if (size < 1 || size > maxSize) {
+			throw new InvalidRequestException("Leaderboard size must be between 1 and " + maxSize + ".");
+		}
+		String key = periodKey(period);
+		Standings current = standings;
+		if (firstMonth(key).isBefore(current.horizon.get())) {
+			throw new InvalidRequestException("Leaderboard period " + key + " is no longer retained.");
+		}
+
+		Bucket bucket = current.buckets.get(key);
+		if (bucket == null) {
+			return new Leaderboard(key, 0, List.of());
+		}
+		return new Leaderboard(key, bucket.points.size(), bucket.top(size));
+	}
+
+	/**
+	 * Adds committed transactions to the buckets of their month and quarter.
+	 * Points are grouped by customer and month first, so each customer is
+	 * re-ranked once per bucket however many transactions it recorded. Runs
+	 * before the ledger is updated in the publisher's transaction, and applies
+	 * the points once it commits, capped by the plan the ledger update used.
+	 *
+	 * @param event the transactions that were inserted
+	 */
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onTransactionsRecorded(TransactionsRecordedEvent event) {
+		RewardPlan plan = rewardRules.planForWrite();
+		Map<CustomerMonth, Long> points = new HashMap<>();
+		for (Transaction transaction : event.transactions()) {
+			points.merge(new CustomerMonth(transaction.getCustomer().getCustomerId(),
+					YearMonth.from(transaction.getDate())), (long) plan.points(transaction.getAmount(),
+							transaction.getDate()), Long::sum);
+		}
+
+		Lock lock = ledgerLock.readLock();
+		lock.lock();
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			try {
+				apply(new RecordedPoints(points, plan));
+			} finally {
+				lock.unlock();
+			}
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				try {
+					if (status == STATUS_COMMITTED) {
+						apply(new RecordedPoints(points, plan));
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Replaces the buckets with ones seeded from the reward ledger. Runs on
+	 * startup and after each ledger rebuild, in a transaction of its own on the
+	 * primary database. Writes applied while the ledger is read are added to the
+	 * new buckets before they are swapped in.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void reload() {
+		reloadLock.lock();
+		try {
+			RewardPlan plan = rewardRules.plan();
+			YearMonth horizon = horizon();
+			Standings loaded = new Standings(horizon);
+			long rows = ReplicaRoutingDataSource.onPrimary(() -> reloadTransaction.execute(status -> {
+				Stream<MonthlyPointsView> ledger;
+				ledgerLock.writeLock().lock();
+				try {
+					// The query reads the ledger as of its start
+					ledger = monthlyRewardSummaryRepository.streamFromMonth(horizon.getYear(),
+							horizon.getMonthValue());
+					pending = new ConcurrentLinkedQueue<>();
+				} finally {
+					ledgerLock.writeLock().unlock();
+				}
+				try (ledger) {
+					return ledger.mapToLong(row -> {
+						loaded.add(new CustomerMonth(row.getCustomerId(), YearMonth.of(row.getRewardYear(),
+								row.getRewardMonth())), row.getPoints(), plan);
+						return 1;
+					}).sum();
+				}
+			}));
+
+			ledgerLock.writeLock().lock();
+			try {
+				int replayed = pending.size();
+				loaded.advance(horizon());
+				pending.forEach(write -> write.points().forEach((customerMonth, monthPoints) -> loaded
+						.add(customerMonth, monthPoints, write.plan())));
+				standings = loaded;
+				logger.info("Reward leaderboard loaded from {} ledger rows since {} and {} writes during the load",
+						rows, horizon, replayed);
+			} finally {
+				pending = null;
+				ledgerLock.writeLock().unlock();
+			}
+		} finally {
+			// Stop keeping writes if the reload failed
+			pending = null;
+			reloadLock.unlock();
+		}
+	}
+
+	/**
+	 * Adds a write's points to the current buckets, and keeps them for the new
+	 * buckets of a reload in progress. Called with the read lock held.
+	 */
+	private void apply(RecordedPoints write) {
+		Standings current = standings;
+		current.advance(horizon());
+		write.points().forEach((customerMonth, monthPoints) -> current.add(customerMonth, monthPoints,
+				write.plan()));
+		Queue<RecordedPoints> reloading = pending;
+		if (reloading != null) {
+			reloading.add(write);
+		}
+	}
+
+	/**
+	 * First month of the oldest retained quarter.
+	 */
+	private YearMonth horizon() {
+		YearMonth oldest = YearMonth.now().minusMonths(retainedMonths - 1L);
+		return oldest.minusMonths((oldest.getMonthValue() - 1) % 3);
+	}
+
+	/**
+	 * Resolves {@code month} and {@code quarter} to the current period and
+	 * validates the others.
+	 */
+	private static String periodKey(String period) {
+		if (period.equals("month")) {
+			return YearMonth.now().toString();
+		}
+		if (period.equals("quarter")) {
+			return quarterKey(YearMonth.now());
+		}
+		if (QUARTER.matcher(period).matches()) {
+			return period;
+		}
+		try {
+			return YearMonth.parse(period).toString();
+		} catch (DateTimeParseException e) {
+			throw new InvalidRequestException("Leaderboard period must be month, quarter, yyyy-MM or yyyy-Qn.");
+		}
+	}
+
+	private static YearMonth firstMonth(String key) {
+		Matcher quarter = QUARTER.matcher(key);
+		if (quarter.matches()) {
+			return YearMonth.of(Integer.parseInt(quarter.group(1)), Integer.parseInt(quarter.group(2)) * 3 - 2);
+		}
+		return YearMonth.parse(key);
+	}
+
+	private static String quarterKey(YearMonth month) {
+		return month.getYear() + "-Q" + ((month.getMonthValue() + 2) / 3);
+	}
+
+	private record CustomerMonth(long customerId, YearMonth month) {
+	}
+
+	/**
+	 * The points of one committed write, with the plan that calculated them.
+	 */
+	private record RecordedPoints(Map<CustomerMonth, Long> points, RewardPlan plan) {
+	}
+
+	/**
+	 * The buckets of every retained period, plus each customer's uncapped points
+	 * per month, from which the capped points of months and quarters follow.
+	 */
+	private static final class Standings {
+
+		private final AtomicReference<YearMonth> horizon;
+
+		private final ConcurrentMap<CustomerMonth, Long> monthPoints = new ConcurrentHashMap<>();
+
+		private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+		private Standings(YearMonth horizon) {
+			this.horizon = new AtomicReference<>(horizon);
+		}
+
+		private void add(CustomerMonth customerMonth, long points, RewardPlan plan) {
+			if (points == 0 || customerMonth.month().isBefore(horizon.get())) {
+				return;
+			}
+			long[] cappedDelta = new long[1];
+			monthPoints.compute(customerMonth, (key, before) -> {
+				long previous = before == null ? 0 : before;
+				long after = previous + points;
+				cappedDelta[0] = plan.capMonth(after) - plan.capMonth(previous);
+				return after;
+			});
+			bucket(customerMonth.month().toString()).add(customerMonth.customerId(), cappedDelta[0]);
+			bucket(quarterKey(customerMonth.month())).add(customerMonth.customerId(), cappedDelta[0]);
+		}
+
+		/**
+		 * Drops the periods before a new horizon once a quarter has passed.
+		 */
+		private void advance(YearMonth next) {
+			YearMonth previous = horizon.get();
+			if (next.isAfter(previous) && horizon.compareAndSet(previous, next)) {
+				monthPoints.keySet().removeIf(key -> key.month().isBefore(next));
+				for (YearMonth month = previous; month.isBefore(next); month = month.plusMonths(1)) {
+					buckets.remove(month.toString());
+					buckets.remove(quarterKey(month));
+				}
+			}
+		}
+
+		private Bucket bucket(String key) {
+			return buckets.computeIfAbsent(key, k -> new Bucket());
+		}
+	}
+
+	/**
+	 * Points of every customer in one period, with a ranking kept in step.
+	 */
+	private static final class Bucket {
+
+		private static final Comparator<Standing> RANKING = Comparator.comparingLong(Standing::points).reversed()
+				.thenComparingLong(Standing::customerId);
+
+		private final ConcurrentMap<Long, Long> points = new ConcurrentHashMap<>();
+
+		private final ConcurrentSkipListSet<Standing> ranking = new ConcurrentSkipListSet<>(RANKING);
+
+		/**
+		 * Moves a customer to its new position. The new standing is inserted before
+		 * the old one is removed, so a concurrent reader never misses the customer.
+		 */
+		private void add(long customerId, long delta) {
+			if (delta == 0) {
+				return;
+			}
+			points.compute(customerId, (id, before) -> {
+				long after = (before == null ? 0 : before) + delta;
+				ranking.add(new Standing(id, after));
+				if (before != null) {
+					ranking.remove(new Standing(id, before));
+				}
+				return after;
+			});
+		}
+
+		/**
+		 * Walks the ranking from the top. A customer seen twice is mid-update; its
+		 * first, higher standing is the newer one.
+		 */
+		private List<LeaderboardEntry> top(int size) {
+			List<LeaderboardEntry> entries = new ArrayList<>(size);
+			Set<Long> seen = new HashSet<>();
+			for (Standing standing : ranking) {
+				if (seen.add(standing.customerId())) {
+					entries.add(new LeaderboardEntry(entries.size() + 1, standing.customerId(), standing.points()));
+					if (entries.size() == size) {
+						break;
+					}
+				}
+			}
+			return entries;
+		}
+	}
+
+	private record Standing(long customerId, long points) {
+	}
+}
@@ -0,0 +1,251 @@
+package com.infy.service;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.analytics.MonthlyPointsChange;
+import com.infy.analytics.RewardAnalytics;
+import com.infy.dto.MonthlyPointsView;
+import com.infy.event.RewardRulesChangedEvent;
+import com.infy.event.RewardRulesLoadedEvent;
+import com.infy.event.TransactionsRecordedEvent;
+import com.infy.model.MonthlyRewardSummary;
+import com.infy.model.MonthlyRewardSummaryId;
+import com.infy.model.Transaction;
+import com.infy.repository.MonthlyRewardSummaryRepository;
+import com.infy.repository.TransactionBatchRepository;
+import com.infy.repository.TransactionRepository;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRules;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the monthly reward ledger ({@link MonthlyRewardSummary}) and answers
+ * reward queries from it. Whole months inside a requested range are read from
+ * the ledger; partial months at either edge fall back to aggregating raw
+ * transactions, so the number of rows read does not depend on how many
+ * transactions a customer has.
+ */
+@Component
+public class RewardLedger {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private static final Comparator<MonthlyRewardSummaryId> KEY_ORDER = Comparator
+			.comparing(MonthlyRewardSummaryId::getCustomerId).thenComparing(MonthlyRewardSummaryId::getRewardYear)
+			.thenComparing(MonthlyRewardSummaryId::getRewardMonth);
+
+	@Autowired
+	private TransactionBatchRepository transactionBatchRepository;
+
+	@Autowired
+	private MonthlyRewardSummaryRepository monthlyRewardSummaryRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private RewardsCache rewardsCache;
+
+	@Autowired
+	private RewardRules rewardRules;
+
+	@Autowired
+	private RewardLeaderboard rewardLeaderboard;
+
+	@Autowired
+	private RewardAnalytics rewardAnalytics;
+
+	@Value("${rewards.ingestion.batch-size:1000}")
+	private int batchSize;
+
+	/**
+	 * Adds newly recorded transactions to the ledger. Runs synchronously in the
+	 * publisher's database transaction, so the ledger commits or rolls back
+	 * together with the transactions themselves.
+	 *
+	 * @param event the transactions that were inserted
+	 */
+	@EventListener
+	public void onTransactionsRecorded(TransactionsRecordedEvent event) {
+		record(event.transactions());
+	}
+
+	/**
+	 * Groups transactions by customer and month and adds each group to its
+	 * summary row, with points calculated by the plan of the current write,
+	 * which no replacement can change until the write has committed. Rows are
+	 * written in key order so concurrent writers lock them in the same sequence,
+	 * and read back while still locked, so the analytics move each customer's
+	 * month from its exact previous total to the new one.
+	 *
+	 * @param transactions persisted transactions with IDs and customers set
+	 */
+	public void record(List<Transaction> transactions) {
+		if (transactions.isEmpty()) {
+			return;
+		}
+		RewardPlan plan = rewardRules.planForWrite();
+		Map<MonthlyRewardSummaryId, MonthlyRewardSummary> deltas = new TreeMap<>(KEY_ORDER);
+		for (Transaction transaction : transactions) {
+			LocalDate date = transaction.getDate();
+			MonthlyRewardSummaryId key = new MonthlyRewardSummaryId(transaction.getCustomer().getCustomerId(),
+					date.getYear(), date.getMonthValue());
+			MonthlyRewardSummary delta = deltas.computeIfAbsent(key, k -> new MonthlyRewardSummary(k.getCustomerId(),
+					k.getRewardYear(), k.getRewardMonth(), 0L, 0d, 0L, transaction.getTransactionId()));
+
+			delta.setTransactionCount(delta.getTransactionCount() + 1);
+			delta.setAmountSum(delta.getAmountSum() + transaction.getAmount());
+			delta.setPoints(delta.getPoints() + plan.points(transaction.getAmount(), date));
+			delta.setFirstTransactionId(Math.min(delta.getFirstTransactionId(), transaction.getTransactionId()));
+		}
+		transactionBatchRepository.upsertMonthlySummaries(new ArrayList<>(deltas.values()), batchSize);
+		Map<MonthlyRewardSummaryId, MonthlyRewardSummary> totals = transactionBatchRepository
+				.findMonthlyTotals(deltas.keySet(), batchSize);
+		List<MonthlyPointsChange> changes = new ArrayList<>(deltas.size());
+		deltas.forEach((key, delta) -> {
+			MonthlyRewardSummary total = totals.get(key);
+			boolean existed = total.getTransactionCount() > delta.getTransactionCount();
+			changes.add(new MonthlyPointsChange(key.getCustomerId(), YearMonth.of(key.getRewardYear(),
+					key.getRewardMonth()), existed ? total.getPoints() - delta.getPoints() : null, total.getPoints()));
+		});
+		rewardAnalytics.record(transactions, changes, plan);
+		logger.debug("Ledger updated with {} transactions in {} months", transactions.size(), deltas.size());
+	}
+
+	/**
+	 * Returns per-month reward points for customers within a date range, ordered
+	 * by each month's first transaction. Issues at most three queries regardless
+	 * of how many customers are requested. Points are not capped; the monthly
+	 * cap of the plan applies to each returned row.
+	 *
+	 * @param customerIds the IDs of the customers
+	 * @param startDate   the start date (inclusive)
+	 * @param endDate     the end date (inclusive)
+	 * @return one row per customer and (year, month) that has at least one
+	 *         transaction
+	 */
+	@Transactional(readOnly = true)
+	public List<MonthlyPointsView> findMonthlyPoints(Collection<Long> customerIds, LocalDate startDate,
+			LocalDate endDate) {
+		YearMonth firstFullMonth = YearMonth.from(startDate);
+		if (startDate.getDayOfMonth() != 1) {
+			firstFullMonth = firstFullMonth.plusMonths(1);
+		}
+		YearMonth lastFullMonth = YearMonth.from(endDate);
+		if (!endDate.equals(lastFullMonth.atEndOfMonth())) {
+			lastFullMonth = lastFullMonth.minusMonths(1);
+		}
+
+		RewardPlan plan = rewardRules.plan();
+		if (firstFullMonth.isAfter(lastFullMonth)) {
+			return transactionRepository.aggregateMonthlyPoints(customerIds, startDate, endDate, plan);
+		}
+
+		List<MonthlyPointsView> rows = new ArrayList<>(monthlyRewardSummaryRepository.findByCustomerIdsAndMonthRange(
+				customerIds, firstFullMonth.getYear(), firstFullMonth.getMonthValue(), lastFullMonth.getYear(),
+				lastFullMonth.getMonthValue()));
+
+		LocalDate ledgerStart = firstFullMonth.atDay(1);
+		if (startDate.isBefore(ledgerStart)) {
+			rows.addAll(transactionRepository.aggregateMonthlyPoints(customerIds, startDate, ledgerStart.minusDays(1),
+					plan));
+		}
+		LocalDate ledgerEnd = lastFullMonth.atEndOfMonth();
+		if (endDate.isAfter(ledgerEnd)) {
+			rows.addAll(
+					transactionRepository.aggregateMonthlyPoints(customerIds, ledgerEnd.plusDays(1), endDate, plan));
+		}
+
+		rows.sort(Comparator.comparing(MonthlyPointsView::getFirstTransactionId));
+		return rows;
+	}
+
+	/**
+	 * Recomputes the ledger from the transaction table with the stored reward
+	 * plan, locked like a replacement so that no write is in progress
+	 * meanwhile. Use after transactions were written or deleted outside the
+	 * application's write paths. Cached reward responses are dropped, and the
+	 * leaderboard and points analytics reloaded, once the rebuild commits.
+	 *
+	 * @return number of summary rows written
+	 */
+	@Transactional
+	public int rebuild() {
+		return rebuild(rewardRules.planForRebuild());
+	}
+
+	/**
+	 * Recomputes the ledger after the reward rules were replaced, so stored
+	 * points follow the new plan. Runs in the transaction that puts the plan
+	 * into effect; a failure rolls both back.
+	 *
+	 * @param event the rules change
+	 */
+	@EventListener
+	@Transactional
+	public void onRewardRulesChanged(RewardRulesChangedEvent event) {
+		logger.info("Reward rules changed, rebuilding ledger");
+		rebuild(event.plan());
+	}
+
+	/**
+	 * Drops cached reward responses and reloads the leaderboard and points
+	 * analytics after another instance replaced the rules. It rebuilt the
+	 * shared ledger under them before they were stored.
+	 *
+	 * @param event the rules loaded
+	 */
+	@EventListener
+	public void onRewardRulesLoaded(RewardRulesLoadedEvent event) {
+		reloadDerived();
+	}
+
+	private int rebuild(RewardPlan plan) {
+		int rows = transactionBatchRepository.rebuildMonthlySummaries(plan);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				reloadDerived();
+			}
+		});
+		logger.info("Reward ledger rebuilt with {} monthly summaries", rows);
+		return rows;
+	}
+
+	private void reloadDerived() {
+		rewardsCache.invalidateAll();
+		rewardLeaderboard.reload();
+		rewardAnalytics.reloadPoints();
+	}
+
+	/**
+	 * Backfills the ledger on startup when it is empty but transactions already
+	 * exist, e.g. on the first start after the ledger table was introduced.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional
+	public void backfillIfEmpty() {
+		if (monthlyRewardSummaryRepository.count() == 0 && transactionRepository.count() > 0) {
+			logger.info("Reward ledger is empty, rebuilding from transactions");
+			rebuild();
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package com.infy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.infy.CustomerRewardsApplication;
+import com.infy.dto.RewardSummary;
+import com.infy.event.TransactionsRecordedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-process cache of reward responses keyed by (customerId, startDate,
+ * endDate). Entries are evicted by size and age, and no entry of a customer is
+ * served once a write touching that customer commits.
+ *
+ * Each customer hashes to a stripe whose counter, its write generation, is
+ * bumped when a write commits. A response is stored with the generation read
+ * before the data it was computed from, and only served while its stripe is
+ * still at that generation. A computation that overlaps a write therefore never
+ * serves its result, however its store interleaves with the invalidation, and
+ * invalidating costs one increment per customer rather than a scan of the
+ * cache. Stale entries are removed when next looked up, or evicted. Customers
+ * sharing a stripe invalidate each other's entries, so there are enough stripes
+ * to make that rare.
+ */
+@Component
+public class RewardsCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private static final int STRIPES = 1 << 16;
+
+	private final Cache<Key, Entry> cache;
+
+	private final AtomicLongArray writeGenerations = new AtomicLongArray(STRIPES);
+
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public RewardsCache(@Value("${rewards.cache.maximum-size:10000}") long maximumSize,
+			@Value("${rewards.cache.ttl:10m}") Duration ttl, MeterRegistry meterRegistry) {
+		this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "rewards");
+		meterRegistry.more().counter("rewards.cache.invalidations", Tags.empty(), invalidations);
+	}
+
+	/**
+	 * Returns the cached response for the key, or computes and caches it.
+	 * Summaries are immutable, so one instance is shared by every caller.
+	 *
+	 * @param customerId customer ID
+	 * @param startDate  start date
+	 * @param endDate    end date
+	 * @param loader     computes the response on a miss
+	 * @return the rewards response
+	 */
+	public RewardSummary get(Long customerId, LocalDate startDate, LocalDate endDate,
+			Supplier<RewardSummary> loader) {
+		RewardSummary cached = getIfPresent(customerId, startDate, endDate);
+		if (cached != null) {
+			return cached;
+		}
+
+		long generation = generation(customerId);
+		RewardSummary response = loader.get();
+		put(customerId, startDate, endDate, generation, response);
+		return response;
+	}
+
+	/**
+	 * Returns the cached response for the key, if present and no write for the
+	 * customer committed since it was computed.
+	 *
+	 * @param customerId customer ID
+	 * @param startDate  start date
+	 * @param endDate    end date
+	 * @return the cached response, or null on a miss
+	 */
+	public RewardSummary getIfPresent(Long customerId, LocalDate startDate, LocalDate endDate) {
+		Key key = new Key(customerId, startDate, endDate);
+		Entry stale = cache.policy().getIfPresentQuietly(key);
+		if (stale != null && stale.generation() != generation(customerId)) {
+			// Removed first so that the lookup below counts a miss
+			cache.asMap().remove(key, stale);
+		}
+		Entry entry = cache.getIfPresent(key);
+		return entry != null && entry.generation() == generation(customerId) ? entry.response() : null;
+	}
+
+	/**
+	 * Returns the write generation of a customer. Take it before reading the data
+	 * a response is computed from and pass it to {@link #put}.
+	 *
+	 * @param customerId customer ID
+	 * @return the current write generation of the customer's stripe
+	 */
+	public long generation(Long customerId) {
+		return writeGenerations.get(stripe(customerId));
+	}
+
+	/**
+	 * Caches a response. It is only served while no write for the customer has
+	 * committed since the given generation was read, including writes that
+	 * commit after this call.
+	 *
+	 * @param customerId customer ID
+	 * @param startDate  start date
+	 * @param endDate    end date
+	 * @param generation the generation read before computing the response
+	 * @param response   the computed response
+	 */
+	public void put(Long customerId, LocalDate startDate, LocalDate endDate, long generation,
+			RewardSummary response) {
+		cache.put(new Key(customerId, startDate, endDate), new Entry(response, generation));
+	}
+
+	/**
+	 * Drops the cached responses of customers whose transactions were written,
+	 * once the writing transaction has committed.
+	 *
+	 * @param event the transactions that were inserted
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onTransactionsRecorded(TransactionsRecordedEvent event) {
+		invalidate(event.transactions().stream().map(t -> t.getCustomer().getCustomerId())
+				.collect(Collectors.toSet()));
+	}
+
+	/**
+	 * Stops serving every cached response of the given customers, by moving
+	 * their stripes to a new generation.
+	 *
+	 * @param customerIds IDs of the customers whose data changed
+	 */
+	public void invalidate(Collection<Long> customerIds) {
+		if (customerIds.isEmpty()) {
+			return;
+		}
+		Set<Long> ids = Set.copyOf(customerIds);
+		ids.forEach(id -> writeGenerations.incrementAndGet(stripe(id)));
+		invalidations.addAndGet(ids.size());
+		logger.debug("Invalidated cached rewards of {} customers", ids.size());
+	}
+
+	/**
+	 * Drops every cached response, e.g. after the reward ledger was rebuilt.
+	 */
+	public void invalidateAll() {
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			writeGenerations.incrementAndGet(stripe);
+		}
+		cache.invalidateAll();
+		logger.debug("Invalidated all cached rewards");
+	}
+
+	/**
+	 * Returns hit, miss and eviction statistics of the cache.
+	 *
+	 * @return statistics keyed by name
+	 */
+	public Map<String, Object> stats() {
+		CacheStats stats = cache.stats();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("size", cache.estimatedSize());
+		result.put("hits", stats.hitCount());
+		result.put("misses", stats.missCount());
+		result.put("hitRate", stats.hitRate());
+		result.put("evictions", stats.evictionCount());
+		result.put("invalidations", invalidations.get());
+		return result;
+	}
+
+	private static int stripe(Long customerId) {
+		return Long.hashCode(customerId) & (STRIPES - 1);
+	}
+
+	private record Key(Long customerId, LocalDate startDate, LocalDate endDate) {
+	}
+
+	private record Entry(RewardSummary response, long generation) {
+	}
+}
@@ -0,0 +1,24 @@
+package com.infy.service;
+
+import com.infy.dto.ExportFormat;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Interface for exporting reward totals of the whole customer base.
+ */
+public interface RewardsExportService {
+
+	/**
+	 * Write the reward total of every customer with transactions in the date
+	 * range to the output stream, one record per customer.
+	 *
+	 * @param startDate start date
+	 * @param endDate   end date
+	 * @param format    the record format
+	 * @param output    the stream the records are written to
+	 * @return number of customers exported
+	 */
+	long exportRewards(LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream output);
+}
@@ -0,0 +1,143 @@
+package com.infy.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.infy.CustomerRewardsApplication;
+import com.infy.dto.ExportFormat;
+import com.infy.dto.RewardExportRecord;
+import com.infy.dto.TransactionExportRow;
+import com.infy.exception.InvalidRequestException;
+import com.infy.repository.TransactionRepository;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRules;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link RewardsExportService}. Reads transactions ordered by
+ * customer and date through a forward-only cursor and writes each customer's
+ * total as soon as the cursor moves past that customer, so only one customer is
+ * held in memory at a time.
+ */
+@Service
+public class RewardsExportServiceImpl implements RewardsExportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+	private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private RewardRules rewardRules;
+
+	/**
+	 * Streams the reward totals of the date range in the requested format. Points
+	 * are calculated per transaction and capped per month with the reward plan
+	 * in effect, as for a single customer.
+	 *
+	 * @param startDate start date of the export period
+	 * @param endDate   end date of the export period
+	 * @param format    the record format
+	 * @param output    the stream the records are written to; flushed, not
+	 *                  closed
+	 * @return number of customers exported
+	 * @throws InvalidRequestException if input values are null or invalid
+	 * @throws UncheckedIOException    if writing to the output fails
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long exportRewards(LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream output) {
+		if (startDate == null || endDate == null) {
+			throw new InvalidRequestException("Start date and end date cannot be null.");
+		}
+
+		if (startDate.isAfter(endDate)) {
+			throw new InvalidRequestException("Start date cannot be after end date.");
+		}
+
+		logger.info("Exporting rewards from {} to {} as {}", startDate, endDate, format);
+		RewardPlan plan = rewardRules.plan();
+		long start = System.nanoTime();
+		long customers = 0;
+
+		OutputStream buffered = new BufferedOutputStream(output, OUTPUT_BUFFER_SIZE);
+		try (Stream<TransactionExportRow> rows = transactionRepository.streamForExport(startDate, endDate);
+				SequenceWriter writer = recordWriter(format, buffered)) {
+			Iterator<TransactionExportRow> iterator = rows.iterator();
+			RewardExportRecord current = null;
+			int currentMonth = 0;
+			long monthPoints = 0;
+			while (iterator.hasNext()) {
+				TransactionExportRow row = iterator.next();
+				int month = RewardEngine.epochMonth(row.getDate());
+				if (current == null || !current.getCustomerId().equals(row.getCustomerId())) {
+					if (current != null) {
+						current.setTotalPoints(current.getTotalPoints() + plan.capMonth(monthPoints));
+						writer.write(current);
+						customers++;
+					}
+					current = new RewardExportRecord(row.getCustomerId(), row.getCustomerName(), 0, 0);
+					currentMonth = month;
+					monthPoints = 0;
+				} else if (month != currentMonth) {
+					current.setTotalPoints(current.getTotalPoints() + plan.capMonth(monthPoints));
+					currentMonth = month;
+					monthPoints = 0;
+				}
+				current.setTransactionCount(current.getTransactionCount() + 1);
+				monthPoints += plan.points(row.getAmount(), row.getDate());
+			}
+			if (current != null) {
+				current.setTotalPoints(current.getTotalPoints() + plan.capMonth(monthPoints));
+				writer.write(current);
+				customers++;
+			}
+			writer.flush();
+			if (format == ExportFormat.NDJSON && customers > 0) {
+				buffered.write('\n');
+			}
+			buffered.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		logger.info("Rewards export completed: {} customers in {} ms", customers,
+				(System.nanoTime() - start) / 1_000_000);
+		return customers;
+	}
+
+	/**
+	 * Creates a writer for export records that leaves the target stream open, so
+	 * the caller stays in charge of the response.
+	 */
+	private SequenceWriter recordWriter(ExportFormat format, OutputStream output) throws IOException {
+		if (format == ExportFormat.CSV) {
+			return CSV_MAPPER.writerFor(RewardExportRecord.class)
+					.with(CSV_MAPPER.schemaFor(RewardExportRecord.class).withHeader())
+					.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(output);
+		}
+		return objectMapper.writerFor(RewardExportRecord.class).withRootValueSeparator("\n")
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(output);
+	}
+}
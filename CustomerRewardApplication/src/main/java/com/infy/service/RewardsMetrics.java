@@ -0,0 +1,116 @@
+package com.infy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters of the rewards hot paths. Each operation is timed as a
+ * whole ({@code rewards.operation}) and per phase ({@code rewards.phase}), so
+ * the phase driving tail latency can be read from the percentile histograms
+ * exported through Actuator.
+ */
+@Component
+public class RewardsMetrics {
+
+	public static final String CALCULATE_REWARDS = "calculateRewards";
+
+	public static final String CALCULATE_REWARDS_BATCH = "calculateRewardsBatch";
+
+	public static final String SAVE_CUSTOMER = "saveCustomer";
+
+	public static final String TRANSACTION_HISTORY = "transactionHistory";
+
+	public static final String PHASE_VALIDATION = "validation";
+
+	public static final String PHASE_QUERY = "query";
+
+	public static final String PHASE_AGGREGATION = "aggregation";
+
+	public static final String PHASE_CUSTOMER_LOOKUP = "customer_lookup";
+
+	public static final String PHASE_PERSIST = "persist";
+
+	public static final String PHASE_LEDGER = "ledger";
+
+	private final MeterRegistry meterRegistry;
+
+	private final DistributionSummary transactionsScanned;
+
+	public RewardsMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.transactionsScanned = DistributionSummary.builder("rewards.transactions.scanned")
+				.description("Transactions covered by the reward queries of one request").register(meterRegistry);
+	}
+
+	/**
+	 * Runs an operation and records its duration, tagged with whether it
+	 * completed or threw.
+	 *
+	 * @param operation the operation name
+	 * @param action    the operation
+	 * @return the result of the operation
+	 */
+	public <T> T timeOperation(String operation, Supplier<T> action) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "error";
+		try {
+			T result = action.get();
+			outcome = "success";
+			return result;
+		} finally {
+			sample.stop(Timer.builder("rewards.operation").description("Duration of rewards operations")
+					.tag("operation", operation).tag("outcome", outcome).register(meterRegistry));
+		}
+	}
+
+	/**
+	 * Runs one phase of an operation and records its duration.
+	 *
+	 * @param operation the operation name
+	 * @param phase     the phase name
+	 * @param action    the phase
+	 * @return the result of the phase
+	 */
+	public <T> T timePhase(String operation, String phase, Supplier<T> action) {
+		return phaseTimer(operation, phase).record(action);
+	}
+
+	/**
+	 * Runs one phase of an operation and records its duration.
+	 *
+	 * @param operation the operation name
+	 * @param phase     the phase name
+	 * @param action    the phase
+	 */
+	public void timePhase(String operation, String phase, Runnable action) {
+		phaseTimer(operation, phase).record(action);
+	}
+
+	/**
+	 * @param count transactions covered by the queries of one request
+	 */
+	public void recordTransactionsScanned(long count) {
+		transactionsScanned.record(count);
+	}
+
+	/**
+	 * Counts an exception returned to a client.
+	 *
+	 * @param exception the handled exception
+	 */
+	public void recordException(Throwable exception) {
+		Counter.builder("rewards.exceptions").description("Exceptions handled by the REST layer")
+				.tag("type", exception.getClass().getSimpleName()).register(meterRegistry).increment();
+	}
+
+	private Timer phaseTimer(String operation, String phase) {
+		return Timer.builder("rewards.phase").description("Duration of the phases of rewards operations")
+				.tag("operation", operation).tag("phase", phase).register(meterRegistry);
+	}
+}
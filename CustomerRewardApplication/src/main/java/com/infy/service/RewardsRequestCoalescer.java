@@ -0,0 +1,134 @@
+package com.infy.service;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.dto.RewardSummary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calculates rewards off the request thread and coalesces identical requests.
+ * While a calculation for (customerId, startDate, endDate) is in flight, further
+ * requests for the same key wait for it instead of running their own, so a
+ * burst of identical cache misses costs one calculation and one set of queries.
+ *
+ * A request only joins a calculation that started after the last write for
+ * the customer committed, as tracked by {@link RewardsCache#generation}, so
+ * coalescing never returns data older than the request. Every caller gets its
+ * own copy of the computed summary.
+ */
+@Component
+public class RewardsRequestCoalescer {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private final RewardsService rewardsService;
+
+	private final RewardsCache rewardsCache;
+
+	private final Executor executor;
+
+	private final Map<Key, InFlight> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong calculations = new AtomicLong();
+
+	private final AtomicLong coalesced = new AtomicLong();
+
+	public RewardsRequestCoalescer(RewardsService rewardsService, RewardsCache rewardsCache,
+			@Qualifier("applicationTaskExecutor") Executor executor, MeterRegistry meterRegistry) {
+		this.rewardsService = rewardsService;
+		this.rewardsCache = rewardsCache;
+		this.executor = executor;
+		meterRegistry.more().counter("rewards.coalescing.requests", Tags.empty(), requests);
+		meterRegistry.more().counter("rewards.coalescing.calculations", Tags.empty(), calculations);
+		meterRegistry.more().counter("rewards.coalescing.coalesced", Tags.empty(), coalesced);
+		meterRegistry.gauge("rewards.coalescing.inflight", inFlight, Map::size);
+	}
+
+	/**
+	 * Calculates the rewards summary of a customer on the application task
+	 * executor, joining an identical calculation already in flight.
+	 *
+	 * @param customerId customer ID
+	 * @param startDate  start date
+	 * @param endDate    end date
+	 * @return a future of this caller's own, completed with the summary shared
+	 *         by every joined caller, or
+	 *         exceptionally with the exception thrown by
+	 *         {@link RewardsService#calculateRewardSummary}
+	 */
+	public CompletableFuture<RewardSummary> calculateRewardSummary(Long customerId, LocalDate startDate,
+			LocalDate endDate) {
+		requests.incrementAndGet();
+		Key key = new Key(customerId, startDate, endDate);
+		long generation = rewardsCache.generation(customerId);
+		InFlight candidate = new InFlight(generation, new CompletableFuture<>());
+		InFlight current = inFlight.merge(key, candidate,
+				(existing, created) -> existing.generation() >= generation ? existing : created);
+
+		if (current != candidate) {
+			coalesced.incrementAndGet();
+			logger.debug("Joined in-flight reward calculation for customer : {}", customerId);
+			return current.result().copy();
+		}
+
+		calculations.incrementAndGet();
+		try {
+			executor.execute(() -> calculate(key, candidate));
+		} catch (RuntimeException ex) {
+			inFlight.remove(key, candidate);
+			candidate.result().completeExceptionally(ex);
+		}
+		return candidate.result().copy();
+	}
+
+	/**
+	 * Returns request, calculation and coalescing counts.
+	 *
+	 * @return statistics keyed by name
+	 */
+	public Map<String, Object> stats() {
+		long total = requests.get();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("requests", total);
+		result.put("calculations", calculations.get());
+		result.put("coalesced", coalesced.get());
+		result.put("coalescedRate", total == 0 ? 0d : (double) coalesced.get() / total);
+		result.put("inFlight", inFlight.size());
+		return result;
+	}
+
+	private void calculate(Key key, InFlight entry) {
+		RewardSummary summary;
+		try {
+			summary = rewardsService.calculateRewardSummary(key.customerId(), key.startDate(), key.endDate());
+		} catch (Throwable ex) {
+			inFlight.remove(key, entry);
+			entry.result().completeExceptionally(ex);
+			return;
+		}
+		inFlight.remove(key, entry);
+		entry.result().complete(summary);
+	}
+
+	private record Key(Long customerId, LocalDate startDate, LocalDate endDate) {
+	}
+
+	private record InFlight(long generation, CompletableFuture<RewardSummary> result) {
+	}
+}
@@ -1,8 +1,10 @@
 package com.infy.service;
 
+import com.infy.dto.RewardSummary;
 import com.infy.model.Customer;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,4 +29,26 @@ public interface RewardsService {
 	 * @return rewards summary
 	 */
 	Map<String, Object> calculateRewards(Long customerId, LocalDate startDate, LocalDate endDate);
-}
\ No newline at end of file
+
+	/**
+	 * Calculate rewards for a customer within a date range as a typed summary.
+	 *
+	 * @param customerId customer ID
+	 * @param startDate  start date
+	 * @param endDate    end date
+	 * @return rewards summary
+	 */
+	RewardSummary calculateRewardSummary(Long customerId, LocalDate startDate, LocalDate endDate);
+
+	/**
+	 * Calculate rewards for many customers within one date range.
+	 *
+	 * @param customerIds customer IDs
+	 * @param startDate   start date
+	 * @param endDate     end date
+	 * @return rewards summary per customer ID; customers without transactions in
+	 *         the range get an error entry instead
+	 */
+	Map<Long, Map<String, Object>> calculateRewardsBatch(List<Long> customerIds, LocalDate startDate,
+			LocalDate endDate);
+}
@@ -1,6 +1,12 @@
 package com.infy.service;
 
 import com.infy.CustomerRewardsApplication;
+import com.infy.datasource.ReadYourWritesTracker;
+import com.infy.dto.CustomerSummary;
+import com.infy.dto.MonthlyPointsView;
+import com.infy.dto.RewardSummary;
+import com.infy.event.TransactionsRecordedEvent;
+import com.infy.event.TransactionsRecordingEvent;
 import com.infy.exception.CustomerNotFoundException;
 import com.infy.exception.InvalidDateFormatException;
 import com.infy.exception.InvalidRequestException;
@@ -8,17 +14,26 @@ import com.infy.model.Customer;
 import com.infy.model.Transaction;
 import com.infy.repository.CustomerRepository;
 import com.infy.repository.TransactionRepository;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRules;
 
 import org.slf4j.Logger;
 
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.infy.service.RewardsMetrics.*;
+
 /**
  * Implementation of {@link RewardsService}. Handles business logic for customer
  * reward management.
@@ -34,40 +49,99 @@ public class RewardsServiceImpl implements RewardsService {
 	@Autowired
 	private TransactionRepository transactionRepository;
 
+	@Autowired
+	private RewardLedger rewardLedger;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private RewardsCache rewardsCache;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private RewardsMetrics rewardsMetrics;
+
+	@Autowired
+	private RewardRules rewardRules;
+
+	@Autowired
+	private TransactionDeduplicator transactionDeduplicator;
+
+	@Autowired
+	private ReadYourWritesTracker readYourWritesTracker;
+
+	@Autowired
+	private CustomerWriteLocks customerWriteLocks;
+
+	@Value("${rewards.batch.chunk-size:500}")
+	private int batchChunkSize;
+
+	@Value("${rewards.batch.max-customers:10000}")
+	private int maxBatchCustomers;
+
 	/**
 	 * Saves a customer and all associated transactions after validation.
+	 * Transactions whose external ID was already recorded are skipped; if they
+	 * belong to an existing customer, the request is a retry and only the new
+	 * transactions are added to that customer, under that customer's write lock.
 	 *
 	 * @param customer the customer object including transaction list
 	 * @return the persisted customer entity
 	 * @throws InvalidDateFormatException if any transaction date is null
 	 * @throws InvalidRequestException    if any transaction amount is zero or
-	 *                                    negative
+	 *                                    negative, or the external IDs belong to
+	 *                                    more than one customer
 	 */
 
 	@Override
+	@Transactional
 	public Customer saveCustomer(Customer customer) {
 		logger.info("Saving Customer: {}", customer.getCustomerName());
 
-		for (Transaction transaction : customer.getTransaction()) {
-			if (transaction.getDate() == null) {
-				logger.warn("Transaction date is null");
-				throw new InvalidDateFormatException("Transaction date cannot be null.");
-			}
-			if (transaction.getAmount() <= 0) {
-				logger.warn("Invalid transaction amount: {}", transaction.getAmount());
-				throw new InvalidRequestException("Transaction amount must be greater than zero.");
+		return rewardsMetrics.timeOperation(SAVE_CUSTOMER, () -> {
+			TransactionDeduplicator.Partition partition = rewardsMetrics.timePhase(SAVE_CUSTOMER, PHASE_VALIDATION,
+					() -> {
+						customer.getTransaction().forEach(TransactionValidator::validate);
+						return transactionDeduplicator.partition(customer.getTransaction());
+					});
+
+			Long ownerId = partition.ownerOf(customer.getTransaction());
+			List<Transaction> accepted;
+			if (ownerId == null) {
+				accepted = partition.accepted();
+			} else {
+				// A new customer cannot be written by anyone else before it commits
+				customerWriteLocks.lockUntilCompletion(List.of(ownerId));
+				accepted = transactionDeduplicator.recheck(partition).accepted();
 			}
-		}
 
-		Customer savedCustomer = customerRepository.save(customer);
+			eventPublisher.publishEvent(new TransactionsRecordingEvent());
+			Customer savedCustomer = rewardsMetrics.timePhase(SAVE_CUSTOMER, PHASE_PERSIST, () -> {
+				Customer saved;
+				if (ownerId == null) {
+					customer.setTransaction(accepted);
+					saved = customerRepository.save(customer);
+				} else {
+					logger.info("Transactions already recorded for customer ID: {}", ownerId);
+					saved = customerRepository.findById(ownerId)
+							.orElseThrow(() -> new CustomerNotFoundException("Customer not found for ID: " + ownerId));
+				}
+				accepted.forEach(transaction -> {
+					transaction.setCustomer(saved);
+					transactionRepository.save(transaction);
+				});
+				return saved;
+			});
 
-		customer.getTransaction().forEach(transaction -> {
-			transaction.setCustomer(savedCustomer);
-			transactionRepository.save(transaction);
-		});
+			rewardsMetrics.timePhase(SAVE_CUSTOMER, PHASE_LEDGER,
+					() -> eventPublisher.publishEvent(new TransactionsRecordedEvent(accepted)));
 
-		logger.info("Customer saved successfully with ID: {}", savedCustomer.getCustomerId());
-		return savedCustomer;
+			logger.info("Customer saved successfully with ID: {}", savedCustomer.getCustomerId());
+			return savedCustomer;
+		});
 	}
 
 	/**
@@ -85,63 +159,209 @@ public class RewardsServiceImpl implements RewardsService {
 
 	@Override
 	public Map<String, Object> calculateRewards(Long customerId, LocalDate startDate, LocalDate endDate) {
+		return calculateRewardSummary(customerId, startDate, endDate).toMap();
+	}
+
+	/**
+	 * Calculates the typed rewards summary for a given customer within the
+	 * provided date range. Responses are served from {@link RewardsCache} when the
+	 * same range was computed before and no write for the customer has committed
+	 * since. Misses are computed on a replica unless the customer was written
+	 * within the read-your-writes window.
+	 *
+	 * @param customerId the ID of the customer
+	 * @param startDate  the start date of the reward calculation window
+	 * @param endDate    the end date of the reward calculation window
+	 * @return the customer, rewards breakdown per month and total rewards
+	 * @throws InvalidRequestException   if input values are null or invalid
+	 * @throws CustomerNotFoundException if no transactions found for the customer
+	 *                                   in the range
+	 */
+	@Override
+	public RewardSummary calculateRewardSummary(Long customerId, LocalDate startDate, LocalDate endDate) {
 		logger.info("Calculating rewards for customer ID: {}", customerId);
 
-		if (customerId == null || customerId <= 0) {
-			throw new InvalidRequestException("Customer ID must be a positive number.");
-		}
+		return rewardsMetrics.timeOperation(CALCULATE_REWARDS, () -> {
+			rewardsMetrics.timePhase(CALCULATE_REWARDS, PHASE_VALIDATION, () -> {
+				if (customerId == null || customerId <= 0) {
+					throw new InvalidRequestException("Customer ID must be a positive number.");
+				}
+				validateDateRange(startDate, endDate);
+			});
 
-		if (startDate == null || endDate == null) {
-			throw new InvalidRequestException("Start date and end date cannot be null.");
+			return rewardsCache.get(customerId, startDate, endDate,
+					() -> readYourWritesTracker.read(List.of(customerId), () -> readOnlyTransaction()
+							.execute(status -> computeRewards(customerId, startDate, endDate))));
+		});
+	}
+
+	/**
+	 * Calculates rewards for many customers over one date range. Cached responses
+	 * are used where available; the remaining customers are processed in chunks
+	 * of {@code rewards.batch.chunk-size}, each chunk costing a fixed number of
+	 * queries independent of its size.
+	 *
+	 * @param customerIds IDs of the customers, duplicates are ignored
+	 * @param startDate   the start date of the reward calculation window
+	 * @param endDate     the end date of the reward calculation window
+	 * @return the rewards response per customer ID, in request order; customers
+	 *         without transactions in the range get an error entry
+	 * @throws InvalidRequestException if input values are null or invalid
+	 */
+	@Override
+	public Map<Long, Map<String, Object>> calculateRewardsBatch(List<Long> customerIds, LocalDate startDate,
+			LocalDate endDate) {
+		logger.info("Calculating batch rewards for {} customers", customerIds == null ? 0 : customerIds.size());
+
+		return rewardsMetrics.timeOperation(CALCULATE_REWARDS_BATCH, () -> {
+			rewardsMetrics.timePhase(CALCULATE_REWARDS_BATCH, PHASE_VALIDATION, () -> {
+				if (customerIds == null || customerIds.isEmpty()) {
+					throw new InvalidRequestException("Customer ID list cannot be empty.");
+				}
+
+				if (customerIds.size() > maxBatchCustomers) {
+					throw new InvalidRequestException(
+							"At most " + maxBatchCustomers + " customers can be requested at once.");
+				}
+
+				if (customerIds.stream().anyMatch(id -> id == null || id <= 0)) {
+					throw new InvalidRequestException("Customer ID must be a positive number.");
+				}
+				validateDateRange(startDate, endDate);
+			});
+
+			return computeRewardsBatch(customerIds, startDate, endDate);
+		});
+	}
+
+	/**
+	 * Serves a validated batch request from the cache and computes the misses in
+	 * chunks.
+	 */
+	private Map<Long, Map<String, Object>> computeRewardsBatch(List<Long> customerIds, LocalDate startDate,
+			LocalDate endDate) {
+		Map<Long, RewardSummary> summaries = new LinkedHashMap<>();
+		Map<Long, Long> generations = new LinkedHashMap<>();
+		for (Long customerId : new LinkedHashSet<>(customerIds)) {
+			RewardSummary cached = rewardsCache.getIfPresent(customerId, startDate, endDate);
+			summaries.put(customerId, cached);
+			if (cached == null) {
+				generations.put(customerId, rewardsCache.generation(customerId));
+			}
 		}
 
-		if (startDate.isAfter(endDate)) {
-			throw new InvalidRequestException("Start date cannot be after end date.");
+		List<Long> misses = new ArrayList<>(generations.keySet());
+		for (int from = 0; from < misses.size(); from += batchChunkSize) {
+			List<Long> chunk = misses.subList(from, Math.min(from + batchChunkSize, misses.size()));
+			Map<Long, RewardSummary> computed = readYourWritesTracker.read(chunk, () -> readOnlyTransaction()
+					.execute(status -> computeRewardsChunk(chunk, startDate, endDate)));
+
+			computed.forEach((customerId, summary) -> {
+				summaries.put(customerId, summary);
+				rewardsCache.put(customerId, startDate, endDate, generations.get(customerId), summary);
+			});
 		}
 
-		List<Transaction> transactions = transactionRepository.findByCustomerCustomerIdAndDateBetween(customerId,
-				startDate, endDate);
+		Map<Long, Map<String, Object>> results = new LinkedHashMap<>();
+		summaries.forEach((customerId, summary) -> results.put(customerId,
+				summary != null ? summary.toMap() : notFoundEntry(customerId)));
+		logger.info("Batch reward calculation completed: {} customers, {} computed", results.size(), misses.size());
+		return results;
+	}
 
-		if (transactions.isEmpty()) {
+	/**
+	 * Computes the rewards response of one customer from the monthly ledger. Runs
+	 * inside a read-only transaction so every query sees the same snapshot.
+	 */
+	private RewardSummary computeRewards(Long customerId, LocalDate startDate, LocalDate endDate) {
+		List<MonthlyPointsView> monthlyPoints = rewardsMetrics.timePhase(CALCULATE_REWARDS, PHASE_QUERY,
+				() -> rewardLedger.findMonthlyPoints(List.of(customerId), startDate, endDate));
+		rewardsMetrics.recordTransactionsScanned(transactionCount(monthlyPoints));
+
+		if (monthlyPoints.isEmpty()) {
 			throw new CustomerNotFoundException("No transactions found for customer ID: " + customerId);
 		}
 
-		List<Map<String, Object>> rewardByMonth = transactions.stream()
-				.collect(Collectors.groupingBy(t -> t.getDate().getMonth().toString(), LinkedHashMap::new,
-						Collectors.summingInt(t -> calculatePoints(t.getAmount()))))
-				.entrySet().stream().map(entry -> {
-					Map<String, Object> map = new HashMap<>();
-					map.put("month", entry.getKey());
-					map.put("points", entry.getValue());
-					return map;
-				}).collect(Collectors.toList());
+		CustomerSummary customer = rewardsMetrics.timePhase(CALCULATE_REWARDS, PHASE_CUSTOMER_LOOKUP,
+				() -> customerRepository.findSummaryById(customerId)
+						.orElseThrow(() -> new CustomerNotFoundException("Customer not found for ID: " + customerId)));
 
-		int totalPoints = rewardByMonth.stream().mapToInt(m -> (int) m.get("points")).sum();
+		RewardSummary summary = rewardsMetrics.timePhase(CALCULATE_REWARDS, PHASE_AGGREGATION,
+				() -> buildSummary(customer, monthlyPoints));
+		logger.info("Reward calculation completed for customer ID: {}", customerId);
+		return summary;
+	}
 
-		Customer customer = customerRepository.findById(customerId)
-				.orElseThrow(() -> new CustomerNotFoundException("Customer not found for ID: " + customerId));
+	/**
+	 * Computes the rewards responses of a chunk of customers with one ledger
+	 * lookup and one customer query. Customers without transactions in the range
+	 * are left out of the result.
+	 */
+	private Map<Long, RewardSummary> computeRewardsChunk(List<Long> customerIds, LocalDate startDate,
+			LocalDate endDate) {
+		List<MonthlyPointsView> monthlyPoints = rewardsMetrics.timePhase(CALCULATE_REWARDS_BATCH, PHASE_QUERY,
+				() -> rewardLedger.findMonthlyPoints(customerIds, startDate, endDate));
+		rewardsMetrics.recordTransactionsScanned(transactionCount(monthlyPoints));
 
-		Map<String, Object> response = new HashMap<>();
-		response.put("Customer Details", customer);
-		response.put("Rewards Breakdown", rewardByMonth);
-		response.put("Total Rewards", totalPoints);
+		Map<Long, List<MonthlyPointsView>> pointsByCustomer = monthlyPoints.stream()
+				.collect(Collectors.groupingBy(MonthlyPointsView::getCustomerId));
 
-		logger.info("Reward calculation completed for customer ID: {}", customerId);
-		return response;
+		Map<Long, RewardSummary> summaries = new HashMap<>();
+		if (pointsByCustomer.isEmpty()) {
+			return summaries;
+		}
+		List<CustomerSummary> customers = rewardsMetrics.timePhase(CALCULATE_REWARDS_BATCH, PHASE_CUSTOMER_LOOKUP,
+				() -> customerRepository.findSummariesByIds(pointsByCustomer.keySet()));
+
+		rewardsMetrics.timePhase(CALCULATE_REWARDS_BATCH, PHASE_AGGREGATION, () -> {
+			for (CustomerSummary customer : customers) {
+				summaries.put(customer.customerId(),
+						buildSummary(customer, pointsByCustomer.get(customer.customerId())));
+			}
+		});
+		return summaries;
 	}
 
 	/**
-	 * Calculates reward points for a single transaction based on the amount.
-	 *
-	 * @param amount the amount of the transaction
-	 * @return reward points calculated from the transaction amount
+	 * Builds the rewards summary from per-month rows ordered by first
+	 * transaction. Each month is capped by the reward plan before the breakdown,
+	 * which is keyed by month name only, merges the same month of different
+	 * years.
 	 */
-	private int calculatePoints(double amount) {
-		int points = 0;
-		if (amount > 100)
-			points += (amount - 100) * 2;
-		if (amount > 50)
-			points += (Math.min(amount, 100) - 50);
-		return points;
+	private RewardSummary buildSummary(CustomerSummary customer, List<MonthlyPointsView> monthlyPoints) {
+		RewardPlan plan = rewardRules.plan();
+		RewardEngine.MonthlyBuckets buckets = new RewardEngine.MonthlyBuckets();
+		for (MonthlyPointsView view : monthlyPoints) {
+			buckets.add(RewardEngine.epochMonth(view.getRewardYear(), view.getRewardMonth()),
+					view.getTransactionCount(), plan.capMonth(view.getPoints()));
+		}
+		return buckets.toSummary(customer);
+	}
+
+	private static void validateDateRange(LocalDate startDate, LocalDate endDate) {
+		if (startDate == null || endDate == null) {
+			throw new InvalidRequestException("Start date and end date cannot be null.");
+		}
+
+		if (startDate.isAfter(endDate)) {
+			throw new InvalidRequestException("Start date cannot be after end date.");
+		}
+	}
+
+	private static long transactionCount(List<MonthlyPointsView> monthlyPoints) {
+		return monthlyPoints.stream().mapToLong(MonthlyPointsView::getTransactionCount).sum();
+	}
+
+	private Map<String, Object> notFoundEntry(Long customerId) {
+		Map<String, Object> entry = new HashMap<>();
+		entry.put("Customer ID", customerId);
+		entry.put("Error", "No transactions found for customer ID: " + customerId);
+		return entry;
+	}
+
+	private TransactionTemplate readOnlyTransaction() {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		return template;
 	}
-}
\ No newline at end of file
+}
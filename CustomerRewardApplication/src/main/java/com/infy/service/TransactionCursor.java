@@ -0,0 +1,53 @@
+package com.infy.service;
+
+import com.infy.dto.TransactionHistoryEntry;
+import com.infy.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a customer's transaction history: the (date, transactionId) key
+ * of the last transaction returned. Clients receive it as an opaque URL-safe
+ * token and the next page is read by seeking past it.
+ *
+ * @param date          date of the last transaction returned
+ * @param transactionId ID of the last transaction returned
+ */
+record TransactionCursor(LocalDate date, long transactionId) {
+
+	static TransactionCursor after(TransactionHistoryEntry entry) {
+		return new TransactionCursor(entry.date(), entry.transactionId());
+	}
+
+	/**
+	 * @return the token handed to clients
+	 */
+	String encode() {
+		byte[] key = (date + ":" + transactionId).getBytes(StandardCharsets.UTF_8);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key);
+	}
+
+	/**
+	 * Reads a token produced by {@link #encode()}.
+	 *
+	 * @param token the token received from a client
+	 * @return the cursor
+	 * @throws InvalidRequestException if the token is malformed
+	 */
+	static TransactionCursor decode(String token) {
+		try {
+			String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = key.indexOf(':');
+			if (separator < 0) {
+				throw new InvalidRequestException("Invalid cursor.");
+			}
+			return new TransactionCursor(LocalDate.parse(key.substring(0, separator)),
+					Long.parseLong(key.substring(separator + 1)));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new InvalidRequestException("Invalid cursor.");
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package com.infy.service;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.dto.ExternalIdOwner;
+import com.infy.event.TransactionsRecordedEvent;
+import com.infy.exception.InvalidRequestException;
+import com.infy.model.Transaction;
+import com.infy.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Detects transactions whose client-supplied external ID was already recorded,
+ * so retried writes skip them instead of inserting them again.
+ *
+ * A bounded LRU cache maps the external IDs of recently committed
+ * transactions to their customer. It only ever holds committed IDs, so a cache
+ * hit is a certain duplicate and costs no database round trip; the remaining
+ * IDs are looked up with one indexed IN query per
+ * {@code rewards.ingestion.batch-size} IDs. A write that races past the check
+ * is still stopped by the unique index on the external ID.
+ */
+@Component
+public class TransactionDeduplicator {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private final TransactionRepository transactionRepository;
+
+	private final int lookupChunkSize;
+
+	private final Cache<String, Long> recorded;
+
+	private final AtomicLong checked = new AtomicLong();
+
+	private final AtomicLong duplicates = new AtomicLong();
+
+	private final AtomicLong cacheHits = new AtomicLong();
+
+	private final AtomicLong databaseHits = new AtomicLong();
+
+	private final AtomicLong queries = new AtomicLong();
+
+	public TransactionDeduplicator(TransactionRepository transactionRepository,
+			@Value("${rewards.ingestion.batch-size:1000}") int lookupChunkSize,
+			@Value("${rewards.ingestion.dedup-cache-size:100000}") long cacheSize, MeterRegistry meterRegistry) {
+		this.transactionRepository = transactionRepository;
+		this.lookupChunkSize = lookupChunkSize;
+		this.recorded = Caffeine.newBuilder().maximumSize(cacheSize).build();
+		meterRegistry.more().counter("rewards.ingestion.dedup.checked", Tags.empty(), checked);
+		meterRegistry.more().counter("rewards.ingestion.dedup.duplicates", Tags.empty(), duplicates);
+		meterRegistry.more().counter("rewards.ingestion.dedup.cache.hits", Tags.empty(), cacheHits);
+		meterRegistry.more().counter("rewards.ingestion.dedup.database.hits", Tags.empty(), databaseHits);
+		meterRegistry.more().counter("rewards.ingestion.dedup.queries", Tags.empty(), queries);
+	}
+
+	/**
+	 * Splits transactions into those to insert and duplicates. A transaction is
+	 * a duplicate if its external ID is already recorded or appears on an
+	 * earlier transaction of the list. Transactions without an external ID are
+	 * always inserted.
+	 *
+	 * @param transactions the transactions about to be written
+	 * @return the transactions to insert, the skipped duplicates and the owner of
+	 *         every external ID that was already recorded
+	 */
+	public Partition partition(List<Transaction> transactions) {
+		Set<String> externalIds = new HashSet<>();
+		for (Transaction transaction : transactions) {
+			if (transaction.getExternalId() != null) {
+				externalIds.add(transaction.getExternalId());
+			}
+		}
+		if (externalIds.isEmpty()) {
+			return new Partition(transactions, List.of(), Map.of());
+		}
+
+		Map<String, Long> owners = findRecorded(externalIds);
+		List<Transaction> accepted = new ArrayList<>(transactions.size());
+		List<Transaction> skipped = new ArrayList<>();
+		Set<String> seen = new HashSet<>();
+		for (Transaction transaction : transactions) {
+			String externalId = transaction.getExternalId();
+			if (externalId == null || (!owners.containsKey(externalId) && seen.add(externalId))) {
+				accepted.add(transaction);
+			} else {
+				skipped.add(transaction);
+			}
+		}
+
+		checked.addAndGet(skipped.size() + seen.size());
+		duplicates.addAndGet(skipped.size());
+		if (!skipped.isEmpty()) {
+			logger.info("Skipping {} duplicate transactions by external ID", skipped.size());
+		}
+		return new Partition(accepted, skipped, owners);
+	}
+
+	/**
+	 * Checks the accepted transactions of a partition again. Used by writers
+	 * that took their {@link CustomerWriteLocks} after partitioning, so
+	 * transactions committed in the meantime by an earlier writer of the same
+	 * customer are skipped too.
+	 *
+	 * @param partition a partition made before the locks were taken
+	 * @return the partition with newly recorded transactions moved to the
+	 *         duplicates
+	 */
+	public Partition recheck(Partition partition) {
+		Partition again = partition(partition.accepted());
+		if (again.duplicates().isEmpty()) {
+			return partition;
+		}
+		List<Transaction> skipped = new ArrayList<>(partition.duplicates());
+		skipped.addAll(again.duplicates());
+		Map<String, Long> owners = new HashMap<>(partition.owners());
+		owners.putAll(again.owners());
+		return new Partition(again.accepted(), skipped, owners);
+	}
+
+	/**
+	 * Remembers the external IDs of inserted transactions once the writing
+	 * transaction has committed.
+	 *
+	 * @param event the transactions that were inserted
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onTransactionsRecorded(TransactionsRecordedEvent event) {
+		for (Transaction transaction : event.transactions()) {
+			if (transaction.getExternalId() != null) {
+				recorded.put(transaction.getExternalId(), transaction.getCustomer().getCustomerId());
+			}
+		}
+	}
+
+	/**
+	 * Returns how many external IDs were checked and how many of them were
+	 * duplicates, split by where the duplicate was detected.
+	 *
+	 * @return statistics keyed by name
+	 */
+	public Map<String, Object> stats() {
+		long total = checked.get();
+		long hits = cacheHits.get() + databaseHits.get();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("checked", total);
+		result.put("duplicates", duplicates.get());
+		result.put("duplicateRate", total == 0 ? 0d : (double) duplicates.get() / total);
+		result.put("repeatedInRequest", duplicates.get() - hits);
+		result.put("cacheHits", cacheHits.get());
+		result.put("databaseHits", databaseHits.get());
+		result.put("cacheHitRate", hits == 0 ? 0d : (double) cacheHits.get() / hits);
+		result.put("queries", queries.get());
+		result.put("cachedIds", recorded.estimatedSize());
+		return result;
+	}
+
+	private Map<String, Long> findRecorded(Set<String> externalIds) {
+		Map<String, Long> owners = new HashMap<>(recorded.getAllPresent(externalIds));
+		cacheHits.addAndGet(owners.size());
+
+		List<String> unknown = externalIds.stream().filter(id -> !owners.containsKey(id)).toList();
+		for (int from = 0; from < unknown.size(); from += lookupChunkSize) {
+			List<ExternalIdOwner> rows = transactionRepository
+					.findOwnersByExternalIds(unknown.subList(from, Math.min(from + lookupChunkSize, unknown.size())));
+			queries.incrementAndGet();
+			for (ExternalIdOwner row : rows) {
+				owners.put(row.getExternalId(), row.getCustomerId());
+				recorded.put(row.getExternalId(), row.getCustomerId());
+			}
+			databaseHits.addAndGet(rows.size());
+		}
+		return owners;
+	}
+
+	/**
+	 * Outcome of {@link TransactionDeduplicator#partition}.
+	 *
+	 * @param accepted   transactions to insert, in input order
+	 * @param duplicates transactions skipped as duplicates
+	 * @param owners     customer ID per external ID that was already recorded
+	 */
+	public record Partition(List<Transaction> accepted, List<Transaction> duplicates, Map<String, Long> owners) {
+
+		/**
+		 * Returns the customer that already owns some of the given transactions.
+		 * A retried request is attributed to that customer instead of creating a
+		 * new one.
+		 *
+		 * @param transactions the transactions of one customer in the request
+		 * @return the owning customer ID, or null if none was recorded before
+		 * @throws InvalidRequestException if the external IDs belong to more than
+		 *                                 one customer
+		 */
+		public Long ownerOf(List<Transaction> transactions) {
+			Set<Long> customerIds = transactions.stream().map(Transaction::getExternalId).filter(Objects::nonNull)
+					.map(owners::get).filter(Objects::nonNull).collect(Collectors.toSet());
+			if (customerIds.size() > 1) {
+				throw new InvalidRequestException("External IDs belong to more than one customer.");
+			}
+			return customerIds.isEmpty() ? null : customerIds.iterator().next();
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.infy.service;
+
+import com.infy.dto.TransactionPage;
+
+/**
+ * Interface for reading a customer's transaction history page by page.
+ */
+public interface TransactionHistoryService {
+
+	/**
+	 * Read one page of a customer's transactions, newest first.
+	 *
+	 * @param customerId customer ID
+	 * @param cursor     token of the previous page, or {@code null} for the
+	 *                   first page
+	 * @param pageSize   maximum transactions in the page, or {@code null} for the
+	 *                   default
+	 * @return the page and the token of the next one
+	 */
+	TransactionPage findTransactions(Long customerId, String cursor, Integer pageSize);
+}
@@ -0,0 +1,106 @@
+package com.infy.service;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.datasource.ReadYourWritesTracker;
+import com.infy.dto.TransactionHistoryEntry;
+import com.infy.dto.TransactionPage;
+import com.infy.exception.CustomerNotFoundException;
+import com.infy.exception.InvalidRequestException;
+import com.infy.repository.CustomerRepository;
+import com.infy.repository.TransactionRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static com.infy.service.RewardsMetrics.*;
+
+/**
+ * Implementation of {@link TransactionHistoryService} using keyset pagination.
+ * Each page seeks past the (date, transactionId) key of the previous one
+ * instead of skipping rows with an offset, so every page is one range scan of
+ * the (customerId, date) index and costs the same however deep it is.
+ */
+@Service
+public class TransactionHistoryServiceImpl implements TransactionHistoryService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private RewardsMetrics rewardsMetrics;
+
+	@Autowired
+	private ReadYourWritesTracker readYourWritesTracker;
+
+	@Value("${rewards.history.default-page-size:50}")
+	private int defaultPageSize;
+
+	@Value("${rewards.history.max-page-size:500}")
+	private int maxPageSize;
+
+	/**
+	 * Reads one page of a customer's transactions, newest first. One row more
+	 * than the page size is read to tell whether another page follows. The page
+	 * is read from a replica unless the customer was written within the
+	 * read-your-writes window.
+	 *
+	 * @param customerId the ID of the customer
+	 * @param cursor     token of the previous page, or {@code null} for the
+	 *                   first page
+	 * @param pageSize   maximum transactions in the page, or {@code null} for
+	 *                   {@code rewards.history.default-page-size}
+	 * @return the page and the token of the next one
+	 * @throws InvalidRequestException   if the customer ID, cursor or page size
+	 *                                   is invalid
+	 * @throws CustomerNotFoundException if the customer does not exist
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TransactionPage findTransactions(Long customerId, String cursor, Integer pageSize) {
+		logger.info("Reading transaction history for customer ID: {}", customerId);
+
+		return rewardsMetrics.timeOperation(TRANSACTION_HISTORY, () -> {
+			int size = pageSize != null ? pageSize : defaultPageSize;
+			TransactionCursor after = rewardsMetrics.timePhase(TRANSACTION_HISTORY, PHASE_VALIDATION, () -> {
+				if (customerId == null || customerId <= 0) {
+					throw new InvalidRequestException("Customer ID must be a positive number.");
+				}
+
+				if (size <= 0 || size > maxPageSize) {
+					throw new InvalidRequestException("Page size must be between 1 and " + maxPageSize + ".");
+				}
+				return cursor != null ? TransactionCursor.decode(cursor) : null;
+			});
+
+			// The connection is routed when the first query runs, and the
+			// transaction keeps it for the queries that follow
+			List<TransactionHistoryEntry> rows = readYourWritesTracker.read(List.of(customerId),
+					() -> rewardsMetrics.timePhase(TRANSACTION_HISTORY, PHASE_QUERY, () -> after == null
+							? transactionRepository.findHistoryFirstPage(customerId, Limit.of(size + 1))
+							: transactionRepository.findHistoryAfter(customerId, after.date(), after.transactionId(),
+									Limit.of(size + 1))));
+
+			if (rows.isEmpty() && after == null && !customerRepository.existsById(customerId)) {
+				throw new CustomerNotFoundException("Customer not found for ID: " + customerId);
+			}
+
+			if (rows.size() <= size) {
+				return new TransactionPage(rows, null);
+			}
+			List<TransactionHistoryEntry> page = rows.subList(0, size);
+			return new TransactionPage(page, TransactionCursor.after(page.get(size - 1)).encode());
+		});
+	}
+}
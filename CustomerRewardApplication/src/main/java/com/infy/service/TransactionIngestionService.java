@@ -0,0 +1,33 @@
+package com.infy.service;
+
+import com.infy.dto.BulkIngestionResponse;
+import com.infy.dto.ImportFormat;
+import com.infy.dto.ImportResult;
+import com.infy.model.Customer;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Interface for high-volume ingestion of customers and transactions.
+ */
+public interface TransactionIngestionService {
+
+	/**
+	 * Save many new customers with their transactions using batched inserts.
+	 *
+	 * @param customers the customers to save, each with its transaction list
+	 * @return counts, generated customer IDs and insert throughput
+	 */
+	BulkIngestionResponse ingestCustomers(List<Customer> customers);
+
+	/**
+	 * Import transactions for existing customers from a stream of NDJSON or CSV
+	 * records, persisting them in fixed-size chunks as they are read.
+	 *
+	 * @param input  the record stream
+	 * @param format the record format
+	 * @return counts of records read and imported, and per-record errors
+	 */
+	ImportResult importTransactions(InputStream input, ImportFormat format);
+}
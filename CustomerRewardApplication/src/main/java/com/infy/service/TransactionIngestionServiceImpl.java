@@ -0,0 +1,353 @@
+package com.infy.service;
+
+import com.infy.CustomerRewardsApplication;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.infy.dto.BulkIngestionResponse;
+import com.infy.dto.ImportError;
+import com.infy.dto.ImportFormat;
+import com.infy.dto.ImportResult;
+import com.infy.dto.TransactionDto;
+import com.infy.dto.TransactionImportRecord;
+import com.infy.event.TransactionsRecordedEvent;
+import com.infy.event.TransactionsRecordingEvent;
+import com.infy.exception.InvalidDateFormatException;
+import com.infy.exception.InvalidRequestException;
+import com.infy.model.Customer;
+import com.infy.model.Transaction;
+import com.infy.repository.CustomerRepository;
+import com.infy.repository.TransactionBatchRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link TransactionIngestionService}. Writes customers and
+ * transactions through {@link TransactionBatchRepository} so inserts are sent
+ * to the database in batches of {@code rewards.ingestion.batch-size} rows.
+ */
+@Service
+public class TransactionIngestionServiceImpl implements TransactionIngestionService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private static final Set<String> CSV_COLUMNS = Set.of("customerId", "amount", "date");
+
+	private static final CsvMapper CSV_MAPPER = CsvMapper.builder().addModule(new JavaTimeModule()).build();
+
+	@Autowired
+	private TransactionBatchRepository transactionBatchRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private TransactionDeduplicator transactionDeduplicator;
+
+	@Autowired
+	private CustomerWriteLocks customerWriteLocks;
+
+	@Value("${rewards.ingestion.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${rewards.ingestion.import-chunk-size:5000}")
+	private int importChunkSize;
+
+	@Value("${rewards.ingestion.max-reported-errors:1000}")
+	private int maxReportedErrors;
+
+	/**
+	 * Validates every transaction up front, then inserts all customers and
+	 * transactions in a single database transaction. Transactions whose external
+	 * ID was already recorded are skipped, and a customer whose transactions were
+	 * recorded before is not created again, so a retried request inserts nothing
+	 * twice. Existing customers are written under their write locks.
+	 *
+	 * @param customers the customers to save, each with its transaction list
+	 * @return counts, customer IDs and insert throughput
+	 * @throws InvalidDateFormatException if any transaction date is null
+	 * @throws InvalidRequestException    if any transaction amount is zero or
+	 *                                    negative, or the external IDs of one
+	 *                                    customer belong to more than one
+	 *                                    existing customer
+	 */
+	@Override
+	@Transactional
+	public BulkIngestionResponse ingestCustomers(List<Customer> customers) {
+		logger.info("Bulk ingesting {} customers with batch size {}", customers.size(), batchSize);
+		long start = System.nanoTime();
+
+		List<Transaction> transactions = new ArrayList<>();
+		for (Customer customer : customers) {
+			for (Transaction transaction : customer.getTransaction()) {
+				TransactionValidator.validate(transaction);
+				transaction.setCustomer(customer);
+				transactions.add(transaction);
+			}
+		}
+
+		TransactionDeduplicator.Partition partition = transactionDeduplicator.partition(transactions);
+		List<Customer> created = new ArrayList<>(customers.size());
+		List<Long> owners = new ArrayList<>();
+		for (Customer customer : customers) {
+			Long ownerId = partition.ownerOf(customer.getTransaction());
+			if (ownerId == null) {
+				created.add(customer);
+			} else {
+				customer.setCustomerId(ownerId);
+				owners.add(ownerId);
+			}
+		}
+		if (!owners.isEmpty()) {
+			customerWriteLocks.lockUntilCompletion(owners);
+			partition = transactionDeduplicator.recheck(partition);
+		}
+
+		eventPublisher.publishEvent(new TransactionsRecordingEvent());
+		transactionBatchRepository.insertCustomers(created, batchSize);
+		transactionBatchRepository.insertTransactions(partition.accepted(), batchSize);
+		eventPublisher.publishEvent(new TransactionsRecordedEvent(partition.accepted()));
+
+		long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+		int rows = created.size() + partition.accepted().size();
+		double rowsPerSecond = rows * 1_000_000_000d / elapsedNanos;
+
+		logger.info("Bulk ingestion saved {} customers and {} transactions, skipped {} duplicates ({} rows/s)",
+				created.size(), partition.accepted().size(), partition.duplicates().size(),
+				Math.round(rowsPerSecond));
+		return new BulkIngestionResponse(created.size(), partition.accepted().size(), partition.duplicates().size(),
+				customers.stream().map(Customer::getCustomerId).toList(), elapsedNanos / 1_000_000, rowsPerSecond);
+	}
+
+	/**
+	 * Reads the stream one line at a time and parses each record with Jackson.
+	 * Valid records are buffered and written in chunks of
+	 * {@code rewards.ingestion.import-chunk-size}, each chunk in its own database
+	 * transaction, so memory use does not grow with the size of the upload. Invalid
+	 * records are reported and skipped; errors are held back until the records
+	 * before them are flushed, so they are reported in line order even when an
+	 * earlier record turns out to reference an unknown customer. Records whose
+	 * external ID was already recorded, by an earlier chunk or an earlier import,
+	 * are counted as duplicates and skipped. Each chunk holds the write locks of
+	 * its customers until it commits, so concurrent imports for the same customers
+	 * are applied one chunk at a time.
+	 *
+	 * @param input  the record stream
+	 * @param format the record format
+	 * @return counts of records read and imported, and per-record errors
+	 * @throws InvalidRequestException if a CSV stream has no usable header line
+	 */
+	@Override
+	public ImportResult importTransactions(InputStream input, ImportFormat format) {
+		logger.info("Importing {} transaction stream with chunk size {}", format, importChunkSize);
+		long start = System.nanoTime();
+		ImportResult result = new ImportResult();
+		List<PendingTransaction> chunk = new ArrayList<>(importChunkSize);
+		List<ImportError> rejected = new ArrayList<>();
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			long lineNumber = 0;
+			ObjectReader recordReader;
+			if (format == ImportFormat.CSV) {
+				recordReader = csvReader(reader.readLine());
+				lineNumber++;
+			} else {
+				recordReader = objectMapper.readerFor(TransactionImportRecord.class);
+			}
+
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				result.setRecordsRead(result.getRecordsRead() + 1);
+
+				TransactionImportRecord record;
+				try {
+					record = recordReader.readValue(line);
+				} catch (JsonProcessingException e) {
+					reject(chunk, rejected, result, lineNumber, "Malformed record: " + e.getOriginalMessage());
+					continue;
+				}
+
+				String error = validate(record);
+				if (error != null) {
+					reject(chunk, rejected, result, lineNumber, error);
+					continue;
+				}
+
+				chunk.add(new PendingTransaction(lineNumber, toTransaction(record)));
+				if (chunk.size() >= importChunkSize) {
+					flush(chunk, rejected, result);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read import stream", e);
+		}
+		flush(chunk, rejected, result);
+
+		result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+		logger.info("Import finished: {} read, {} imported, {} duplicates, {} rejected", result.getRecordsRead(),
+				result.getRecordsImported(), result.getDuplicatesSkipped(), result.getErrorCount());
+		return result;
+	}
+
+	private ObjectReader csvReader(String header) {
+		if (header == null) {
+			throw new InvalidRequestException("CSV import requires a header line.");
+		}
+		List<String> columns = Arrays.stream(header.split(",")).map(String::trim).toList();
+		if (!columns.containsAll(CSV_COLUMNS)) {
+			throw new InvalidRequestException("CSV header must contain the columns customerId, amount and date.");
+		}
+		CsvSchema.Builder schema = CsvSchema.builder();
+		columns.forEach(schema::addColumn);
+		return CSV_MAPPER.readerFor(TransactionImportRecord.class).with(schema.build());
+	}
+
+	private String validate(TransactionImportRecord record) {
+		if (record.getCustomerId() == null || record.getCustomerId() <= 0) {
+			return "Customer ID must be a positive number";
+		}
+		Set<ConstraintViolation<TransactionDto>> violations = validator
+				.validate(new TransactionDto(record.getAmount(), record.getDate(), record.getExternalId()));
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+	}
+
+	private Transaction toTransaction(TransactionImportRecord record) {
+		Customer customer = new Customer();
+		customer.setCustomerId(record.getCustomerId());
+
+		Transaction transaction = new Transaction();
+		transaction.setAmount(record.getAmount());
+		transaction.setDate(record.getDate());
+		transaction.setExternalId(StringUtils.hasText(record.getExternalId()) ? record.getExternalId() : null);
+		transaction.setCustomer(customer);
+		return transaction;
+	}
+
+	/**
+	 * Reports a rejected record right away when no earlier record is waiting in
+	 * the chunk, and otherwise holds it back until the chunk is flushed. Only as
+	 * many errors are held as can still be listed.
+	 */
+	private void reject(List<PendingTransaction> chunk, List<ImportError> rejected, ImportResult result, long line,
+			String message) {
+		if (chunk.isEmpty()) {
+			addError(result, line, message);
+			return;
+		}
+		result.setErrorCount(result.getErrorCount() + 1);
+		if (rejected.size() < maxReportedErrors) {
+			rejected.add(new ImportError(line, message));
+		}
+	}
+
+	private void flush(List<PendingTransaction> chunk, List<ImportError> rejected, ImportResult result) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		Set<Long> customerIds = chunk.stream().map(p -> p.transaction().getCustomer().getCustomerId())
+				.collect(Collectors.toSet());
+
+		transactionTemplate.executeWithoutResult(status -> {
+			customerWriteLocks.lockUntilCompletion(customerIds);
+			Set<Long> existing = new HashSet<>(customerRepository.findExistingIds(customerIds));
+			List<Transaction> accepted = new ArrayList<>(chunk.size());
+			List<ImportError> notFound = new ArrayList<>();
+			for (PendingTransaction pending : chunk) {
+				Long customerId = pending.transaction().getCustomer().getCustomerId();
+				if (existing.contains(customerId)) {
+					accepted.add(pending.transaction());
+				} else {
+					notFound.add(new ImportError(pending.line(), "Customer not found for ID: " + customerId));
+				}
+			}
+			reportInLineOrder(rejected, notFound, result);
+			TransactionDeduplicator.Partition partition = transactionDeduplicator.partition(accepted);
+			eventPublisher.publishEvent(new TransactionsRecordingEvent());
+			transactionBatchRepository.insertTransactions(partition.accepted(), batchSize);
+			eventPublisher.publishEvent(new TransactionsRecordedEvent(partition.accepted()));
+			result.setRecordsImported(result.getRecordsImported() + partition.accepted().size());
+			result.setDuplicatesSkipped(result.getDuplicatesSkipped() + partition.duplicates().size());
+		});
+		logger.debug("Flushed import chunk of {} records", chunk.size());
+		chunk.clear();
+		rejected.clear();
+	}
+
+	/**
+	 * Merges the held back errors with the chunk's unknown customers, both
+	 * already in line order. Held back errors were counted when rejected.
+	 */
+	private void reportInLineOrder(List<ImportError> rejected, List<ImportError> notFound, ImportResult result) {
+		int r = 0;
+		int n = 0;
+		while (r < rejected.size() || n < notFound.size()) {
+			boolean rejectedFirst = n == notFound.size()
+					|| (r < rejected.size() && rejected.get(r).getLine() < notFound.get(n).getLine());
+			if (rejectedFirst) {
+				if (result.getErrors().size() < maxReportedErrors) {
+					result.getErrors().add(rejected.get(r));
+				}
+				r++;
+			} else {
+				addError(result, notFound.get(n).getLine(), notFound.get(n).getMessage());
+				n++;
+			}
+		}
+	}
+
+	private void addError(ImportResult result, long line, String message) {
+		result.setErrorCount(result.getErrorCount() + 1);
+		if (result.getErrors().size() < maxReportedErrors) {
+			result.getErrors().add(new ImportError(line, message));
+		}
+	}
+
+	private record PendingTransaction(long line, Transaction transaction) {
+	}
+}
@@ -0,0 +1,39 @@
+package com.infy.service;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.exception.InvalidDateFormatException;
+import com.infy.exception.InvalidRequestException;
+import com.infy.model.Transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validation rules shared by every path that persists transactions.
+ */
+public final class TransactionValidator {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private TransactionValidator() {
+	}
+
+	/**
+	 * Validates a single transaction before it is persisted.
+	 *
+	 * @param transaction the transaction to validate
+	 * @throws InvalidDateFormatException if the transaction date is null
+	 * @throws InvalidRequestException    if the transaction amount is zero or
+	 *                                    negative
+	 */
+	public static void validate(Transaction transaction) {
+		if (transaction.getDate() == null) {
+			logger.warn("Transaction date is null");
+			throw new InvalidDateFormatException("Transaction date cannot be null.");
+		}
+		if (transaction.getAmount() <= 0) {
+			logger.warn("Invalid transaction amount: {}", transaction.getAmount());
+			throw new InvalidRequestException("Transaction amount must be greater than zero.");
+		}
+	}
+}
@@ -0,0 +1,430 @@
+package com.infy.service;
+
+import com.infy.CustomerRewardsApplication;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.dto.CustomerDto;
+import com.infy.dto.QueuedIngestionResponse;
+import com.infy.exception.IngestionQueueFullException;
+import com.infy.exception.InvalidDateFormatException;
+import com.infy.exception.InvalidRequestException;
+import com.infy.model.Transaction;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in write-behind ingestion, enabled by
+ * {@code rewards.ingestion.write-behind.enabled}. Customers are validated and
+ * acknowledged on the request thread, then put on a bounded queue that a
+ * single writer thread drains into batched transactions of up to
+ * {@code rewards.ingestion.write-behind.batch-size} customers through
+ * {@link TransactionIngestionService#ingestCustomers}. When the queue is full,
+ * {@link #enqueue} fails fast with {@link IngestionQueueFullException} instead
+ * of blocking the request.
+ *
+ * Every queued transaction must carry an external ID, so writing a customer a
+ * second time saves nothing twice. That makes the optional journal safe: each
+ * accepted customer is appended to it before it is acknowledged, the whole
+ * journal is replayed on startup, and it is truncated whenever the writer has
+ * drained the queue. On shutdown the queue stops accepting work and is drained
+ * before the database goes away.
+ *
+ * Only customers whose data is rejected, by validation or by a database
+ * constraint, are dropped. Any other failure, such as the database being
+ * unavailable, is retried with a backoff starting at
+ * {@code rewards.ingestion.write-behind.retry-backoff} and doubling up to
+ * {@code rewards.ingestion.write-behind.retry-backoff-max}, while the customers
+ * stay queued and journaled.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.ingestion.write-behind.enabled", havingValue = "true")
+public class TransactionWriteBehindQueue implements SmartLifecycle {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	// Stop after the web server, so requests still in flight can enqueue
+	private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+	private static final long POLL_MILLIS = 100;
+
+	private final TransactionIngestionService ingestionService;
+
+	private final ObjectMapper objectMapper;
+
+	private final BlockingQueue<CustomerDto> queue;
+
+	private final int capacity;
+
+	private final int batchSize;
+
+	private final Duration retryAfter;
+
+	private final Duration retryBackoff;
+
+	private final Duration retryBackoffMax;
+
+	private final Duration shutdownTimeout;
+
+	private final Path journalPath;
+
+	private final boolean journalSync;
+
+	// Guards the journal and every insert into the queue; not a monitor, so a
+	// virtual thread holding it across file I/O does not pin its carrier
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final AtomicLong accepted = new AtomicLong();
+
+	private final AtomicLong rejected = new AtomicLong();
+
+	private final AtomicLong written = new AtomicLong();
+
+	private final AtomicLong failed = new AtomicLong();
+
+	private final AtomicLong batches = new AtomicLong();
+
+	private FileChannel journal;
+
+	private Thread writer;
+
+	private volatile boolean running;
+
+	public TransactionWriteBehindQueue(TransactionIngestionService ingestionService, ObjectMapper objectMapper,
+			MeterRegistry meterRegistry, @Value("${rewards.ingestion.write-behind.capacity:10000}") int capacity,
+			@Value("${rewards.ingestion.write-behind.batch-size:500}") int batchSize,
+			@Value("${rewards.ingestion.write-behind.retry-after:1s}") Duration retryAfter,
+			@Value("${rewards.ingestion.write-behind.retry-backoff:200ms}") Duration retryBackoff,
+			@Value("${rewards.ingestion.write-behind.retry-backoff-max:30s}") Duration retryBackoffMax,
+			@Value("${rewards.ingestion.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout,
+			@Value("${rewards.ingestion.write-behind.journal:}") String journal,
+			@Value("${rewards.ingestion.write-behind.journal-sync:false}") boolean journalSync) {
+		this.ingestionService = ingestionService;
+		this.objectMapper = objectMapper;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.retryAfter = retryAfter;
+		this.retryBackoff = retryBackoff;
+		this.retryBackoffMax = retryBackoffMax;
+		this.shutdownTimeout = shutdownTimeout;
+		this.journalPath = StringUtils.hasText(journal) ? Path.of(journal) : null;
+		this.journalSync = journalSync;
+		meterRegistry.more().counter("rewards.ingestion.queue.accepted", Tags.empty(), accepted);
+		meterRegistry.more().counter("rewards.ingestion.queue.rejected", Tags.empty(), rejected);
+		meterRegistry.more().counter("rewards.ingestion.queue.written", Tags.empty(), written);
+		meterRegistry.more().counter("rewards.ingestion.queue.failed", Tags.empty(), failed);
+		meterRegistry.gauge("rewards.ingestion.queue.depth", queue, BlockingQueue::size);
+	}
+
+	/**
+	 * Validates a customer and queues it for writing.
+	 *
+	 * @param customer the customer and its transactions
+	 * @return the number of transactions accepted and the queue depth
+	 * @throws InvalidDateFormatException  if any transaction date is null
+	 * @throws InvalidRequestException     if any transaction amount is zero or
+	 *                                     negative, or has no external ID
+	 * @throws IngestionQueueFullException if the queue is full or shutting down
+	 */
+	public QueuedIngestionResponse enqueue(CustomerDto customer) {
+		for (Transaction transaction : customer.toCustomer().getTransaction()) {
+			TransactionValidator.validate(transaction);
+			if (transaction.getExternalId() == null) {
+				throw new InvalidRequestException("Queued transactions must have an external ID.");
+			}
+		}
+
+		lock.lock();
+		try {
+			if (!running) {
+				rejected.incrementAndGet();
+				throw new IngestionQueueFullException("Queued ingestion is not running.", retryAfter);
+			}
+			if (queue.remainingCapacity() == 0) {
+				rejected.incrementAndGet();
+				logger.warn("Write-behind queue is full, rejecting customer: {}", customer.getCustomerName());
+				throw new IngestionQueueFullException("Ingestion queue is full.", retryAfter);
+			}
+			appendToJournal(customer);
+			queue.add(customer);
+		} finally {
+			lock.unlock();
+		}
+		accepted.incrementAndGet();
+		return new QueuedIngestionResponse(customer.getTransaction().size(), queue.size());
+	}
+
+	/**
+	 * Returns the queue depth and how many customers were accepted, rejected,
+	 * written and dropped.
+	 *
+	 * @return statistics keyed by name
+	 */
+	public Map<String, Object> stats() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("depth", queue.size());
+		result.put("capacity", capacity);
+		result.put("accepted", accepted.get());
+		result.put("rejected", rejected.get());
+		result.put("written", written.get());
+		result.put("failed", failed.get());
+		result.put("batches", batches.get());
+		result.put("journal", journalPath == null ? null : journalPath.toString());
+		return result;
+	}
+
+	/**
+	 * Replays the journal left by a previous run, then opens it for appending and
+	 * starts the writer thread. Replay retries while the database is unavailable,
+	 * so startup waits for it.
+	 */
+	@Override
+	public void start() {
+		if (journalPath != null) {
+			replayJournal();
+			try {
+				journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.APPEND);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to open ingestion journal " + journalPath, e);
+			}
+		}
+		running = true;
+		writer = new Thread(this::drain, "rewards-write-behind");
+		writer.start();
+		logger.info("Write-behind ingestion started with capacity {} and batch size {}", capacity, batchSize);
+	}
+
+	/**
+	 * Stops accepting customers and waits up to
+	 * {@code rewards.ingestion.write-behind.shutdown-timeout} for the writer to
+	 * drain the queue. Customers still queued after that remain in the journal.
+	 */
+	@Override
+	public void stop() {
+		lock.lock();
+		try {
+			running = false;
+		} finally {
+			lock.unlock();
+		}
+		try {
+			writer.join(shutdownTimeout.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (writer.isAlive()) {
+			writer.interrupt();
+			logger.warn("Write-behind queue stopped with {} customers unwritten", queue.size());
+		}
+		closeJournal();
+		logger.info("Write-behind ingestion stopped: {} customers written", written.get());
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	private void drain() {
+		List<CustomerDto> batch = new ArrayList<>(batchSize);
+		try {
+			while (running || !queue.isEmpty()) {
+				CustomerDto first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				write(batch);
+				batch.clear();
+				truncateJournalIfDrained();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes a batch in one transaction. A failure caused by the data of one
+	 * customer is isolated by writing the batch one customer at a time.
+	 */
+	private void write(List<CustomerDto> batch) throws InterruptedException {
+		try {
+			ingestWithRetry(batch);
+			written.addAndGet(batch.size());
+			batches.incrementAndGet();
+			logger.debug("Wrote write-behind batch of {} customers", batch.size());
+		} catch (InvalidRequestException | InvalidDateFormatException | DataIntegrityViolationException ex) {
+			logger.warn("Write-behind batch of {} customers failed, writing them one at a time: {}", batch.size(),
+					ex.getMessage());
+			writeEach(batch);
+		}
+	}
+
+	private void writeEach(List<CustomerDto> batch) throws InterruptedException {
+		for (CustomerDto customer : batch) {
+			try {
+				ingestWithRetry(List.of(customer));
+				written.incrementAndGet();
+			} catch (InvalidRequestException | InvalidDateFormatException | DataIntegrityViolationException ex) {
+				failed.incrementAndGet();
+				logger.error("Dropping queued customer {}: {}", customer, ex.getMessage());
+			}
+		}
+		batches.incrementAndGet();
+	}
+
+	/**
+	 * Ingests customers, retrying every failure not caused by their data with an
+	 * exponential backoff while the queue fills up and pushes back on clients.
+	 *
+	 * @throws InterruptedException if the writer is interrupted, e.g. when the
+	 *                              shutdown timeout passes; the customers stay in
+	 *                              the journal
+	 */
+	private void ingestWithRetry(List<CustomerDto> customers) throws InterruptedException {
+		long backoff = retryBackoff.toMillis();
+		while (true) {
+			try {
+				ingestionService.ingestCustomers(customers.stream().map(CustomerDto::toCustomer).toList());
+				return;
+			} catch (InvalidRequestException | InvalidDateFormatException | DataIntegrityViolationException ex) {
+				throw ex;
+			} catch (RuntimeException ex) {
+				logger.warn("Writing {} queued customers failed, retrying in {} ms: {}", customers.size(), backoff,
+						ex.getMessage());
+				Thread.sleep(backoff);
+				backoff = Math.min(backoff * 2, retryBackoffMax.toMillis());
+			}
+		}
+	}
+
+	private void appendToJournal(CustomerDto customer) {
+		if (journal == null) {
+			return;
+		}
+		try {
+			ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(customer) + "\n")
+					.getBytes(StandardCharsets.UTF_8));
+			while (line.hasRemaining()) {
+				journal.write(line);
+			}
+			if (journalSync) {
+				journal.force(false);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to append to ingestion journal " + journalPath, e);
+		}
+	}
+
+	// Every journaled customer was written once the queue is empty, since
+	// customers are journaled and queued under the same lock
+	private void truncateJournalIfDrained() {
+		lock.lock();
+		try {
+			if (journal == null || !queue.isEmpty()) {
+				return;
+			}
+			journal.truncate(0);
+		} catch (IOException e) {
+			logger.warn("Failed to truncate ingestion journal {}: {}", journalPath, e.getMessage());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void replayJournal() {
+		if (!Files.exists(journalPath)) {
+			return;
+		}
+		List<CustomerDto> batch = new ArrayList<>(batchSize);
+		long replayed = 0;
+		try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					batch.add(objectMapper.readValue(line, CustomerDto.class));
+				} catch (JsonProcessingException e) {
+					// A crash can leave the last line half written
+					logger.warn("Skipping unreadable ingestion journal line: {}", e.getOriginalMessage());
+					continue;
+				}
+				if (batch.size() == batchSize) {
+					replayed += replay(batch);
+				}
+			}
+			replayed += replay(batch);
+			Files.write(journalPath, new byte[0]);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to replay ingestion journal " + journalPath, e);
+		}
+		logger.info("Replayed {} customers from ingestion journal {}", replayed, journalPath);
+	}
+
+	private int replay(List<CustomerDto> batch) {
+		int size = batch.size();
+		if (size > 0) {
+			try {
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Failed to replay ingestion journal " + journalPath, e);
+			}
+			batch.clear();
+		}
+		return size;
+	}
+
+	private void closeJournal() {
+		if (journal == null) {
+			return;
+		}
+		lock.lock();
+		try {
+			journal.close();
+		} catch (IOException e) {
+			logger.warn("Failed to close ingestion journal {}: {}", journalPath, e.getMessage());
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.infy.snapshot;
+
+/**
+ * Receives the points of one customer and month recomputed from a
+ * {@link TransactionSnapshot}. Called from several threads at once when the
+ * recomputation runs in parallel.
+ */
+@FunctionalInterface
+public interface MonthlyPointsConsumer {
+
+	/** Consumer that ignores every month. */
+	MonthlyPointsConsumer NONE = (customerId, epochMonth, transactionCount, points) -> {
+	};
+
+	/**
+	 * @param customerId       the customer ID
+	 * @param epochMonth       the month, see
+	 *                         {@link com.infy.service.RewardEngine#epochMonth}
+	 * @param transactionCount number of transactions in the month
+	 * @param points           points earned in the month, before the monthly
+	 *                         cap
+	 */
+	void accept(long customerId, int epochMonth, long transactionCount, long points);
+}
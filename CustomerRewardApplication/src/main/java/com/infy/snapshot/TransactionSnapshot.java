@@ -0,0 +1,283 @@
+package com.infy.snapshot;
+
+import com.infy.dto.RecomputationResult;
+import com.infy.rules.RewardPlan;
+import com.infy.service.RewardEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, memory-mapped columnar copy of the transaction table, used to
+ * recompute reward points for every transaction without loading entities.
+ *
+ * The file holds a 64 byte header followed by three little-endian columns of
+ * {@code rows} values each, ordered by customer and day: customer IDs
+ * ({@code long}), epoch days ({@code int}) and amounts in cents
+ * ({@code long}), 20 bytes per transaction. Columns are mapped in regions of
+ * at most {@link #DEFAULT_ROWS_PER_REGION} rows, since one mapping cannot
+ * exceed 2 GB; the same rows fall into the same region of every column.
+ *
+ * The mappings stay valid until the instance is garbage collected. Instances
+ * are immutable and may be read by any number of threads.
+ */
+public final class TransactionSnapshot {
+
+	/** Rows per mapped region: 512 MB of the wider columns. */
+	public static final int DEFAULT_ROWS_PER_REGION = 1 << 26;
+
+	static final int HEADER_BYTES = 64;
+
+	private static final long MAGIC = 0x31504e5344575252L;
+
+	private static final int VERSION = 1;
+
+	private final long rows;
+
+	private final long createdAtMillis;
+
+	private final int rowsPerRegion;
+
+	private final LongBuffer[] customerIds;
+
+	private final IntBuffer[] epochDays;
+
+	private final LongBuffer[] amountCents;
+
+	private TransactionSnapshot(long rows, long createdAtMillis, int rowsPerRegion, LongBuffer[] customerIds,
+			IntBuffer[] epochDays, LongBuffer[] amountCents) {
+		this.rows = rows;
+		this.createdAtMillis = createdAtMillis;
+		this.rowsPerRegion = rowsPerRegion;
+		this.customerIds = customerIds;
+		this.epochDays = epochDays;
+		this.amountCents = amountCents;
+	}
+
+	/**
+	 * Maps a snapshot file with the default region size.
+	 *
+	 * @param file the snapshot file
+	 * @return the snapshot
+	 * @throws IOException if the file cannot be read or is not a snapshot
+	 */
+	public static TransactionSnapshot open(Path file) throws IOException {
+		return open(file, DEFAULT_ROWS_PER_REGION);
+	}
+
+	/**
+	 * Maps a snapshot file.
+	 *
+	 * @param file          the snapshot file
+	 * @param rowsPerRegion rows per mapped region, at most
+	 *                      {@link #DEFAULT_ROWS_PER_REGION}
+	 * @return the snapshot
+	 * @throws IOException if the file cannot be read or is not a snapshot
+	 */
+	public static TransactionSnapshot open(Path file, int rowsPerRegion) throws IOException {
+		if (rowsPerRegion < 1 || rowsPerRegion > DEFAULT_ROWS_PER_REGION) {
+			throw new IllegalArgumentException("rowsPerRegion must be between 1 and " + DEFAULT_ROWS_PER_REGION);
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_BYTES) {
+				throw new IOException(file + " is not a transaction snapshot");
+			}
+			ByteBuffer header = map(channel, 0, HEADER_BYTES);
+			if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+				throw new IOException(file + " is not a transaction snapshot");
+			}
+			long rows = header.getLong(16);
+			if (rows < 0 || channel.size() != amountCentsOffset(rows) + rows * Long.BYTES) {
+				throw new IOException(file + " is truncated");
+			}
+
+			int regions = (int) ((rows + rowsPerRegion - 1) / rowsPerRegion);
+			LongBuffer[] customerIds = new LongBuffer[regions];
+			IntBuffer[] epochDays = new IntBuffer[regions];
+			LongBuffer[] amountCents = new LongBuffer[regions];
+			for (int region = 0; region < regions; region++) {
+				long first = (long) region * rowsPerRegion;
+				int length = (int) Math.min(rowsPerRegion, rows - first);
+				customerIds[region] = map(channel, customerIdsOffset() + first * Long.BYTES, length * (long) Long.BYTES)
+						.asLongBuffer();
+				epochDays[region] = map(channel, epochDaysOffset(rows) + first * Integer.BYTES,
+						length * (long) Integer.BYTES).asIntBuffer();
+				amountCents[region] = map(channel, amountCentsOffset(rows) + first * Long.BYTES,
+						length * (long) Long.BYTES).asLongBuffer();
+			}
+			return new TransactionSnapshot(rows, header.getLong(24), rowsPerRegion, customerIds, epochDays,
+					amountCents);
+		}
+	}
+
+	/**
+	 * @return number of transactions in the snapshot
+	 */
+	public long rows() {
+		return rows;
+	}
+
+	/**
+	 * @return when the snapshot was written, in epoch milliseconds
+	 */
+	public long createdAtMillis() {
+		return createdAtMillis;
+	}
+
+	/**
+	 * Recomputes the points of every transaction with a reward plan, boosts
+	 * included, and totals them per customer and month. Points are calculated
+	 * in integer cents straight from the mapped columns; nothing is allocated
+	 * per transaction. The rows are split into ranges that do not cut through a
+	 * customer, and each range is aggregated on its own thread. The ranges run
+	 * in a {@link ForkJoinPool} created for the call with {@code parallelism}
+	 * threads, not the common pool, so the setting holds whatever the common
+	 * pool is sized to and other users of it are not starved.
+	 *
+	 * @param plan        the reward plan
+	 * @param parallelism number of ranges aggregated concurrently, and of threads
+	 * @param consumer    receives each customer and month; called concurrently
+	 *                    from different ranges
+	 * @return totals over all customers, monthly cap applied
+	 */
+	public RecomputationResult recompute(RewardPlan plan, int parallelism, MonthlyPointsConsumer consumer) {
+		long start = System.nanoTime();
+		int threads = Math.max(1, parallelism);
+		long[] bounds = rangeBounds(threads);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		Totals totals;
+		try {
+			// A parallel stream started inside a pool runs its tasks in that pool
+			totals = pool.submit(() -> IntStream.range(0, bounds.length - 1).parallel()
+					.mapToObj(range -> aggregate(bounds[range], bounds[range + 1], plan, consumer))
+					.reduce(new Totals(0, 0, 0), Totals::plus)).join();
+		} finally {
+			pool.shutdown();
+		}
+
+		long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+		return new RecomputationResult(rows, totals.customers(), totals.customerMonths(), totals.points(),
+				elapsedNanos / 1_000_000, rows * 1_000_000_000d / elapsedNanos);
+	}
+
+	static ByteBuffer header(long rows, long createdAtMillis) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		header.putLong(0, MAGIC).putInt(8, VERSION).putLong(16, rows).putLong(24, createdAtMillis);
+		return header;
+	}
+
+	static long customerIdsOffset() {
+		return HEADER_BYTES;
+	}
+
+	static long epochDaysOffset(long rows) {
+		return customerIdsOffset() + rows * Long.BYTES;
+	}
+
+	/**
+	 * Start of the amounts, aligned to 8 bytes after the epoch days.
+	 */
+	static long amountCentsOffset(long rows) {
+		return (epochDaysOffset(rows) + rows * Integer.BYTES + 7) & ~7L;
+	}
+
+	private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Splits the rows into ranges of about equal size, moving each boundary
+	 * forward to the next customer.
+	 */
+	private long[] rangeBounds(int parallelism) {
+		int ranges = (int) Math.max(1, Math.min(parallelism, rows));
+		long[] bounds = new long[ranges + 1];
+		for (int i = 1; i < ranges; i++) {
+			long bound = Math.max(bounds[i - 1], rows * i / ranges);
+			while (bound > 0 && bound < rows && customerId(bound) == customerId(bound - 1)) {
+				bound++;
+			}
+			bounds[i] = bound;
+		}
+		bounds[ranges] = rows;
+		return bounds;
+	}
+
+	private long customerId(long row) {
+		return customerIds[(int) (row / rowsPerRegion)].get((int) (row % rowsPerRegion));
+	}
+
+	private Totals aggregate(long from, long to, RewardPlan plan, MonthlyPointsConsumer consumer) {
+		long customers = 0;
+		long customerMonths = 0;
+		long totalPoints = 0;
+
+		long customerId = 0;
+		int epochMonth = 0;
+		// Epoch days of the current month, [monthStart, monthEnd)
+		int monthStart = Integer.MAX_VALUE;
+		int monthEnd = Integer.MIN_VALUE;
+		long transactionCount = 0;
+		long monthPoints = 0;
+
+		for (long row = from; row < to;) {
+			int region = (int) (row / rowsPerRegion);
+			int offset = (int) (row % rowsPerRegion);
+			int end = (int) Math.min(rowsPerRegion, offset + (to - row));
+			LongBuffer ids = customerIds[region];
+			IntBuffer days = epochDays[region];
+			LongBuffer cents = amountCents[region];
+
+			for (int i = offset; i < end; i++) {
+				long id = ids.get(i);
+				int day = days.get(i);
+				boolean newCustomer = transactionCount == 0 || id != customerId;
+				if (newCustomer || day < monthStart || day >= monthEnd) {
+					if (transactionCount > 0) {
+						consumer.accept(customerId, epochMonth, transactionCount, monthPoints);
+						customerMonths++;
+						totalPoints += plan.capMonth(monthPoints);
+						transactionCount = 0;
+						monthPoints = 0;
+					}
+					if (newCustomer) {
+						customers++;
+						customerId = id;
+					}
+					if (day < monthStart || day >= monthEnd) {
+						LocalDate first = LocalDate.ofEpochDay(day).withDayOfMonth(1);
+						epochMonth = RewardEngine.epochMonth(first.getYear(), first.getMonthValue());
+						monthStart = (int) first.toEpochDay();
+						monthEnd = (int) first.plusMonths(1).toEpochDay();
+					}
+				}
+				transactionCount++;
+				monthPoints += plan.boost(plan.pointsCents(cents.get(i)), day);
+			}
+			row += end - offset;
+		}
+		if (transactionCount > 0) {
+			consumer.accept(customerId, epochMonth, transactionCount, monthPoints);
+			customerMonths++;
+			totalPoints += plan.capMonth(monthPoints);
+		}
+		return new Totals(customers, customerMonths, totalPoints);
+	}
+
+	private record Totals(long customers, long customerMonths, long points) {
+
+		private Totals plus(Totals other) {
+			return new Totals(customers + other.customers, customerMonths + other.customerMonths,
+					points + other.points);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.infy.snapshot;
+
+import com.infy.CustomerRewardsApplication;
+import com.infy.dto.RecomputationResult;
+import com.infy.dto.SnapshotSummary;
+import com.infy.exception.InvalidRequestException;
+import com.infy.repository.TransactionBatchRepository;
+import com.infy.rules.RewardPlan;
+import com.infy.service.RewardEngine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Dumps the transaction table into a {@link TransactionSnapshot} file and
+ * recomputes rewards from it. A recomputation reads no database rows, so
+ * candidate reward rules can be tried over the full history without loading
+ * the database or touching the reward ledger.
+ *
+ * The file is {@code rewards.snapshot.file}; a new dump replaces it
+ * atomically, and recomputations already running keep reading the previous
+ * one.
+ */
+@Component
+public class TransactionSnapshotService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerRewardsApplication.class);
+
+	private final TransactionBatchRepository transactionBatchRepository;
+
+	private final Path file;
+
+	private final int parallelism;
+
+	public TransactionSnapshotService(TransactionBatchRepository transactionBatchRepository,
+			@Value("${rewards.snapshot.file:snapshots/transactions.snap}") Path file,
+			@Value("${rewards.snapshot.parallelism:0}") int parallelism) {
+		this.transactionBatchRepository = transactionBatchRepository;
+		this.file = file;
+		this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Writes every transaction into a new snapshot file. Reads run in one
+	 * read-only transaction, so they see a consistent table and may be served
+	 * by a read replica.
+	 *
+	 * @return the file written
+	 * @throws UncheckedIOException if the file cannot be written
+	 */
+	@Transactional(readOnly = true)
+	public SnapshotSummary dump() {
+		long start = System.currentTimeMillis();
+		try (TransactionSnapshotWriter writer = new TransactionSnapshotWriter(file)) {
+			transactionBatchRepository.scanOrderedByCustomer(rs -> {
+				try {
+					writer.append(rs.getLong(1), (int) rs.getObject(2, LocalDate.class).toEpochDay(),
+							RewardEngine.toCents(rs.getDouble(3)));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			long bytes = writer.finish();
+			long elapsedMillis = System.currentTimeMillis() - start;
+			logger.info("Transaction snapshot of {} rows written to {} in {} ms", writer.rows(), file, elapsedMillis);
+			return new SnapshotSummary(file.toString(), writer.rows(), bytes, elapsedMillis);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Recomputes the rewards of every transaction in the snapshot file.
+	 *
+	 * @param plan the reward plan to apply
+	 * @return totals over all customers
+	 * @throws InvalidRequestException if no snapshot has been written yet
+	 * @throws UncheckedIOException    if the file cannot be read
+	 */
+	public RecomputationResult recompute(RewardPlan plan) {
+		return recompute(plan, MonthlyPointsConsumer.NONE);
+	}
+
+	/**
+	 * Recomputes the rewards of every transaction in the snapshot file, passing
+	 * the points of each customer and month to a consumer.
+	 *
+	 * @param plan     the reward plan to apply
+	 * @param consumer receives each customer and month, concurrently
+	 * @return totals over all customers
+	 * @throws InvalidRequestException if no snapshot has been written yet
+	 * @throws UncheckedIOException    if the file cannot be read
+	 */
+	public RecomputationResult recompute(RewardPlan plan, MonthlyPointsConsumer consumer) {
+		if (!Files.exists(file)) {
+			throw new InvalidRequestException("No transaction snapshot has been written yet.");
+		}
+		try {
+			RecomputationResult result = TransactionSnapshot.open(file).recompute(plan, parallelism, consumer);
+			logger.info("Rewards of {} transactions recomputed from snapshot in {} ms", result.rows(),
+					result.elapsedMillis());
+			return result;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.infy.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a {@link TransactionSnapshot} file. Rows are appended one at a time,
+ * ordered by customer and day, and each column is buffered into a temporary
+ * file of its own; {@link #finish()} joins the header and the columns into the
+ * snapshot file and moves it into place, so readers never see a partial file.
+ * Instances are not thread-safe.
+ */
+public final class TransactionSnapshotWriter implements Closeable {
+
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	private final Path target;
+
+	private final Column customerIds;
+
+	private final Column epochDays;
+
+	private final Column amountCents;
+
+	private long rows;
+
+	private long lastCustomerId = Long.MIN_VALUE;
+
+	private int lastEpochDay = Integer.MIN_VALUE;
+
+	/**
+	 * @param target the snapshot file to write; replaced by {@link #finish()}
+	 * @throws IOException if the temporary column files cannot be created
+	 */
+	public TransactionSnapshotWriter(Path target) throws IOException {
+		this.target = target.toAbsolutePath();
+		Files.createDirectories(this.target.getParent());
+		this.customerIds = new Column("customer-ids");
+		this.epochDays = new Column("epoch-days");
+		this.amountCents = new Column("amount-cents");
+	}
+
+	/**
+	 * Appends one transaction.
+	 *
+	 * @param customerId  the customer ID
+	 * @param epochDay    the day of the transaction, see
+	 *                    {@link java.time.LocalDate#toEpochDay()}
+	 * @param amountCents the amount in cents
+	 * @throws IllegalArgumentException if the row is not ordered after the
+	 *                                  previous one by customer and day
+	 * @throws IOException              if a column cannot be written
+	 */
+	public void append(long customerId, int epochDay, long amountCents) throws IOException {
+		if (customerId < lastCustomerId || (customerId == lastCustomerId && epochDay < lastEpochDay)) {
+			throw new IllegalArgumentException("Snapshot rows must be ordered by customer ID and date");
+		}
+		lastCustomerId = customerId;
+		lastEpochDay = epochDay;
+		customerIds.putLong(customerId);
+		epochDays.putInt(epochDay);
+		this.amountCents.putLong(amountCents);
+		rows++;
+	}
+
+	/**
+	 * Writes the snapshot file and moves it over the target.
+	 *
+	 * @return size of the snapshot file in bytes
+	 * @throws IOException if the file cannot be written
+	 */
+	public long finish() throws IOException {
+		customerIds.flush();
+		epochDays.flush();
+		amountCents.flush();
+
+		Path partial = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".partial");
+		try {
+			try (FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+				writeFully(out, TransactionSnapshot.header(rows, System.currentTimeMillis()), 0);
+				customerIds.transferTo(out, TransactionSnapshot.customerIdsOffset());
+				epochDays.transferTo(out, TransactionSnapshot.epochDaysOffset(rows));
+				amountCents.transferTo(out, TransactionSnapshot.amountCentsOffset(rows));
+				out.force(true);
+			}
+			Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(partial);
+		}
+		return Files.size(target);
+	}
+
+	/**
+	 * @return number of rows appended so far
+	 */
+	public long rows() {
+		return rows;
+	}
+
+	/**
+	 * Deletes the temporary column files.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			customerIds.close();
+			epochDays.close();
+		} finally {
+			amountCents.close();
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * One column, buffered in little-endian order into a temporary file.
+	 */
+	private final class Column implements Closeable {
+
+		private final Path file;
+
+		private final FileChannel channel;
+
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+		private Column(String name) throws IOException {
+			this.file = Files.createTempFile(target.getParent(), name, ".column");
+			this.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.READ);
+		}
+
+		private void putLong(long value) throws IOException {
+			if (buffer.remaining() < Long.BYTES) {
+				flush();
+			}
+			buffer.putLong(value);
+		}
+
+		private void putInt(int value) throws IOException {
+			if (buffer.remaining() < Integer.BYTES) {
+				flush();
+			}
+			buffer.putInt(value);
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		private void transferTo(FileChannel out, long position) throws IOException {
+			long size = channel.size();
+			for (long copied = 0; copied < size;) {
+				copied += channel.transferTo(copied, size - copied, out.position(position + copied));
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				channel.close();
+			} finally {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+}
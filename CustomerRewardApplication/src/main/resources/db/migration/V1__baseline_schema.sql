@@ -0,0 +1,18 @@
+-- Schema of the original application, as generated by spring.jpa.hibernate.ddl-auto=update. Constraint names
+-- match the ones Hibernate generated, so databases created that way are baselined at this version and continue
+-- with V2.
+
+CREATE TABLE customer (
+	customer_id BIGINT NOT NULL AUTO_INCREMENT,
+	customer_name VARCHAR(255),
+	PRIMARY KEY (customer_id)
+);
+
+CREATE TABLE transaction (
+	transaction_id BIGINT NOT NULL AUTO_INCREMENT,
+	amount DOUBLE NOT NULL,
+	date DATE,
+	customer_id BIGINT,
+	PRIMARY KEY (transaction_id),
+	CONSTRAINT FKnbpjofb5abhjg5hiovi0t3k57 FOREIGN KEY (customer_id) REFERENCES customer (customer_id)
+);
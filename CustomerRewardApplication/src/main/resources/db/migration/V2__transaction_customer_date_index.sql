@@ -0,0 +1,4 @@
+-- Every reward, ledger and export query filters transactions by customer and date range. With this index such a
+-- query reads only the matching rows instead of every transaction of the customer.
+
+CREATE INDEX idx_transaction_customer_date ON transaction (customer_id, date);
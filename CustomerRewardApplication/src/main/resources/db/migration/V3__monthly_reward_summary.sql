@@ -0,0 +1,14 @@
+-- Monthly reward ledger: per customer and calendar month, the transaction count, amount sum and points. The key
+-- leads with the customer, then year and month, so ledger lookups by customer and month range are one range scan
+-- per customer.
+
+CREATE TABLE monthly_reward_summary (
+	customer_id BIGINT NOT NULL,
+	reward_year INTEGER NOT NULL,
+	reward_month INTEGER NOT NULL,
+	transaction_count BIGINT,
+	amount_sum DOUBLE,
+	points BIGINT,
+	first_transaction_id BIGINT,
+	PRIMARY KEY (customer_id, reward_year, reward_month)
+);
@@ -0,0 +1,7 @@
+-- Clients may tag each transaction with their own ID so a retried request can be recognised. The unique index
+-- makes a duplicate insert fail instead of recording the same transaction twice. NULLs do not collide, so
+-- transactions sent without an external ID behave as before.
+
+ALTER TABLE transaction ADD COLUMN external_id VARCHAR(64);
+
+CREATE UNIQUE INDEX uk_transaction_external_id ON transaction (external_id);
@@ -0,0 +1,13 @@
+-- Approximate reward analytics keep fixed-size sketches per calendar month of the transaction amounts and of the
+-- distinct active customers. They are written here periodically so a restart does not have to rebuild them from
+-- the transaction table. Sketches of monthly points are reloaded from the ledger instead.
+
+CREATE TABLE reward_analytics_sketch (
+	reward_year INTEGER NOT NULL,
+	reward_month INTEGER NOT NULL,
+	transaction_count BIGINT NOT NULL,
+	spend_sketch MEDIUMBLOB NOT NULL,
+	customer_sketch MEDIUMBLOB NOT NULL,
+	updated_at TIMESTAMP NOT NULL,
+	PRIMARY KEY (reward_year, reward_month)
+);
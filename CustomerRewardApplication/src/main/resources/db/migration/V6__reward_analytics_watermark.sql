@@ -0,0 +1,5 @@
+-- Stored analytics sketches record the highest transaction ID they cover, so a restart only replays the
+-- transactions written after the last persist. Rows stored before this column existed have no watermark and are
+-- rebuilt from the transaction table on the next startup.
+
+ALTER TABLE reward_analytics_sketch ADD COLUMN last_transaction_id BIGINT;
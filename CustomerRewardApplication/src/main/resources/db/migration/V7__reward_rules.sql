@@ -0,0 +1,13 @@
+-- The reward rules in effect, stored as the JSON accepted by PUT /api/rewards/rules, so that rules replaced at
+-- runtime survive a restart and reach every instance. The ledger's points always follow this definition. The
+-- version is raised by every replacement; configured holds the rewards.rules properties that were last put into
+-- effect, so a change to them is detected on startup. The application inserts the single row on its first start.
+
+CREATE TABLE reward_rules (
+	id INTEGER NOT NULL,
+	version BIGINT NOT NULL,
+	definition TEXT NOT NULL,
+	configured TEXT NOT NULL,
+	updated_at TIMESTAMP NOT NULL,
+	PRIMARY KEY (id)
+);
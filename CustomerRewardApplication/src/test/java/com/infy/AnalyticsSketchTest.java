@@ -0,0 +1,92 @@
+package com.infy;
+
+import com.infy.analytics.DistinctCountSketch;
+import com.infy.analytics.QuantileSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the analytics sketches. Quantiles and distinct counts of skewed
+ * random data are compared with exact values within the configured error.
+ */
+public class AnalyticsSketchTest {
+
+	/**
+	 * Test that every percentile of a long-tailed distribution is within the
+	 * relative accuracy of the exact value, also after merging and a round trip
+	 * through bytes.
+	 */
+	@Test
+	void testQuantilesWithinRelativeAccuracy() {
+		Random random = new Random(7);
+		long[] values = new long[100_000];
+		QuantileSketch first = new QuantileSketch(0.01);
+		QuantileSketch second = new QuantileSketch(0.01);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) Math.exp(random.nextGaussian() * 2 + 8);
+			(i % 2 == 0 ? first : second).add(values[i]);
+		}
+		first.merge(second);
+		QuantileSketch restored = QuantileSketch.fromBytes(first.toBytes());
+		Arrays.sort(values);
+
+		assertEquals(values.length, restored.count());
+		for (double quantile : new double[] { 0, 0.01, 0.25, 0.5, 0.9, 0.99, 0.999, 1 }) {
+			long exact = values[(int) (quantile * (values.length - 1))];
+			assertEquals(exact, restored.quantile(quantile), exact * 0.01 + 1, "quantile " + quantile);
+		}
+	}
+
+	/**
+	 * Test that removed values no longer count and that counts up to a bound
+	 * include zeros.
+	 */
+	@Test
+	void testRemoveAndCountAtMost() {
+		QuantileSketch sketch = new QuantileSketch(0.01);
+		sketch.add(0);
+		sketch.add(100);
+		sketch.add(5_000);
+		sketch.remove(100);
+		sketch.add(120);
+
+		assertEquals(3, sketch.count());
+		assertEquals(1, sketch.countAtMost(50));
+		assertEquals(2, sketch.countAtMost(1_000));
+		assertEquals(120, sketch.quantile(0.5), 1.2);
+		assertThrows(IllegalArgumentException.class, () -> sketch.add(-1));
+		assertThrows(IllegalArgumentException.class, () -> sketch.merge(new QuantileSketch(0.02)));
+	}
+
+	/**
+	 * Test that distinct counts are within three standard errors, ignore
+	 * repeated IDs and merge to the count of the union.
+	 */
+	@Test
+	void testDistinctCountWithinStandardError() {
+		DistinctCountSketch first = new DistinctCountSketch(14);
+		DistinctCountSketch second = new DistinctCountSketch(14);
+		for (long id = 1; id <= 200_000; id++) {
+			first.add(id);
+			first.add(id);
+			if (id > 100_000) {
+				second.add(id + 100_000);
+			}
+		}
+		assertEquals(200_000, first.estimate(), 200_000 * 3 * first.standardError());
+
+		first.merge(second);
+		DistinctCountSketch restored = DistinctCountSketch.fromBytes(first.toBytes());
+		assertEquals(300_000, restored.estimate(), 300_000 * 3 * restored.standardError());
+
+		DistinctCountSketch small = new DistinctCountSketch(14);
+		for (long id = 1; id <= 50; id++) {
+			small.add(id * 1_000_003);
+		}
+		assertEquals(50, small.estimate());
+	}
+}
@@ -0,0 +1,131 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Stress tests for concurrent writes to the same customers. Writers race with
+ * the same external IDs, which without ordering would reach the unique index
+ * at the same time and fail. Transactions are dated in 2038 so no other test
+ * data falls into the reward ranges used here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application.properties",
+		properties = "rewards.ingestion.lock-stripes=16")
+public class CustomerWriteLocksIntegrationTest {
+
+	private static final int THREADS = 8;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	/**
+	 * Test that concurrent imports of the same records for the same customers
+	 * save each record once, and that the ledger totals match.
+	 */
+	@Test
+	void testConcurrentImportsOfSameCustomers() throws Exception {
+		List<Long> customerIds = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			customerIds.add(addCustomer("""
+					{"customerName":"Lock","transaction":[{"amount":10.0,"date":"2038-01-05"}]}"""));
+		}
+		StringBuilder body = new StringBuilder();
+		for (int j = 0; j < 100; j++) {
+			body.append("{\"customerId\":").append(customerIds.get(j % 4)).append(",\"amount\":120.0,\"date\":\"2038-02-")
+					.append(String.format("%02d", j % 28 + 1)).append("\",\"externalId\":\"lock-").append(j)
+					.append("\"}\n");
+		}
+
+		List<JsonNode> results = concurrently(() -> objectMapper.readTree(mockMvc
+				.perform(post("/api/rewards/transactions/import").contentType(MediaType.APPLICATION_NDJSON)
+						.content(body.toString()))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString()));
+
+		assertEquals(100, results.stream().mapToInt(result -> result.get("recordsImported").asInt()).sum());
+		assertEquals(100 * (THREADS - 1),
+				results.stream().mapToInt(result -> result.get("duplicatesSkipped").asInt()).sum());
+		for (Long customerId : customerIds) {
+			assertEquals(26, transactionRepository.findByCustomerCustomerId(customerId).size());
+			mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", "2038-01-01")
+					.param("endDate", "2038-02-28")).andExpect(status().isOk())
+					.andExpect(jsonPath("$['Total Rewards']").value(25 * 90));
+		}
+
+		mockMvc.perform(get("/api/rewards/ingestion/locks/stats")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.stripes").value(16)).andExpect(jsonPath("$.held").value(0));
+	}
+
+	/**
+	 * Test that concurrent retries adding new transactions to one customer all
+	 * succeed and add each transaction once.
+	 */
+	@Test
+	void testConcurrentRetriesOfSameCustomer() throws Exception {
+		long customerId = addCustomer("""
+				{"customerName":"Retry","transaction":[{"amount":120.0,"date":"2038-03-05","externalId":"retry-1"}]}""");
+		String retry = """
+				{"customerName":"Retry","transaction":[
+				{"amount":120.0,"date":"2038-03-05","externalId":"retry-1"},
+				{"amount":130.0,"date":"2038-03-06","externalId":"retry-2"},
+				{"amount":140.0,"date":"2038-03-07","externalId":"retry-3"}]}""";
+
+		List<Long> owners = concurrently(() -> addCustomer(retry));
+
+		assertTrue(owners.stream().allMatch(owner -> owner == customerId));
+		assertEquals(3, transactionRepository.findByCustomerCustomerId(customerId).size());
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", "2038-03-01")
+				.param("endDate", "2038-03-31")).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(90 + 110 + 130));
+	}
+
+	private <T> List<T> concurrently(Callable<T> write) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(write));
+			}
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private long addCustomer(String body) throws Exception {
+		String response = mockMvc
+				.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(response).get("customerId").asLong();
+	}
+}
@@ -0,0 +1,130 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for read-replica routing. A second in-memory H2 database
+ * stands in for the replica; it is not replicated to, so data written to only
+ * one of the two databases shows which one served a read. Transactions are
+ * dated in 2036 and read over partial months, so rewards are aggregated from
+ * the transaction rows rather than the ledger.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application.properties", properties = {
+		"rewards.datasource.replicas[0].url=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+		"rewards.datasource.replicas[0].username=sa", "rewards.datasource.replicas[0].password=",
+		"rewards.datasource.read-your-writes-window=1s" })
+public class ReplicaRoutingIntegrationTest {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:Rewards_Replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate primary;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private JdbcTemplate replica;
+
+	@BeforeEach
+	void setup() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		replica = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Test that a reward calculation is served by the replica.
+	 */
+	@Test
+	void testRewardsReadFromReplica() throws Exception {
+		long customerId = 900_001;
+		insertCustomer(replica, customerId, 120.0, "2036-01-10");
+		double replicaConnections = connections("replica-0");
+
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", "2036-01-02")
+				.param("endDate", "2036-01-30")).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(90));
+
+		assertEquals(0, primary.queryForObject("SELECT COUNT(*) FROM customer WHERE customer_id = ?", Long.class,
+				customerId));
+		assertTrue(connections("replica-0") > replicaConnections);
+	}
+
+	/**
+	 * Test that a customer's reads stay on the primary right after a write, and
+	 * move to the replica once the read-your-writes window has passed.
+	 */
+	@Test
+	void testReadYourWritesWindow() throws Exception {
+		String response = mockMvc.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"customerName":"Vera","transaction":[{"amount":120.0,"date":"2036-02-10"}]}"""))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		long customerId = objectMapper.readTree(response).get("customerId").asLong();
+
+		// The replica lags behind and still has an older transaction
+		insertCustomer(replica, customerId, 60.0, "2036-02-10");
+
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", "2036-02-02")
+				.param("endDate", "2036-02-27")).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(90));
+
+		Thread.sleep(1500);
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", "2036-02-03")
+				.param("endDate", "2036-02-27")).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(10));
+	}
+
+	/**
+	 * Test that destroying the routing data source closes the replica pools it
+	 * owns and leaves the primary open.
+	 */
+	@Test
+	void testDestroyClosesReplicaPools() throws Exception {
+		try (HikariDataSource primaryPool = new HikariDataSource();
+				HikariDataSource replicaPool = new HikariDataSource()) {
+			new ReplicaRoutingDataSource(primaryPool, List.of(replicaPool), meterRegistry).destroy();
+
+			assertTrue(replicaPool.isClosed());
+			assertFalse(primaryPool.isClosed());
+		}
+	}
+
+	private void insertCustomer(JdbcTemplate database, long customerId, double amount, String date) {
+		database.update("INSERT INTO customer (customer_id, customer_name) VALUES (?, ?)", customerId, "Replica");
+		database.update("INSERT INTO transaction (amount, date, customer_id) VALUES (?, ?, ?)", amount,
+				java.sql.Date.valueOf(date), customerId);
+	}
+
+	private double connections(String target) {
+		return meterRegistry.get("rewards.datasource.connections").tag("target", target).counter().count();
+	}
+}
@@ -0,0 +1,193 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.analytics.RewardAnalytics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the approximate reward analytics. Transactions are
+ * dated in 2040 and 2041 so the months reported only hold the customers added here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource("classpath:application.properties")
+public class RewardAnalyticsIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private RewardAnalytics rewardAnalytics;
+
+	/**
+	 * Test that writes update the distribution of spend, monthly points and
+	 * active customers, including a customer whose monthly points grow, and that
+	 * rebuilding and reloading the sketches reports the same.
+	 */
+	@Test
+	void testDistributionFollowsWrites() throws Exception {
+		addCustomer("""
+				{"customerName":"Ana","transaction":[
+				{"amount":120.0,"date":"2040-01-10","externalId":"analytics-1"}]}""");
+		addCustomer("""
+				{"customerName":"Ana","transaction":[{"amount":120.0,"date":"2040-01-10","externalId":"analytics-1"},
+				{"amount":75.0,"date":"2040-01-20","externalId":"analytics-2"}]}""");
+		addCustomer("""
+				{"customerName":"Bo","transaction":[{"amount":200.0,"date":"2040-01-11"},
+				{"amount":100.0,"date":"2040-02-01"}]}""");
+		addCustomer("""
+				{"customerName":"Cyd","transaction":[{"amount":40.0,"date":"2040-01-12"}]}""");
+
+		expectJanuary(report("2040-01", "2040-01"));
+		JsonNode quarter = report("2040-01", "2040-03");
+		assertEquals(5, quarter.get("transactions").asLong());
+		assertEquals(3, quarter.get("activeCustomers").asLong());
+		assertEquals(4, quarter.get("customerMonths").asLong());
+
+		rewardAnalytics.rebuild();
+		expectJanuary(report("2040-01", "2040-01"));
+		rewardAnalytics.persist();
+		rewardAnalytics.load();
+		expectJanuary(report("2040-01", "2040-01"));
+	}
+
+	/**
+	 * Test that loading replays the transactions written after the sketches
+	 * were persisted, and that loading again without persisting does not count
+	 * them twice.
+	 */
+	@Test
+	void testLoadReplaysWritesAfterPersist() throws Exception {
+		addCustomer("""
+				{"customerName":"Dee","transaction":[{"amount":120.0,"date":"2041-03-10"}]}""");
+		rewardAnalytics.persist();
+		addCustomer("""
+				{"customerName":"Eli","transaction":[{"amount":60.0,"date":"2041-03-11"},
+				{"amount":80.0,"date":"2041-04-02"}]}""");
+
+		for (int i = 0; i < 2; i++) {
+			rewardAnalytics.load();
+			JsonNode report = report("2041-03", "2041-04");
+			assertEquals(3, report.get("transactions").asLong());
+			assertEquals(2, report.get("activeCustomers").asLong());
+			assertEquals(3, report.get("customerMonths").asLong());
+			assertEquals(90, report.get("monthlyPoints").get("p100").asLong(), 1);
+		}
+		rewardAnalytics.persist();
+		rewardAnalytics.load();
+		assertEquals(3, report("2041-03", "2041-04").get("transactions").asLong());
+	}
+
+	/**
+	 * Test that writes committing while the sketches are persisted, with and
+	 * without waiting for writes in progress, and loaded again are neither lost
+	 * nor counted twice.
+	 */
+	@Test
+	void testWritesDuringLoad() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> writes = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			String body = """
+					{"customerName":"Fay","transaction":[{"amount":%s,"date":"2041-05-15"}]}""".formatted(101.0 + i);
+			writes.add(executor.submit(() -> {
+				addCustomer(body);
+				return null;
+			}));
+		}
+		AtomicBoolean writing = new AtomicBoolean(true);
+		Future<?> loads = Executors.newSingleThreadExecutor().submit(() -> {
+			while (writing.get()) {
+				rewardAnalytics.persistIfIdle();
+				rewardAnalytics.load();
+				rewardAnalytics.persist();
+				rewardAnalytics.load();
+			}
+		});
+		for (Future<?> write : writes) {
+			write.get();
+		}
+		writing.set(false);
+		loads.get();
+		executor.shutdown();
+
+		JsonNode report = report("2041-05", "2041-05");
+		assertEquals(40, report.get("transactions").asLong());
+		assertEquals(40, report.get("activeCustomers").asLong(), 1);
+		assertEquals(40, report.get("customerMonths").asLong());
+		assertEquals(130, report.get("monthlyPoints").get("p100").asLong(), 2);
+		assertEquals(141, report.get("spend").get("p100").asDouble(), 141 * 0.01);
+	}
+
+	/**
+	 * Test that invalid months, ranges and percentiles are rejected.
+	 */
+	@Test
+	void testInvalidRequest() throws Exception {
+		mockMvc.perform(get("/api/rewards/analytics").param("from", "2040-13")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Analytics months must be formatted as yyyy-MM."));
+		mockMvc.perform(get("/api/rewards/analytics").param("from", "2040-02").param("to", "2040-01"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Start month cannot be after end month."));
+		mockMvc.perform(get("/api/rewards/analytics").param("from", "2000-01")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Analytics month 2000-01 is no longer retained."));
+		mockMvc.perform(get("/api/rewards/analytics").param("from", "2040-01").param("percentiles", "0"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Percentiles must be numbers above 0 and at most 100."));
+	}
+
+	/**
+	 * January: spend 120, 75, 200 and 40; monthly points 115, 250 and 0.
+	 */
+	private void expectJanuary(JsonNode report) {
+		assertEquals(4, report.get("transactions").asLong());
+		assertEquals(3, report.get("activeCustomers").asLong());
+		assertEquals(3, report.get("customerMonths").asLong());
+		assertEquals(115, report.get("monthlyPoints").get("p50").asLong(), 115 * 0.01);
+		assertEquals(250, report.get("monthlyPoints").get("p100").asLong(), 250 * 0.01);
+		assertEquals(75, report.get("spend").get("p50").asDouble(), 75 * 0.01);
+		assertEquals(200, report.get("spend").get("p100").asDouble(), 200 * 0.01);
+
+		JsonNode histogram = report.get("spendHistogram");
+		assertEquals(7, histogram.size());
+		long[] expected = { 0, 1, 1, 2, 0, 0, 0 };
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], histogram.get(i).get("transactions").asLong(), "bucket " + i);
+		}
+		assertTrue(histogram.get(6).get("to").isNull());
+	}
+
+	private JsonNode report(String from, String to) throws Exception {
+		return objectMapper.readTree(mockMvc
+				.perform(get("/api/rewards/analytics").param("from", from).param("to", to).param("percentiles",
+						"50,100"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.relativeAccuracy").value(0.01)).andReturn()
+				.getResponse().getContentAsString());
+	}
+
+	private void addCustomer(String body) throws Exception {
+		mockMvc.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated());
+	}
+}
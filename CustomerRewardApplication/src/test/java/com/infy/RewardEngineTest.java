@@ -0,0 +1,107 @@
+package com.infy;
+
+import com.infy.dto.MonthlyReward;
+import com.infy.model.Transaction;
+import com.infy.rules.RewardPlan;
+import com.infy.service.RewardEngine;
+import com.infy.service.RewardEngine.MonthlyBuckets;
+import com.infy.service.RewardEngine.MonthlyPoints;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the in-memory reward engine. Verifies that the parallel and
+ * sequential modes agree with each other and with a plain stream grouping.
+ */
+public class RewardEngineTest {
+
+	private final RewardEngine rewardEngine = new RewardEngine(10000);
+
+	/**
+	 * Test that both modes return the same months, in first-seen order, with the
+	 * same counts and points as grouping the transactions with a collector.
+	 */
+	@Test
+	void testParallelMatchesSequentialAndGrouping() {
+		List<Transaction> transactions = randomTransactions(200_000, 42);
+
+		List<MonthlyPoints> sequential = rewardEngine.aggregateSequential(transactions);
+		List<MonthlyPoints> parallel = rewardEngine.aggregateParallel(transactions);
+
+		assertEquals(sequential, parallel);
+		assertEquals(sequential, rewardEngine.aggregate(transactions));
+
+		Map<YearMonth, Long> expected = transactions.stream().collect(Collectors.groupingBy(
+				t -> YearMonth.from(t.getDate()), LinkedHashMap::new,
+				Collectors.summingLong(t -> RewardPlan.DEFAULT.points(t.getAmount()))));
+		assertEquals(new ArrayList<>(expected.keySet()), sequential.stream().map(MonthlyPoints::month).toList());
+		assertEquals(new ArrayList<>(expected.values()), sequential.stream().map(MonthlyPoints::points).toList());
+		assertEquals(transactions.size(), sequential.stream().mapToLong(MonthlyPoints::transactionCount).sum());
+	}
+
+	/**
+	 * Test that the columnar path over reused buckets gives the same months as
+	 * aggregating Transaction objects, and that the breakdown merges months of
+	 * different years by name in first-seen order.
+	 */
+	@Test
+	void testColumnarPathMatchesTransactionPath() {
+		List<Transaction> transactions = randomTransactions(5_000, 7);
+		int[] epochMonths = new int[transactions.size()];
+		int[] epochDays = new int[transactions.size()];
+		long[] amountCents = new long[transactions.size()];
+		for (int i = 0; i < transactions.size(); i++) {
+			epochMonths[i] = RewardEngine.epochMonth(transactions.get(i).getDate());
+			epochDays[i] = (int) transactions.get(i).getDate().toEpochDay();
+			amountCents[i] = RewardEngine.toCents(transactions.get(i).getAmount());
+		}
+
+		MonthlyBuckets buckets = new MonthlyBuckets();
+		RewardEngine.accumulate(epochMonths, epochDays, amountCents, 10, RewardPlan.DEFAULT, buckets);
+		buckets.clear();
+		RewardEngine.accumulate(epochMonths, epochDays, amountCents, epochMonths.length, RewardPlan.DEFAULT,
+				buckets);
+
+		assertEquals(rewardEngine.aggregateSequential(transactions), buckets.toList());
+
+		Map<String, Integer> expected = transactions.stream()
+				.collect(Collectors.groupingBy(t -> t.getDate().getMonth().toString(), LinkedHashMap::new,
+						Collectors.summingInt(t -> RewardPlan.DEFAULT.points(t.getAmount()))));
+		List<MonthlyReward> breakdown = buckets.toBreakdown();
+		assertEquals(new ArrayList<>(expected.keySet()), breakdown.stream().map(MonthlyReward::month).toList());
+		assertEquals(new ArrayList<>(expected.values()), breakdown.stream().map(MonthlyReward::points).toList());
+		assertEquals(expected.values().stream().mapToInt(Integer::intValue).sum(),
+				buckets.toSummary(null).totalRewards());
+	}
+
+	/**
+	 * Test that an empty input produces no months in either mode.
+	 */
+	@Test
+	void testEmptyInput() {
+		assertTrue(rewardEngine.aggregateSequential(List.of()).isEmpty());
+		assertTrue(rewardEngine.aggregateParallel(List.of()).isEmpty());
+	}
+
+	private List<Transaction> randomTransactions(int count, long seed) {
+		Random random = new Random(seed);
+		List<Transaction> transactions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Transaction transaction = new Transaction();
+			transaction.setAmount(Math.round(random.nextDouble() * 30000) / 100.0);
+			transaction.setDate(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(5 * 365)));
+			transactions.add(transaction);
+		}
+		return transactions;
+	}
+}
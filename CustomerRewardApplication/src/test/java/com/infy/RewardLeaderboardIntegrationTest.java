@@ -0,0 +1,173 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.service.RewardLeaderboard;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the rewards leaderboard. Transactions are dated in 2037
+ * so each period only holds the customers added here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource("classpath:application.properties")
+public class RewardLeaderboardIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private RewardLeaderboard rewardLeaderboard;
+
+	/**
+	 * Test that the top customers of a month are returned in order of points,
+	 * both as updated by writes and as reloaded from the ledger.
+	 */
+	@Test
+	void testMonthRanking() throws Exception {
+		long second = addCustomer("Ada", 120.0, "2037-01-10");
+		long first = addCustomer("Ben", 200.0, "2037-01-11");
+		addCustomer("Cy", 80.0, "2037-01-12");
+
+		expectTopTwo("2037-01", first, second);
+		rewardLeaderboard.reload();
+		expectTopTwo("2037-01", first, second);
+	}
+
+	/**
+	 * Test that a quarter adds up the points of its months.
+	 */
+	@Test
+	void testQuarterSumsMonths() throws Exception {
+		String response = mockMvc.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"customerName":"Dee","transaction":[
+						{"amount":120.0,"date":"2037-04-10"},{"amount":120.0,"date":"2037-05-10"}]}"""))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		long customerId = objectMapper.readTree(response).get("customerId").asLong();
+		long other = addCustomer("Eli", 150.0, "2037-06-10");
+
+		mockMvc.perform(get("/api/rewards/leaderboard").param("period", "2037-Q2").param("k", "5"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.customers").value(2))
+				.andExpect(jsonPath("$.entries[0].customerId").value(customerId))
+				.andExpect(jsonPath("$.entries[0].points").value(180))
+				.andExpect(jsonPath("$.entries[1].customerId").value(other))
+				.andExpect(jsonPath("$.entries[1].points").value(150));
+	}
+
+	/**
+	 * Test that customers added concurrently are all ranked.
+	 */
+	@Test
+	void testConcurrentWrites() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Long>> customers = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			double amount = 101.0 + i;
+			customers.add(executor.submit(() -> addCustomer("Fay", amount, "2037-07-15")));
+		}
+		List<Long> customerIds = new ArrayList<>();
+		for (Future<Long> customer : customers) {
+			customerIds.add(customer.get());
+		}
+		executor.shutdown();
+
+		JsonNode leaderboard = objectMapper.readTree(mockMvc
+				.perform(get("/api/rewards/leaderboard").param("period", "2037-07").param("k", "3"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+		assertEquals(40, leaderboard.get("customers").asInt());
+		for (int rank = 0; rank < 3; rank++) {
+			JsonNode entry = leaderboard.get("entries").get(rank);
+			assertEquals(rank + 1, entry.get("rank").asInt());
+			assertEquals(customerIds.get(39 - rank), entry.get("customerId").asLong());
+			assertEquals(130 - 2 * rank, entry.get("points").asLong());
+		}
+	}
+
+	/**
+	 * Test that writes committed while the leaderboard reloads are neither lost
+	 * nor counted twice.
+	 */
+	@Test
+	void testWritesDuringReload() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Long>> customers = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			double amount = 101.0 + i;
+			customers.add(executor.submit(() -> addCustomer("Gus", amount, "2037-08-15")));
+		}
+		AtomicBoolean writing = new AtomicBoolean(true);
+		Future<?> reloads = Executors.newSingleThreadExecutor().submit(() -> {
+			while (writing.get()) {
+				rewardLeaderboard.reload();
+			}
+		});
+		List<Long> customerIds = new ArrayList<>();
+		for (Future<Long> customer : customers) {
+			customerIds.add(customer.get());
+		}
+		writing.set(false);
+		reloads.get();
+		executor.shutdown();
+
+		JsonNode leaderboard = objectMapper.readTree(mockMvc
+				.perform(get("/api/rewards/leaderboard").param("period", "2037-08").param("k", "40"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+		assertEquals(40, leaderboard.get("customers").asInt());
+		for (int rank = 0; rank < 40; rank++) {
+			JsonNode entry = leaderboard.get("entries").get(rank);
+			assertEquals(customerIds.get(39 - rank), entry.get("customerId").asLong());
+			assertEquals(130 - 2 * rank, entry.get("points").asLong());
+		}
+	}
+
+	/**
+	 * Test that an unknown period format and an out of range size are rejected.
+	 */
+	@Test
+	void testInvalidRequest() throws Exception {
+		mockMvc.perform(get("/api/rewards/leaderboard").param("period", "2037-13")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Leaderboard period must be month, quarter, yyyy-MM or yyyy-Qn."));
+		mockMvc.perform(get("/api/rewards/leaderboard").param("k", "0")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Leaderboard size must be between 1 and 1000."));
+	}
+
+	private void expectTopTwo(String period, long first, long second) throws Exception {
+		mockMvc.perform(get("/api/rewards/leaderboard").param("period", period).param("k", "2"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.period").value(period))
+				.andExpect(jsonPath("$.customers").value(3)).andExpect(jsonPath("$.entries.length()").value(2))
+				.andExpect(jsonPath("$.entries[0].customerId").value(first))
+				.andExpect(jsonPath("$.entries[0].points").value(250))
+				.andExpect(jsonPath("$.entries[1].customerId").value(second))
+				.andExpect(jsonPath("$.entries[1].points").value(90));
+	}
+
+	private long addCustomer(String name, double amount, String date) throws Exception {
+		String response = mockMvc.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"customerName":"%s","transaction":[{"amount":%s,"date":"%s"}]}""".formatted(name, amount, date)))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(response).get("customerId").asLong();
+	}
+}
@@ -0,0 +1,107 @@
+package com.infy;
+
+import com.infy.model.Customer;
+import com.infy.model.MonthlyRewardSummary;
+import com.infy.model.MonthlyRewardSummaryId;
+import com.infy.repository.MonthlyRewardSummaryRepository;
+import com.infy.service.RewardLedger;
+import com.infy.service.RewardsService;
+import com.infy.service.TransactionIngestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.infy.TestCustomers.newCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the incrementally maintained monthly reward ledger.
+ */
+@SpringBootTest
+@TestPropertySource("classpath:application.properties")
+public class RewardLedgerIntegrationTest {
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	@Autowired
+	private TransactionIngestionService transactionIngestionService;
+
+	@Autowired
+	private MonthlyRewardSummaryRepository monthlyRewardSummaryRepository;
+
+	@Autowired
+	private RewardLedger rewardLedger;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Test that saving a customer writes one summary row per month with the
+	 * transaction count, amount sum and points of that month.
+	 */
+	@Test
+	void testSaveCustomerUpdatesLedger() {
+		Customer saved = rewardsService.saveCustomer(newCustomer("Lena", new double[] { 120, 75, 200 },
+				LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 20), LocalDate.of(2024, 2, 5)));
+
+		MonthlyRewardSummary january = monthlyRewardSummaryRepository
+				.findById(new MonthlyRewardSummaryId(saved.getCustomerId(), 2024, 1)).orElseThrow();
+		assertEquals(2, january.getTransactionCount());
+		assertEquals(195.0, january.getAmountSum());
+		assertEquals(115, january.getPoints());
+
+		MonthlyRewardSummary february = monthlyRewardSummaryRepository
+				.findById(new MonthlyRewardSummaryId(saved.getCustomerId(), 2024, 2)).orElseThrow();
+		assertEquals(1, february.getTransactionCount());
+		assertEquals(250, february.getPoints());
+	}
+
+	/**
+	 * Test that bulk ingestion adds to existing ledger rows of the same month.
+	 */
+	@Test
+	void testBulkIngestionUpdatesLedger() {
+		Customer customer = newCustomer("Omar", new double[] { 60, 110 }, LocalDate.of(2024, 3, 1),
+				LocalDate.of(2024, 3, 31));
+		Long customerId = transactionIngestionService.ingestCustomers(List.of(customer)).getCustomerIds().get(0);
+
+		MonthlyRewardSummary march = monthlyRewardSummaryRepository
+				.findById(new MonthlyRewardSummaryId(customerId, 2024, 3)).orElseThrow();
+		assertEquals(2, march.getTransactionCount());
+		assertEquals(80, march.getPoints());
+	}
+
+	/**
+	 * Test that whole months are answered from the ledger while partial months
+	 * at the range edges are aggregated from raw transactions. A row inserted
+	 * behind the ledger's back is only visible through the raw path until the
+	 * ledger is rebuilt.
+	 */
+	@Test
+	void testWholeMonthsReadFromLedgerAndPartialMonthsFromTransactions() {
+		Customer saved = rewardsService.saveCustomer(
+				newCustomer("Kai", new double[] { 120 }, LocalDate.of(2024, 5, 10)));
+		jdbcTemplate.update("INSERT INTO transaction (amount, date, customer_id) VALUES (?, ?, ?)", 200.0,
+				LocalDate.of(2024, 5, 20), saved.getCustomerId());
+
+		assertEquals(90, rewardsService.calculateRewards(saved.getCustomerId(), LocalDate.of(2024, 5, 1),
+				LocalDate.of(2024, 5, 31)).get("Total Rewards"));
+		assertEquals(340, rewardsService.calculateRewards(saved.getCustomerId(), LocalDate.of(2024, 5, 2),
+				LocalDate.of(2024, 5, 31)).get("Total Rewards"));
+		assertEquals(90, rewardsService.calculateRewards(saved.getCustomerId(), LocalDate.of(2024, 4, 15),
+				LocalDate.of(2024, 6, 15)).get("Total Rewards"));
+		assertEquals(250, rewardsService.calculateRewards(saved.getCustomerId(), LocalDate.of(2024, 5, 15),
+				LocalDate.of(2024, 6, 30)).get("Total Rewards"));
+
+		rewardLedger.rebuild();
+
+		assertEquals(340, rewardsService.calculateRewards(saved.getCustomerId(), LocalDate.of(2024, 5, 1),
+				LocalDate.of(2024, 5, 31)).get("Total Rewards"));
+	}
+}
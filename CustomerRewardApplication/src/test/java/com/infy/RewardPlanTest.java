@@ -0,0 +1,144 @@
+package com.infy;
+
+import com.infy.rules.DateWindowBoostRule;
+import com.infy.rules.MonthlyCapRule;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.TierRule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compiled reward plan. Verifies that the default plan matches
+ * the application's original calculation and that tiers, boosts and caps compile as
+ * configured.
+ */
+public class RewardPlanTest {
+
+	/**
+	 * Test that the default plan returns the same points as the original
+	 * calculation, in doubles and in cents, for every amount with two decimals
+	 * up to 10,000.
+	 */
+	@Test
+	void testDefaultPlanMatchesOriginalCalculation() {
+		for (long cents = 0; cents <= 1_000_000; cents++) {
+			double amount = cents / 100.0;
+			assertEquals(originalPoints(amount), RewardPlan.DEFAULT.points(amount), "amount in cents: " + cents);
+			assertEquals(originalPoints(amount), RewardPlan.DEFAULT.pointsCents(cents), "amount in cents: " + cents);
+		}
+	}
+
+	/**
+	 * Test the tier boundaries of the default plan.
+	 */
+	@Test
+	void testDefaultPlanTiers() {
+		assertEquals(0, RewardPlan.DEFAULT.points(50));
+		assertEquals(1, RewardPlan.DEFAULT.points(51));
+		assertEquals(50, RewardPlan.DEFAULT.points(100));
+		assertEquals(52, RewardPlan.DEFAULT.points(101));
+		assertEquals(90, RewardPlan.DEFAULT.points(120));
+	}
+
+	/**
+	 * Test that tiers are sorted by threshold and each tier earns its rate up to
+	 * the next threshold.
+	 */
+	@Test
+	void testTiersCompileInThresholdOrder() {
+		RewardPlan plan = RewardPlan.builder()
+				.rules(List.of(tier("200", "3"), tier("50", "1"), tier("100", "1.5"))).build();
+
+		assertEquals(0, plan.points(50));
+		assertEquals(50, plan.points(100));
+		assertEquals(125, plan.points(150));
+		assertEquals(200, plan.points(200));
+		assertEquals(230, plan.points(210));
+		assertEquals(230, plan.pointsCents(21_000));
+	}
+
+	/**
+	 * Test that boosts apply inside their window only, including its first and
+	 * last day.
+	 */
+	@Test
+	void testBoostWindows() {
+		RewardPlan plan = RewardPlan.builder().rules(RewardPlan.DEFAULT_TIERS)
+				.rule(new DateWindowBoostRule(LocalDate.of(2024, 11, 29), LocalDate.of(2024, 12, 2),
+						new BigDecimal("1.5")))
+				.rule(new DateWindowBoostRule(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), new BigDecimal("2")))
+				.build();
+
+		assertEquals(90, plan.points(120, LocalDate.of(2024, 11, 28)));
+		assertEquals(135, plan.points(120, LocalDate.of(2024, 11, 29)));
+		assertEquals(135, plan.points(120, LocalDate.of(2024, 12, 2)));
+		assertEquals(90, plan.points(120, LocalDate.of(2024, 12, 3)));
+		assertEquals(180, plan.points(120, LocalDate.of(2024, 1, 1)));
+		assertEquals(90, plan.points(120, LocalDate.of(2023, 12, 31)));
+	}
+
+	/**
+	 * Test that the lowest monthly cap applies.
+	 */
+	@Test
+	void testMonthlyCap() {
+		RewardPlan plan = RewardPlan.builder().rules(RewardPlan.DEFAULT_TIERS).rule(new MonthlyCapRule(500))
+				.rule(new MonthlyCapRule(300)).build();
+
+		assertEquals(300, plan.capMonth(1000));
+		assertEquals(120, plan.capMonth(120));
+		assertEquals(Long.MAX_VALUE, RewardPlan.DEFAULT.capMonth(Long.MAX_VALUE));
+	}
+
+	/**
+	 * Test that the default plan renders the points expression the database
+	 * queries have always used.
+	 */
+	@Test
+	void testDefaultPointsExpression() {
+		assertEquals("CASE WHEN t.amount > 100 THEN FLOOR((t.amount - 100) * 2) + 50 "
+				+ "WHEN t.amount > 50 THEN FLOOR(t.amount - 50) ELSE 0 END",
+				RewardPlan.DEFAULT.pointsExpression("t.amount", "t.date"));
+	}
+
+	/**
+	 * Test that inconsistent rules are rejected when compiled.
+	 */
+	@Test
+	void testInvalidRulesRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> RewardPlan.builder().rules(List.of(tier("50", "1"), tier("50.00", "2"))).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> RewardPlan.builder().rule(tier("50", "1.005")).build());
+		assertThrows(IllegalArgumentException.class, () -> RewardPlan.builder().rule(tier("-1", "1")).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> RewardPlan.builder()
+						.rule(new DateWindowBoostRule(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 10),
+								BigDecimal.TEN))
+						.rule(new DateWindowBoostRule(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 20),
+								BigDecimal.TEN))
+						.build());
+	}
+
+	private static TierRule tier(String threshold, String rate) {
+		return new TierRule(new BigDecimal(threshold), new BigDecimal(rate));
+	}
+
+	/**
+	 * The calculation the application shipped with, before tiers were
+	 * configurable.
+	 */
+	private static int originalPoints(double amount) {
+		int points = 0;
+		if (amount > 100)
+			points += (amount - 100) * 2;
+		if (amount > 50)
+			points += (Math.min(amount, 100) - 50);
+		return points;
+	}
+}
@@ -0,0 +1,239 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.event.RewardRulesChangedEvent;
+import com.infy.repository.RewardRulesRepository;
+import com.infy.rules.RewardPlan;
+import com.infy.rules.RewardRule;
+import com.infy.rules.RewardRules;
+import com.infy.rules.RewardRulesProperties;
+import com.infy.service.RewardsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.infy.TestCustomers.newCustomer;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for replacing the reward rules at runtime. Transactions are
+ * dated in 2033 so data written by other tests stays out of the checked
+ * ranges; the default rules are restored after each test. Other instances
+ * sharing the database are simulated by further {@link RewardRules} objects.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource("classpath:application.properties")
+@Import(RewardRulesIntegrationTest.FailingRebuild.class)
+public class RewardRulesIntegrationTest {
+
+	private static final String PROMOTION = "{\"tiers\":[{\"threshold\":50,\"rate\":1},{\"threshold\":100,\"rate\":2}],"
+			+ "\"boosts\":[{\"from\":\"2033-11-29\",\"to\":\"2033-12-02\",\"multiplier\":1.5}],\"monthlyCap\":400}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	@Autowired
+	private RewardRules rewardRules;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private RewardRulesProperties configuredRules;
+
+	@Autowired
+	private ObjectProvider<RewardRule> ruleBeans;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private RewardRulesRepository rewardRulesRepository;
+
+	private Long customerId;
+
+	@BeforeEach
+	void setup() {
+		customerId = saveCustomer("Nora", new double[] { 120, 120, 300 }, LocalDate.of(2033, 11, 28),
+				LocalDate.of(2033, 11, 29), LocalDate.of(2033, 12, 15));
+	}
+
+	@AfterEach
+	void restoreDefaultRules() {
+		FailingRebuild.fail = false;
+		rewardRules.replace(new RewardRulesProperties());
+	}
+
+	/**
+	 * Test that replacing the rules recomputes ledger backed and partial month
+	 * rewards, drops cached responses, and changes the export the same way.
+	 */
+	@Test
+	void testReplacedRulesApplyToEveryPath() throws Exception {
+		expectTotal("2033-01-01", "2033-12-31", 630);
+
+		mockMvc.perform(put("/api/rewards/rules").contentType(MediaType.APPLICATION_JSON).content(PROMOTION))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.monthlyCap").value(400));
+
+		// November: 90 + 135 boosted; December: 450 capped at 400.
+		expectTotal("2033-01-01", "2033-12-31", 625);
+		expectTotal("2033-11-15", "2033-12-20", 625);
+
+		String body = mockMvc
+				.perform(get("/api/rewards/export").param("startDate", "2033-01-01").param("endDate", "2033-12-31"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		assertTrue(body.contains("{\"customerId\":" + customerId
+				+ ",\"customerName\":\"Nora\",\"transactionCount\":3,\"totalPoints\":625}"));
+	}
+
+	/**
+	 * Test that replaced rules are stored, so an instance started afterwards
+	 * with unchanged properties keeps them in effect.
+	 */
+	@Test
+	void testReplacedRulesSurviveRestart() throws Exception {
+		rewardRules.replace(objectMapper.readValue(PROMOTION, RewardRulesProperties.class));
+
+		RewardRules restarted = newInstance(configuredRules);
+		restarted.applyConfiguredRules();
+
+		assertEquals(400L, restarted.definition().getMonthlyCap());
+		assertEquals(400, restarted.plan().capMonth(450));
+	}
+
+	/**
+	 * Test that rules another instance puts into effect, here because its
+	 * configured properties changed, take effect here on the next refresh
+	 * together with the ledger it rebuilt.
+	 */
+	@Test
+	void testRulesReplacedByAnotherInstanceAreLoaded() throws Exception {
+		expectTotal("2033-01-01", "2033-12-31", 630);
+
+		try {
+			newInstance(objectMapper.readValue(PROMOTION, RewardRulesProperties.class)).applyConfiguredRules();
+			assertNull(rewardRules.definition().getMonthlyCap());
+
+			rewardRules.refresh();
+
+			assertEquals(400L, rewardRules.definition().getMonthlyCap());
+			expectTotal("2033-01-01", "2033-12-31", 625);
+			expectTotal("2033-11-15", "2033-12-20", 625);
+		} finally {
+			// Stores the configured properties as last put into effect again
+			newInstance(configuredRules).applyConfiguredRules();
+		}
+	}
+
+	/**
+	 * Test that invalid rules are rejected and leave the current rules in effect.
+	 */
+	@Test
+	void testInvalidRulesRejected() throws Exception {
+		mockMvc.perform(put("/api/rewards/rules").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"tiers\":[{\"threshold\":50,\"rate\":1.005}]}")).andExpect(status().isBadRequest())
+				.andExpect(content().string(containsString("Tier rate must have at most two decimals.")));
+
+		expectTotal("2033-01-01", "2033-12-31", 630);
+	}
+
+	/**
+	 * Test that a replacement waits for a write in progress, so the ledger
+	 * rebuild includes the write's transactions instead of the write adding
+	 * points under the old plan afterwards.
+	 */
+	@Test
+	void testReplacementWaitsForWriteInProgress() throws Exception {
+		RewardRulesProperties promotion = objectMapper.readValue(PROMOTION, RewardRulesProperties.class);
+		TransactionTemplate write = new TransactionTemplate(transactionManager);
+
+		CompletableFuture<RewardPlan> replacement = write.execute(status -> {
+			Long otherId = saveCustomer("Omar", new double[] { 120, 120, 300 }, LocalDate.of(2033, 11, 28),
+					LocalDate.of(2033, 11, 29), LocalDate.of(2033, 12, 15));
+			CompletableFuture<RewardPlan> replacing = CompletableFuture
+					.supplyAsync(() -> rewardRules.replace(promotion));
+			assertThrows(TimeoutException.class, () -> replacing.get(500, TimeUnit.MILLISECONDS));
+			customerId = otherId;
+			return replacing;
+		});
+		replacement.get(10, TimeUnit.SECONDS);
+
+		expectTotal("2033-01-01", "2033-12-31", 625);
+	}
+
+	/**
+	 * Test that rules whose ledger rebuild fails do not take effect.
+	 */
+	@Test
+	void testFailedRebuildKeepsCurrentRules() throws Exception {
+		FailingRebuild.fail = true;
+		RewardRulesProperties promotion = objectMapper.readValue(PROMOTION, RewardRulesProperties.class);
+
+		assertThrows(IllegalStateException.class, () -> rewardRules.replace(promotion));
+
+		assertNull(rewardRules.definition().getMonthlyCap());
+		expectTotal("2033-01-01", "2033-12-31", 630);
+	}
+
+	/**
+	 * Another instance, or this one after a restart, sharing the database.
+	 */
+	private RewardRules newInstance(RewardRulesProperties properties) {
+		return new RewardRules(properties, ruleBeans, eventPublisher, transactionManager, rewardRulesRepository,
+				objectMapper);
+	}
+
+	private void expectTotal(String startDate, String endDate, int points) throws Exception {
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", startDate)
+				.param("endDate", endDate)).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(points));
+	}
+
+	private Long saveCustomer(String name, double[] amounts, LocalDate... dates) {
+		return rewardsService.saveCustomer(newCustomer(name, amounts, dates)).getCustomerId();
+	}
+
+	/**
+	 * Fails the transaction of a rules replacement while {@code fail} is set.
+	 */
+	@TestConfiguration
+	static class FailingRebuild {
+
+		static volatile boolean fail;
+
+		@EventListener
+		void onRewardRulesChanged(RewardRulesChangedEvent event) {
+			if (fail) {
+				throw new IllegalStateException("Ledger rebuild failed");
+			}
+		}
+	}
+}
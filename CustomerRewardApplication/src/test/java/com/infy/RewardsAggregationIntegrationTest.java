@@ -0,0 +1,124 @@
+package com.infy;
+
+import com.infy.model.Customer;
+import com.infy.model.Transaction;
+import com.infy.repository.CustomerRepository;
+import com.infy.repository.TransactionRepository;
+import com.infy.rules.RewardPlan;
+import com.infy.service.RewardsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the database-side reward aggregation returns exactly what the
+ * original in-memory grouping of Transaction entities produced.
+ */
+@SpringBootTest
+@TestPropertySource("classpath:application.properties")
+public class RewardsAggregationIntegrationTest {
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	private static final double[] BOUNDARY_AMOUNTS = { 0.01, 49.99, 50, 50.01, 75.5, 99.99, 100, 100.01, 100.5,
+			120.75, 500 };
+
+	@BeforeEach
+	void setup() {
+		transactionRepository.deleteAll();
+		customerRepository.deleteAll();
+	}
+
+	/**
+	 * Saves a customer with transactions spread over several years, including
+	 * tier boundary amounts, and compares both aggregation paths over a set of
+	 * date ranges.
+	 */
+	@Test
+	void testDatabaseAggregationMatchesInMemoryAggregation() {
+		Random random = new Random(42);
+		Customer customer = new Customer();
+		customer.setCustomerName("Ada");
+
+		List<Transaction> transactions = new ArrayList<>();
+		for (double amount : BOUNDARY_AMOUNTS) {
+			transactions.add(newTransaction(customer, amount, LocalDate.of(2024, 3, 10)));
+		}
+		for (int i = 0; i < 300; i++) {
+			double amount = Math.round(random.nextDouble() * 30000) / 100.0 + 0.01;
+			LocalDate date = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(3 * 365));
+			transactions.add(newTransaction(customer, amount, date));
+		}
+		customer.setTransaction(transactions);
+		Customer saved = rewardsService.saveCustomer(customer);
+
+		LocalDate[][] ranges = { { LocalDate.of(2023, 1, 1), LocalDate.of(2025, 12, 31) },
+				{ LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31) },
+				{ LocalDate.of(2023, 11, 15), LocalDate.of(2024, 2, 14) },
+				{ LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 10) } };
+
+		for (LocalDate[] range : ranges) {
+			Map<String, Object> expected = calculateInMemory(saved.getCustomerId(), range[0], range[1]);
+			Map<String, Object> actual = rewardsService.calculateRewards(saved.getCustomerId(), range[0], range[1]);
+
+			assertEquals(expected.get("Rewards Breakdown"), actual.get("Rewards Breakdown"));
+			assertEquals(expected.get("Total Rewards"), actual.get("Total Rewards"));
+		}
+	}
+
+	/**
+	 * Original reward calculation: load every Transaction entity in the range and
+	 * group them in Java. The query has no defined row order, so transactions are
+	 * sorted by ID first, which orders the months by their first transaction as
+	 * the service does.
+	 */
+	private Map<String, Object> calculateInMemory(Long customerId, LocalDate startDate, LocalDate endDate) {
+		List<Transaction> transactions = transactionRepository.findByCustomerCustomerIdAndDateBetween(customerId,
+				startDate, endDate);
+
+		List<Map<String, Object>> rewardByMonth = transactions.stream()
+				.sorted(Comparator.comparing(Transaction::getTransactionId))
+				.collect(Collectors.groupingBy(t -> t.getDate().getMonth().toString(), LinkedHashMap::new,
+						Collectors.summingInt(t -> RewardPlan.DEFAULT.points(t.getAmount()))))
+				.entrySet().stream().map(entry -> {
+					Map<String, Object> map = new HashMap<>();
+					map.put("month", entry.getKey());
+					map.put("points", entry.getValue());
+					return map;
+				}).collect(Collectors.toList());
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("Rewards Breakdown", rewardByMonth);
+		response.put("Total Rewards", rewardByMonth.stream().mapToInt(m -> (int) m.get("points")).sum());
+		return response;
+	}
+
+	private Transaction newTransaction(Customer customer, double amount, LocalDate date) {
+		Transaction transaction = new Transaction();
+		transaction.setAmount(amount);
+		transaction.setDate(date);
+		transaction.setCustomer(customer);
+		return transaction;
+	}
+}
@@ -0,0 +1,142 @@
+package com.infy;
+
+import com.infy.dto.ImportFormat;
+import com.infy.dto.RewardSummary;
+import com.infy.model.Customer;
+import com.infy.service.RewardsCache;
+import com.infy.service.RewardsService;
+import com.infy.service.TransactionIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.infy.TestCustomers.newCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the reward response cache. Verifies hits for repeated
+ * requests and that no stale response is served after a write commits.
+ */
+@SpringBootTest
+@TestPropertySource("classpath:application.properties")
+public class RewardsCacheIntegrationTest {
+
+	private static final LocalDate START = LocalDate.of(2024, 1, 1);
+	private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	@Autowired
+	private TransactionIngestionService transactionIngestionService;
+
+	@Autowired
+	private RewardsCache rewardsCache;
+
+	private Customer customer;
+
+	@BeforeEach
+	void setup() {
+		customer = rewardsService.saveCustomer(newCustomer("Noor", 120, LocalDate.of(2024, 2, 10)));
+	}
+
+	/**
+	 * Test that a repeated request is a cache hit and callers cannot modify the
+	 * cached response.
+	 */
+	@Test
+	void testRepeatedRequestIsServedFromCache() {
+		long hits = (long) rewardsCache.stats().get("hits");
+
+		Map<String, Object> first = rewardsService.calculateRewards(customer.getCustomerId(), START, END);
+		first.put("Total Rewards", -1);
+		Map<String, Object> second = rewardsService.calculateRewards(customer.getCustomerId(), START, END);
+
+		assertEquals(90, second.get("Total Rewards"));
+		assertEquals(hits + 1, (long) rewardsCache.stats().get("hits"));
+	}
+
+	/**
+	 * Test that a write for the customer invalidates the cached response.
+	 */
+	@Test
+	void testWriteInvalidatesCachedResponse() {
+		assertEquals(90, rewardsService.calculateRewards(customer.getCustomerId(), START, END).get("Total Rewards"));
+
+		importTransaction(200.0);
+
+		assertEquals(340, rewardsService.calculateRewards(customer.getCustomerId(), START, END).get("Total Rewards"));
+	}
+
+	/**
+	 * Test that a response computed before a write is not served when its store
+	 * lands after the write committed and invalidated the customer, i.e. while
+	 * the key was absent from the cache.
+	 */
+	@Test
+	void testResponseStoredAfterWriteIsNotServed() {
+		Long customerId = customer.getCustomerId();
+		long generation = rewardsCache.generation(customerId);
+		RewardSummary before = rewardsService.calculateRewardSummary(customerId, START, END);
+		assertEquals(90, before.totalRewards());
+
+		importTransaction(200.0);
+		assertNull(rewardsCache.getIfPresent(customerId, START, END));
+		rewardsCache.put(customerId, START, END, generation, before);
+
+		assertNull(rewardsCache.getIfPresent(customerId, START, END));
+		assertEquals(340, rewardsService.calculateRewards(customerId, START, END).get("Total Rewards"));
+		assertEquals(340, rewardsCache.getIfPresent(customerId, START, END).totalRewards());
+	}
+
+	/**
+	 * Test that readers running concurrently with a series of writes never keep a
+	 * stale response cached once the writes are done.
+	 */
+	@Test
+	void testConcurrentReadsNeverCacheStaleResponse() throws Exception {
+		ExecutorService readers = Executors.newFixedThreadPool(4);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(readers.submit(() -> {
+				while (writing.get()) {
+					rewardsService.calculateRewards(customer.getCustomerId(), START, END);
+				}
+			}));
+		}
+
+		for (int i = 0; i < 20; i++) {
+			importTransaction(60.0);
+		}
+		writing.set(false);
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		readers.shutdown();
+
+		assertEquals(90 + 20 * 10,
+				rewardsService.calculateRewards(customer.getCustomerId(), START, END).get("Total Rewards"));
+	}
+
+	private void importTransaction(double amount) {
+		String record = "{\"customerId\":" + customer.getCustomerId() + ",\"amount\":" + amount
+				+ ",\"date\":\"2024-03-01\"}";
+		transactionIngestionService.importTransactions(
+				new ByteArrayInputStream(record.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+	}
+}
@@ -0,0 +1,140 @@
+package com.infy;
+
+import com.infy.dto.RewardSummary;
+import com.infy.model.Customer;
+import com.infy.service.RewardsRequestCoalescer;
+import com.infy.service.RewardsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.infy.TestCustomers.newCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the asynchronous rewards endpoint. Verifies that
+ * identical concurrent requests share one calculation and that every caller
+ * gets its own future of the shared response.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource("classpath:application.properties")
+public class RewardsCoalescingIntegrationTest {
+
+	private static final LocalDate START = LocalDate.of(2024, 1, 1);
+	private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoSpyBean
+	private RewardsService rewardsService;
+
+	@Autowired
+	private RewardsRequestCoalescer rewardsRequestCoalescer;
+
+	private Customer customer;
+
+	@BeforeEach
+	void setup() {
+		reset(rewardsService);
+
+		customer = rewardsService.saveCustomer(newCustomer("Ravi", 120, LocalDate.of(2024, 5, 20)));
+	}
+
+	/**
+	 * Test that the async endpoint returns the same response as the synchronous
+	 * one.
+	 */
+	@Test
+	void testAsyncRewardsEndpoint() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/rewards/calculateRewards/" + customer.getCustomerId() + "/async")
+				.param("startDate", START.toString()).param("endDate", END.toString()))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(90))
+				.andExpect(jsonPath("$['Customer Details'].customerName").value("Ravi"));
+	}
+
+	/**
+	 * Test that a failed calculation reaches the exception handler.
+	 */
+	@Test
+	void testAsyncRewardsEndpointCustomerNotFound() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/rewards/calculateRewards/999999/async")
+				.param("startDate", START.toString()).param("endDate", END.toString()))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+	}
+
+	/**
+	 * Test that invalid input is rejected before any calculation starts.
+	 */
+	@Test
+	void testAsyncRewardsEndpointInvalidDates() throws Exception {
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customer.getCustomerId() + "/async")
+				.param("startDate", END.toString()).param("endDate", START.toString()))
+				.andExpect(status().isBadRequest());
+	}
+
+	/**
+	 * Test that identical requests arriving while a calculation is in flight
+	 * join it, and that each caller receives its own future of the one summary.
+	 */
+	@Test
+	void testConcurrentIdenticalRequestsAreCoalesced() throws Exception {
+		Long customerId = customer.getCustomerId();
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			release.await(10, TimeUnit.SECONDS);
+			return invocation.callRealMethod();
+		}).when(rewardsService).calculateRewardSummary(eq(customerId), any(), any());
+		long coalescedBefore = (long) rewardsRequestCoalescer.stats().get("coalesced");
+
+		List<CompletableFuture<RewardSummary>> futures = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			futures.add(rewardsRequestCoalescer.calculateRewardSummary(customerId, START, END));
+		}
+		release.countDown();
+
+		List<RewardSummary> summaries = new ArrayList<>();
+		for (CompletableFuture<RewardSummary> future : futures) {
+			summaries.add(future.get(10, TimeUnit.SECONDS));
+		}
+
+		verify(rewardsService, times(1)).calculateRewardSummary(eq(customerId), any(), any());
+		assertEquals(coalescedBefore + 19, (long) rewardsRequestCoalescer.stats().get("coalesced"));
+		assertEquals(0, rewardsRequestCoalescer.stats().get("inFlight"));
+
+		assertEquals(futures.size(), futures.stream().distinct().count());
+		for (RewardSummary summary : summaries) {
+			assertSame(summaries.get(0), summary);
+		}
+		assertEquals(90, summaries.get(0).totalRewards());
+		assertEquals("Ravi", summaries.get(0).customerDetails().customerName());
+	}
+}
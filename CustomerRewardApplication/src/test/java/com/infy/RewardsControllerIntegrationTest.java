@@ -1,6 +1,9 @@
 package com.infy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.dto.BatchRewardsRequest;
+import com.infy.dto.BulkCustomerRequest;
+import com.infy.dto.BulkIngestionResponse;
 import com.infy.dto.CustomerDto;
 import com.infy.dto.TransactionDto;
 import com.infy.model.Customer;
@@ -128,4 +131,74 @@ public class RewardsControllerIntegrationTest {
 				.andExpect(status().isBadRequest())
 				.andExpect(content().string(containsString("Customer ID must be a positive number")));
 	}
+
+	// Tests bulk ingestion of several customers and reward calculation on the
+	// ingested data.
+
+	@Test
+	void testBulkIngestionSuccess() throws Exception {
+		CustomerDto second = new CustomerDto("Ann", List.of(new TransactionDto(90.0, LocalDate.of(2024, 5, 1)),
+				new TransactionDto(200.0, LocalDate.of(2024, 6, 1))));
+		BulkCustomerRequest request = new BulkCustomerRequest(List.of(customerDto, second));
+
+		MvcResult result = mockMvc
+				.perform(post("/api/rewards/transactions/bulk").contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(request)))
+				.andExpect(status().isCreated()).andExpect(jsonPath("$.customersSaved").value(2))
+				.andExpect(jsonPath("$.transactionsSaved").value(3)).andExpect(jsonPath("$.rowsPerSecond").exists())
+				.andReturn();
+
+		BulkIngestionResponse response = objectMapper.readValue(result.getResponse().getContentAsString(),
+				BulkIngestionResponse.class);
+
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + response.getCustomerIds().get(1))
+				.param("startDate", "2024-01-01").param("endDate", "2024-12-31")).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(290));
+	}
+
+	// Tests error response when the bulk request has no customers.
+
+	@Test
+	void testBulkIngestionEmptyCustomers() throws Exception {
+		mockMvc.perform(post("/api/rewards/transactions/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new BulkCustomerRequest(List.of()))))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string(containsString("Customer list cannot be empty")));
+	}
+
+	// Tests batch reward calculation for several customers, including one
+	// without transactions that gets an error entry.
+
+	@Test
+	void testCalculateRewardsBatch() throws Exception {
+		CustomerDto second = new CustomerDto("Lee", List.of(new TransactionDto(200.0, LocalDate.of(2024, 6, 1))));
+		MvcResult result = mockMvc
+				.perform(post("/api/rewards/transactions/bulk").contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(new BulkCustomerRequest(List.of(customerDto, second)))))
+				.andExpect(status().isCreated()).andReturn();
+
+		List<Long> customerIds = objectMapper
+				.readValue(result.getResponse().getContentAsString(), BulkIngestionResponse.class).getCustomerIds();
+		BatchRewardsRequest request = new BatchRewardsRequest(
+				List.of(customerIds.get(0), customerIds.get(1), 999999L), LocalDate.of(2024, 1, 1),
+				LocalDate.of(2024, 12, 31));
+
+		mockMvc.perform(post("/api/rewards/calculateRewards/batch").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request))).andExpect(status().isOk())
+				.andExpect(jsonPath("$['" + customerIds.get(0) + "']['Total Rewards']").value(90))
+				.andExpect(jsonPath("$['" + customerIds.get(1) + "']['Total Rewards']").value(250))
+				.andExpect(jsonPath("$['999999'].Error").value("No transactions found for customer ID: 999999"));
+	}
+
+	// Tests error response when the batch request has no customer IDs.
+
+	@Test
+	void testCalculateRewardsBatchEmptyCustomerIds() throws Exception {
+		BatchRewardsRequest request = new BatchRewardsRequest(List.of(), LocalDate.of(2024, 1, 1),
+				LocalDate.of(2024, 12, 31));
+
+		mockMvc.perform(post("/api/rewards/calculateRewards/batch").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request))).andExpect(status().isBadRequest())
+				.andExpect(content().string(containsString("Customer ID list cannot be empty")));
+	}
 }
@@ -0,0 +1,90 @@
+package com.infy;
+
+import com.infy.service.TransactionIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.infy.TestCustomers.newCustomer;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the streaming rewards export. Transactions are dated in
+ * 2031 so data written by other tests stays out of the exported range.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource("classpath:application.properties")
+public class RewardsExportIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TransactionIngestionService transactionIngestionService;
+
+	private List<Long> customerIds;
+
+	@BeforeEach
+	void setup() {
+		customerIds = transactionIngestionService.ingestCustomers(List.of(
+				newCustomer("Ada", new double[] { 120, 75 }, LocalDate.of(2031, 1, 10), LocalDate.of(2031, 2, 5)),
+				newCustomer("Ben", new double[] { 200 }, LocalDate.of(2031, 3, 1)),
+				newCustomer("Cy", new double[] { 500 }, LocalDate.of(2032, 1, 1)))).getCustomerIds();
+	}
+
+	/**
+	 * Test that the CSV export has a header and one total per customer with
+	 * transactions in the range.
+	 */
+	@Test
+	void testExportCsv() throws Exception {
+		String body = mockMvc
+				.perform(get("/api/rewards/export").param("startDate", "2031-01-01").param("endDate", "2031-12-31")
+						.param("format", "csv"))
+				.andExpect(status().isOk()).andExpect(content().contentTypeCompatibleWith("text/csv"))
+				.andExpect(header().string("Content-Disposition", containsString("rewards-2031-01-01-2031-12-31.csv")))
+				.andReturn().getResponse().getContentAsString();
+
+		List<String> lines = body.lines().toList();
+		assertEquals("customerId,customerName,transactionCount,totalPoints", lines.get(0));
+		assertTrue(lines.contains(customerIds.get(0) + ",Ada,2,115"));
+		assertTrue(lines.contains(customerIds.get(1) + ",Ben,1,250"));
+		assertTrue(lines.stream().noneMatch(line -> line.startsWith(customerIds.get(2) + ",")));
+	}
+
+	/**
+	 * Test that the NDJSON export writes one JSON object per customer.
+	 */
+	@Test
+	void testExportNdjson() throws Exception {
+		String body = mockMvc
+				.perform(get("/api/rewards/export").param("startDate", "2031-01-01").param("endDate", "2031-12-31"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+		assertTrue(body.endsWith("\n"));
+		assertTrue(body.contains("{\"customerId\":" + customerIds.get(1)
+				+ ",\"customerName\":\"Ben\",\"transactionCount\":1,\"totalPoints\":250}\n"));
+		assertFalse(body.contains("\"Cy\""));
+	}
+
+	/**
+	 * Test error response for an unknown export format.
+	 */
+	@Test
+	void testExportInvalidFormat() throws Exception {
+		mockMvc.perform(get("/api/rewards/export").param("startDate", "2031-01-01").param("endDate", "2031-12-31")
+				.param("format", "xml")).andExpect(status().isBadRequest())
+				.andExpect(content().string(containsString("Export format must be ndjson or csv")));
+	}
+}
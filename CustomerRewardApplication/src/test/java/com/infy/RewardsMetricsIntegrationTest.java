@@ -0,0 +1,84 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.dto.CustomerDto;
+import com.infy.dto.TransactionDto;
+import com.infy.model.Customer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the rewards metrics exposed through Actuator.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@TestPropertySource("classpath:application.properties")
+public class RewardsMetricsIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Test that saving and calculating rewards record per-phase timers and
+	 * per-request counts, and that a rejected request counts its exception type,
+	 * all in Prometheus format.
+	 */
+	@Test
+	void testPhaseTimersAndCountersArePublished() throws Exception {
+		CustomerDto customerDto = new CustomerDto("Mia", List.of(new TransactionDto(120.0, LocalDate.of(2024, 7, 1)),
+				new TransactionDto(80.0, LocalDate.of(2024, 7, 2))));
+		String saved = mockMvc
+				.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(customerDto)))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		Long customerId = objectMapper.readValue(saved, Customer.class).getCustomerId();
+
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", "2024-07-01")
+				.param("endDate", "2024-07-31")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/rewards/calculateRewards/0").param("startDate", "2024-07-01")
+				.param("endDate", "2024-07-31")).andExpect(status().isBadRequest());
+
+		String metrics = mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk()).andReturn()
+				.getResponse().getContentAsString();
+
+		for (String phase : List.of("validation", "query", "customer_lookup", "aggregation")) {
+			assertTrue(metrics.contains("rewards_phase_seconds_count{operation=\"calculateRewards\",phase=\"" + phase),
+					phase);
+		}
+		for (String phase : List.of("validation", "persist", "ledger")) {
+			assertTrue(metrics.contains("rewards_phase_seconds_count{operation=\"saveCustomer\",phase=\"" + phase),
+					phase);
+		}
+		assertTrue(metrics.contains("rewards_phase_seconds_bucket{"));
+		assertTrue(metrics.contains("rewards_transactions_scanned_count"));
+		assertTrue(metrics.contains("rewards_exceptions_total{type=\"InvalidRequestException\"}"));
+		assertTrue(metrics.contains("cache_gets_total{cache=\"rewards\""));
+	}
+
+	/**
+	 * Test that the Actuator metrics endpoint lists the rewards meters.
+	 */
+	@Test
+	void testMetricsEndpointListsRewardsMeters() throws Exception {
+		mockMvc.perform(get("/actuator/metrics")).andExpect(status().isOk())
+				.andExpect(content().string(containsString("rewards.transactions.scanned")));
+	}
+}
@@ -0,0 +1,125 @@
+package com.infy;
+
+import com.infy.model.Customer;
+import com.infy.service.RewardsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.infy.TestCustomers.newCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the number of statements a rewards request issues,
+ * counted with Hibernate statistics. The count must not depend on how many
+ * transactions a customer has, and serializing the response must not load any
+ * entity or collection.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn" })
+@AutoConfigureMockMvc
+@TestPropertySource("classpath:application.properties")
+public class RewardsQueryCountIntegrationTest {
+
+	// Whole months only, so the ledger answers with a single query.
+	private static final LocalDate START = LocalDate.of(2023, 1, 1);
+	private static final LocalDate END = LocalDate.of(2023, 12, 31);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	/**
+	 * Test that an uncached rewards request issues the ledger query and the
+	 * customer projection query only, for small and large histories alike.
+	 */
+	@Test
+	void testRewardsRequestQueryCountIsFixed() throws Exception {
+		Long small = saveCustomer("Lena", 1);
+		Long large = saveCustomer("Omar", 60);
+
+		assertEquals(2, statementsFor(small, 90));
+		assertEquals(2, statementsFor(large, 60 * 90));
+	}
+
+	/**
+	 * Test that a batch request issues the same number of statements for one
+	 * customer as for many.
+	 */
+	@Test
+	void testBatchRequestQueryCountIsFixed() {
+		List<Long> customerIds = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			customerIds.add(saveCustomer("Batch " + i, 1 + i % 5));
+		}
+
+		statistics.clear();
+		rewardsService.calculateRewardsBatch(customerIds.subList(0, 1), START, END);
+		long single = statistics.getPrepareStatementCount();
+
+		statistics.clear();
+		rewardsService.calculateRewardsBatch(customerIds.subList(1, customerIds.size()), START, END);
+		assertEquals(single, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionFetchCount());
+	}
+
+	/**
+	 * Test that adding a customer returns its ID and name without the transaction
+	 * history.
+	 */
+	@Test
+	void testAddCustomerReturnsSummaryOnly() throws Exception {
+		mockMvc.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"customerName\":\"Ines\",\"transaction\":[{\"amount\":120.0,\"date\":\"2023-03-01\"}]}"))
+				.andExpect(status().isCreated()).andExpect(jsonPath("$.customerName").value("Ines"))
+				.andExpect(jsonPath("$.customerId").isNumber()).andExpect(jsonPath("$.transaction").doesNotExist());
+	}
+
+	/**
+	 * Requests the rewards of a customer over HTTP, including serialization, and
+	 * returns the number of statements prepared.
+	 */
+	private long statementsFor(Long customerId, int expectedPoints) throws Exception {
+		statistics.clear();
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", START.toString())
+				.param("endDate", END.toString())).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(expectedPoints))
+				.andExpect(jsonPath("$['Customer Details'].transaction").doesNotExist());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionFetchCount());
+		return statistics.getPrepareStatementCount();
+	}
+
+	private Long saveCustomer(String name, int transactions) {
+		return rewardsService.saveCustomer(newCustomer(name, transactions, i -> 120, i -> START.plusDays(i * 5L)))
+				.getCustomerId();
+	}
+}
@@ -1,5 +1,6 @@
 package com.infy;
 
+import com.infy.dto.CustomerSummary;
 import com.infy.model.Customer;
 import com.infy.model.Transaction;
 import com.infy.repository.CustomerRepository;
@@ -82,7 +83,7 @@ public class RewardsServiceIntegrationTest {
 
 		assertNotNull(result);
 		assertTrue(result.containsKey("Total Rewards"));
-		assertEquals(saved.getCustomerName(), ((Customer) result.get("Customer Details")).getCustomerName());
+		assertEquals(saved.getCustomerName(), ((CustomerSummary) result.get("Customer Details")).customerName());
 	}
 
 	/**
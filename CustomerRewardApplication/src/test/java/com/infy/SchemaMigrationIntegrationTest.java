@@ -0,0 +1,145 @@
+package com.infy;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the Flyway managed schema. Verifies that the migrations
+ * ran and created the indexes the reward queries depend on; Hibernate only
+ * validates the schema against the entities.
+ */
+@SpringBootTest
+@TestPropertySource("classpath:application.properties")
+public class SchemaMigrationIntegrationTest {
+
+	// Tables of the original application, as ddl-auto=update created them on MySQL
+	private static final String[] ORIGINAL_SCHEMA = {
+			"create table customer (customer_id bigint not null auto_increment, customer_name varchar(255), "
+					+ "primary key (customer_id)) engine=InnoDB",
+			"create table transaction (amount float(53) not null, date date, customer_id bigint, "
+					+ "transaction_id bigint not null auto_increment, primary key (transaction_id)) engine=InnoDB",
+			"alter table transaction add constraint FKnbpjofb5abhjg5hiovi0t3k57 foreign key (customer_id) "
+					+ "references customer (customer_id)" };
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	/**
+	 * Test that every migration was applied successfully.
+	 */
+	@Test
+	void testMigrationsApplied() {
+		List<String> versions = jdbcTemplate.queryForList(
+				"SELECT version FROM flyway_schema_history WHERE success = TRUE AND version IS NOT NULL "
+						+ "ORDER BY installed_rank",
+				String.class);
+
+		assertEquals(List.of("1", "2", "3", "4", "5", "6", "7"), versions);
+	}
+
+	/**
+	 * Test that a database created by the original application, with only the
+	 * customer and transaction tables, is baselined at V1 and migrated to the
+	 * current schema with its rows kept.
+	 */
+	@Test
+	void testOriginalSchemaIsBaselinedAndMigrated() {
+		DriverManagerDataSource original = new DriverManagerDataSource(
+				"jdbc:h2:mem:original_schema;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate database = new JdbcTemplate(original);
+		for (String statement : ORIGINAL_SCHEMA) {
+			database.execute(statement);
+		}
+		database.update("INSERT INTO customer (customer_id, customer_name) VALUES (1, 'Ada')");
+		database.update("INSERT INTO transaction (transaction_id, amount, date, customer_id) "
+				+ "VALUES (1, 120, DATE '2024-01-15', 1)");
+
+		// Same settings as spring.flyway in the application properties
+		Flyway.configure().dataSource(original).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+		assertEquals(List.of("1", "2", "3", "4", "5", "6", "7"),
+				database.queryForList("SELECT version FROM flyway_schema_history WHERE success = TRUE "
+						+ "AND version IS NOT NULL ORDER BY installed_rank", String.class));
+		assertEquals(1, database.queryForObject("SELECT COUNT(*) FROM transaction WHERE external_id IS NULL",
+				Integer.class));
+		assertEquals(0, database.queryForObject("SELECT COUNT(*) FROM monthly_reward_summary", Integer.class));
+		database.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * Test that transactions are indexed by customer then date.
+	 */
+	@Test
+	void testTransactionCustomerDateIndex() throws Exception {
+		assertEquals(List.of("customer_id", "date"),
+				indexColumns("transaction").get("idx_transaction_customer_date"));
+	}
+
+	/**
+	 * Test that external transaction IDs are unique.
+	 */
+	@Test
+	void testTransactionExternalIdUnique() throws Exception {
+		assertEquals(List.of("external_id"), indexColumns("transaction").get("uk_transaction_external_id"));
+		try (Connection connection = dataSource.getConnection();
+				ResultSet rows = connection.getMetaData().getIndexInfo(null, null, "transaction", true, false)) {
+			boolean unique = false;
+			while (rows.next()) {
+				unique |= "uk_transaction_external_id".equalsIgnoreCase(rows.getString("INDEX_NAME"));
+			}
+			assertTrue(unique);
+		}
+	}
+
+	/**
+	 * Test that the ledger primary key leads with the customer.
+	 */
+	@Test
+	void testLedgerPrimaryKeyLeadsWithCustomer() throws Exception {
+		try (Connection connection = dataSource.getConnection();
+				ResultSet keys = connection.getMetaData().getPrimaryKeys(null, null, "monthly_reward_summary")) {
+			Map<Short, String> columns = new TreeMap<>();
+			while (keys.next()) {
+				columns.put(keys.getShort("KEY_SEQ"), keys.getString("COLUMN_NAME").toLowerCase());
+			}
+			assertEquals(List.of("customer_id", "reward_year", "reward_month"), new ArrayList<>(columns.values()));
+		}
+	}
+
+	private Map<String, List<String>> indexColumns(String table) throws Exception {
+		Map<String, List<String>> indexes = new LinkedHashMap<>();
+		try (Connection connection = dataSource.getConnection()) {
+			DatabaseMetaData metaData = connection.getMetaData();
+			try (ResultSet rows = metaData.getIndexInfo(null, null, table, false, false)) {
+				while (rows.next()) {
+					String name = rows.getString("INDEX_NAME");
+					if (name != null) {
+						indexes.computeIfAbsent(name.toLowerCase(), k -> new ArrayList<>())
+								.add(rows.getString("COLUMN_NAME").toLowerCase());
+					}
+				}
+			}
+		}
+		return indexes;
+	}
+}
@@ -0,0 +1,63 @@
+package com.infy;
+
+import com.infy.model.Customer;
+import com.infy.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Builds unsaved customers with their transactions for the integration tests.
+ */
+final class TestCustomers {
+
+	private TestCustomers() {
+	}
+
+	/**
+	 * @param name   the customer name
+	 * @param amount amount of the only transaction
+	 * @param date   date of the only transaction
+	 * @return the customer with one transaction
+	 */
+	static Customer newCustomer(String name, double amount, LocalDate date) {
+		return newCustomer(name, new double[] { amount }, date);
+	}
+
+	/**
+	 * @param name    the customer name
+	 * @param amounts amount of each transaction
+	 * @param dates   date of each transaction, one per amount
+	 * @return the customer with its transactions
+	 */
+	static Customer newCustomer(String name, double[] amounts, LocalDate... dates) {
+		return newCustomer(name, amounts.length, i -> amounts[i], i -> dates[i]);
+	}
+
+	/**
+	 * @param name         the customer name
+	 * @param transactions number of transactions
+	 * @param amount       amount of the transaction at each index
+	 * @param date         date of the transaction at each index
+	 * @return the customer with its transactions
+	 */
+	static Customer newCustomer(String name, int transactions, IntToDoubleFunction amount,
+			IntFunction<LocalDate> date) {
+		Customer customer = new Customer();
+		customer.setCustomerName(name);
+
+		List<Transaction> list = new ArrayList<>(transactions);
+		for (int i = 0; i < transactions; i++) {
+			Transaction transaction = new Transaction();
+			transaction.setAmount(amount.applyAsDouble(i));
+			transaction.setDate(date.apply(i));
+			transaction.setCustomer(customer);
+			list.add(transaction);
+		}
+		customer.setTransaction(list);
+		return customer;
+	}
+}
@@ -0,0 +1,170 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for idempotent ingestion by client-supplied external
+ * transaction IDs. Transactions are dated in 2034 so no other test data falls
+ * into the reward ranges used here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application.properties",
+		properties = "rewards.ingestion.import-chunk-size=2")
+public class TransactionDeduplicationIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	/**
+	 * Test that retrying addCustomer returns the same customer and records no
+	 * transaction twice.
+	 */
+	@Test
+	void testAddCustomerRetryIsIdempotent() throws Exception {
+		String body = """
+				{"customerName":"Nora","transaction":[
+				{"amount":120.0,"date":"2034-01-05","externalId":"add-1"},
+				{"amount":80.0,"date":"2034-01-06","externalId":"add-2"}]}""";
+
+		long customerId = addCustomer(body);
+		assertEquals(customerId, addCustomer(body));
+		assertEquals(2, transactionRepository.findByCustomerCustomerId(customerId).size());
+
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + customerId).param("startDate", "2034-01-01")
+				.param("endDate", "2034-01-31")).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(120));
+	}
+
+	/**
+	 * Test that a retried bulk request only saves transactions it did not save
+	 * before, attached to the customer created by the first attempt.
+	 */
+	@Test
+	void testBulkRetrySkipsRecordedTransactions() throws Exception {
+		String first = """
+				{"customers":[{"customerName":"Omar","transaction":[
+				{"amount":60.0,"date":"2034-02-01","externalId":"bulk-1"},
+				{"amount":70.0,"date":"2034-02-02","externalId":"bulk-2"}]}]}""";
+		String retry = """
+				{"customers":[{"customerName":"Omar","transaction":[
+				{"amount":60.0,"date":"2034-02-01","externalId":"bulk-1"},
+				{"amount":70.0,"date":"2034-02-02","externalId":"bulk-2"},
+				{"amount":90.0,"date":"2034-02-03","externalId":"bulk-3"},
+				{"amount":90.0,"date":"2034-02-03","externalId":"bulk-3"}]}]}""";
+
+		JsonNode saved = bulk(first);
+		assertEquals(1, saved.get("customersSaved").asInt());
+		assertEquals(2, saved.get("transactionsSaved").asInt());
+		long customerId = saved.get("customerIds").get(0).asLong();
+
+		JsonNode retried = bulk(retry);
+		assertEquals(0, retried.get("customersSaved").asInt());
+		assertEquals(1, retried.get("transactionsSaved").asInt());
+		assertEquals(3, retried.get("duplicatesSkipped").asInt());
+		assertEquals(customerId, retried.get("customerIds").get(0).asLong());
+		assertEquals(3, transactionRepository.findByCustomerCustomerId(customerId).size());
+	}
+
+	/**
+	 * Test that an import skips records already imported, including by an
+	 * earlier chunk of the same stream, and reports them as duplicates.
+	 */
+	@Test
+	void testImportSkipsDuplicates() throws Exception {
+		long customerId = addCustomer("""
+				{"customerName":"Pia","transaction":[{"amount":10.0,"date":"2034-03-01"}]}""");
+		String body = String.join("\n",
+				"{\"customerId\":" + customerId + ",\"amount\":120.0,\"date\":\"2034-03-02\",\"externalId\":\"imp-1\"}",
+				"{\"customerId\":" + customerId + ",\"amount\":130.0,\"date\":\"2034-03-03\",\"externalId\":\"imp-2\"}",
+				"{\"customerId\":" + customerId + ",\"amount\":120.0,\"date\":\"2034-03-02\",\"externalId\":\"imp-1\"}",
+				"{\"customerId\":" + customerId + ",\"amount\":140.0,\"date\":\"2034-03-04\"}");
+
+		mockMvc.perform(post("/api/rewards/transactions/import").contentType(MediaType.APPLICATION_NDJSON)
+				.content(body)).andExpect(status().isOk()).andExpect(jsonPath("$.recordsImported").value(3))
+				.andExpect(jsonPath("$.duplicatesSkipped").value(1)).andExpect(jsonPath("$.errorCount").value(0));
+
+		String csv = "customerId,amount,date,externalId\n" + customerId + ",120.0,2034-03-02,imp-1\n" + customerId
+				+ ",150.0,2034-03-05,\n";
+		mockMvc.perform(post("/api/rewards/transactions/import").contentType("text/csv").content(csv))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.recordsImported").value(1))
+				.andExpect(jsonPath("$.duplicatesSkipped").value(1));
+
+		assertEquals(5, transactionRepository.findByCustomerCustomerId(customerId).size());
+	}
+
+	/**
+	 * Test that external IDs recorded for two different customers are rejected.
+	 */
+	@Test
+	void testExternalIdsOfDifferentCustomersRejected() throws Exception {
+		addCustomer("""
+				{"customerName":"Quinn","transaction":[{"amount":60.0,"date":"2034-04-01","externalId":"mix-1"}]}""");
+		addCustomer("""
+				{"customerName":"Rosa","transaction":[{"amount":60.0,"date":"2034-04-01","externalId":"mix-2"}]}""");
+
+		mockMvc.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON).content("""
+				{"customerName":"Quinn","transaction":[
+				{"amount":60.0,"date":"2034-04-01","externalId":"mix-1"},
+				{"amount":60.0,"date":"2034-04-01","externalId":"mix-2"}]}""")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("External IDs belong to more than one customer."));
+	}
+
+	/**
+	 * Test that a retry of committed transactions is answered from the in-memory
+	 * cache and shows up in the deduplication statistics.
+	 */
+	@Test
+	void testDeduplicationStats() throws Exception {
+		String body = """
+				{"customerName":"Sam","transaction":[{"amount":75.0,"date":"2034-05-01","externalId":"stats-1"}]}""";
+		addCustomer(body);
+		JsonNode before = stats();
+		addCustomer(body);
+		JsonNode after = stats();
+
+		assertEquals(before.get("checked").asLong() + 1, after.get("checked").asLong());
+		assertEquals(before.get("duplicates").asLong() + 1, after.get("duplicates").asLong());
+		assertEquals(before.get("cacheHits").asLong() + 1, after.get("cacheHits").asLong());
+		assertEquals(before.get("queries").asLong(), after.get("queries").asLong());
+		assertTrue(after.get("duplicateRate").asDouble() > 0);
+	}
+
+	private long addCustomer(String body) throws Exception {
+		String response = mockMvc
+				.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(response).get("customerId").asLong();
+	}
+
+	private JsonNode bulk(String body) throws Exception {
+		String response = mockMvc
+				.perform(post("/api/rewards/transactions/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(response);
+	}
+
+	private JsonNode stats() throws Exception {
+		return objectMapper.readTree(mockMvc.perform(get("/api/rewards/ingestion/dedup/stats"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+	}
+}
@@ -0,0 +1,138 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.model.Customer;
+import com.infy.service.RewardsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.infy.TestCustomers.newCustomer;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the keyset-paginated transaction history endpoint.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn" })
+@AutoConfigureMockMvc
+@TestPropertySource("classpath:application.properties")
+public class TransactionHistoryIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Test that paging through the history returns every transaction once,
+	 * newest first, including transactions sharing a date across page
+	 * boundaries.
+	 */
+	@Test
+	void testPagesCoverHistoryInOrder() throws Exception {
+		Long customerId = saveCustomer("Rosa", 25);
+
+		List<Long> seen = new ArrayList<>();
+		LocalDate previous = LocalDate.MAX;
+		String cursor = null;
+		int pages = 0;
+		do {
+			JsonNode page = readPage(customerId, cursor, 4);
+			for (JsonNode transaction : page.get("transactions")) {
+				LocalDate date = LocalDate.parse(transaction.get("date").asText());
+				assertFalse(date.isAfter(previous));
+				previous = date;
+				seen.add(transaction.get("transactionId").asLong());
+			}
+			cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(7, pages);
+		assertEquals(25, seen.size());
+		assertEquals(25, seen.stream().distinct().count());
+	}
+
+	/**
+	 * Test that a deep page is read with a single statement, like the first one.
+	 */
+	@Test
+	void testDeepPageIssuesOneQuery() throws Exception {
+		Long customerId = saveCustomer("Ivan", 200);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		String cursor = null;
+		for (int i = 0; i < 15; i++) {
+			statistics.clear();
+			cursor = readPage(customerId, cursor, 10).get("nextCursor").asText();
+			assertEquals(1, statistics.getPrepareStatementCount());
+			assertEquals(0, statistics.getEntityLoadCount());
+		}
+	}
+
+	/**
+	 * Test that a malformed cursor and an oversized page are rejected.
+	 */
+	@Test
+	void testInvalidCursorAndPageSize() throws Exception {
+		Long customerId = saveCustomer("Tara", 1);
+
+		mockMvc.perform(history(customerId).param("cursor", "not-a-cursor")).andExpect(status().isBadRequest())
+				.andExpect(content().string(containsString("Invalid cursor.")));
+		mockMvc.perform(history(customerId).param("size", "501")).andExpect(status().isBadRequest())
+				.andExpect(content().string(containsString("Page size must be between 1 and 500.")));
+	}
+
+	/**
+	 * Test that the history of an unknown customer is not found.
+	 */
+	@Test
+	void testUnknownCustomer() throws Exception {
+		mockMvc.perform(history(999999L)).andExpect(status().isNotFound())
+				.andExpect(content().string(containsString("Customer not found for ID: 999999")));
+	}
+
+	private JsonNode readPage(Long customerId, String cursor, int size) throws Exception {
+		MockHttpServletRequestBuilder request = history(customerId).param("size", String.valueOf(size));
+		if (cursor != null) {
+			request.param("cursor", cursor);
+		}
+		String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse()
+				.getContentAsString();
+		return objectMapper.readTree(body);
+	}
+
+	private MockHttpServletRequestBuilder history(Long customerId) {
+		return get("/api/rewards/customers/" + customerId + "/transactions");
+	}
+
+	// Three transactions per date, so pages split transactions of the same day.
+	private Long saveCustomer(String name, int transactions) {
+		return rewardsService.saveCustomer(
+				newCustomer(name, transactions, i -> 60 + i, i -> LocalDate.of(2024, 1, 1).plusDays(i / 3)))
+				.getCustomerId();
+	}
+}
@@ -0,0 +1,115 @@
+package com.infy;
+
+import com.infy.model.Customer;
+import com.infy.model.Transaction;
+import com.infy.repository.TransactionRepository;
+import com.infy.service.RewardsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static com.infy.TestCustomers.newCustomer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the streaming NDJSON/CSV transaction import. A small
+ * chunk size is used so imports span several database flushes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application.properties",
+		properties = "rewards.ingestion.import-chunk-size=2")
+public class TransactionImportIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	private Customer customer;
+
+	// Saves a customer that imported transactions can be attached to.
+
+	@BeforeEach
+	void setup() {
+		customer = rewardsService.saveCustomer(newCustomer("Iris", 60, LocalDate.of(2024, 1, 5)));
+	}
+
+	// Tests that valid NDJSON records are imported and invalid ones reported.
+
+	@Test
+	void testImportNdjsonCollectsErrors() throws Exception {
+		long id = customer.getCustomerId();
+		String body = String.join("\n", "{\"customerId\":" + id + ",\"amount\":120.0,\"date\":\"2024-02-01\"}",
+				"{\"customerId\":" + id + ",\"amount\":-5,\"date\":\"2024-02-02\"}",
+				"{\"customerId\":" + id + ",\"amount\":75.0}", "{not json", "",
+				"{\"customerId\":999999,\"amount\":80.0,\"date\":\"2024-02-03\"}",
+				"{\"customerId\":" + id + ",\"amount\":200.0,\"date\":\"2024-03-01\"}",
+				"{\"customerId\":" + id + ",\"amount\":55.0,\"date\":\"2024-03-02\"}");
+
+		mockMvc.perform(post("/api/rewards/transactions/import").contentType(MediaType.APPLICATION_NDJSON)
+				.content(body)).andExpect(status().isOk()).andExpect(jsonPath("$.recordsRead").value(7))
+				.andExpect(jsonPath("$.recordsImported").value(3)).andExpect(jsonPath("$.errorCount").value(4))
+				.andExpect(jsonPath("$.errors[0].line").value(2))
+				.andExpect(jsonPath("$.errors[0].message").value("Transaction amount must be positive"))
+				.andExpect(jsonPath("$.errors[1].message").value("Transaction date cannot be null"))
+				.andExpect(jsonPath("$.errors[2].line").value(4))
+				.andExpect(jsonPath("$.errors[3].message").value("Customer not found for ID: 999999"));
+
+		assertEquals(4, transactionRepository.findByCustomerCustomerId(customer.getCustomerId()).size());
+	}
+
+	// Tests that an unknown customer is reported before invalid records that follow it in the same chunk.
+
+	@Test
+	void testImportReportsErrorsInLineOrder() throws Exception {
+		long id = customer.getCustomerId();
+		String body = String.join("\n", "{\"customerId\":999999,\"amount\":80.0,\"date\":\"2024-05-01\"}",
+				"{\"customerId\":" + id + ",\"amount\":-5,\"date\":\"2024-05-02\"}", "{not json",
+				"{\"customerId\":" + id + ",\"amount\":90.0,\"date\":\"2024-05-03\"}");
+
+		mockMvc.perform(post("/api/rewards/transactions/import").contentType(MediaType.APPLICATION_NDJSON)
+				.content(body)).andExpect(status().isOk()).andExpect(jsonPath("$.recordsImported").value(1))
+				.andExpect(jsonPath("$.errorCount").value(3)).andExpect(jsonPath("$.errors[0].line").value(1))
+				.andExpect(jsonPath("$.errors[0].message").value("Customer not found for ID: 999999"))
+				.andExpect(jsonPath("$.errors[1].line").value(2)).andExpect(jsonPath("$.errors[2].line").value(3));
+	}
+
+	// Tests a CSV import whose columns are in a different order than the record.
+
+	@Test
+	void testImportCsv() throws Exception {
+		long id = customer.getCustomerId();
+		String body = "date,amount,customerId\n2024-04-01,150.0," + id + "\n2024-04-02,abc," + id + "\n";
+
+		mockMvc.perform(post("/api/rewards/transactions/import").contentType("text/csv").content(body))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.recordsImported").value(1))
+				.andExpect(jsonPath("$.errorCount").value(1)).andExpect(jsonPath("$.errors[0].line").value(3));
+
+		mockMvc.perform(get("/api/rewards/calculateRewards/" + id).param("startDate", "2024-04-01")
+				.param("endDate", "2024-04-30")).andExpect(status().isOk())
+				.andExpect(jsonPath("$['Total Rewards']").value(150));
+	}
+
+	// Tests error response when the CSV header is missing required columns.
+
+	@Test
+	void testImportCsvInvalidHeader() throws Exception {
+		mockMvc.perform(post("/api/rewards/transactions/import").contentType("text/csv").content("amount,date\n"))
+				.andExpect(status().isBadRequest()).andExpect(jsonPath("$.message")
+						.value("CSV header must contain the columns customerId, amount and date."));
+	}
+}
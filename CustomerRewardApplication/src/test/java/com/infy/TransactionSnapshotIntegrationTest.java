@@ -0,0 +1,97 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infy.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the transaction snapshot endpoints. The snapshot holds
+ * every transaction in the database, so results are compared with the full
+ * rewards export rather than fixed totals. Transactions are dated in 2039.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application.properties",
+		properties = "rewards.snapshot.file=" + TransactionSnapshotIntegrationTest.SNAPSHOT_FILE)
+public class TransactionSnapshotIntegrationTest {
+
+	static final String SNAPSHOT_FILE = "target/test-snapshots/transactions.snap";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	/**
+	 * Test that a snapshot holds every transaction and recomputes the same
+	 * points as the rewards export, and that candidate rules are applied to the
+	 * recomputation only.
+	 */
+	@Test
+	void testRecomputeMatchesExport() throws Exception {
+		mockMvc.perform(post("/api/rewards/addCustomer").contentType(MediaType.APPLICATION_JSON).content("""
+				{"customerName":"Snap","transaction":[
+				{"amount":120.0,"date":"2039-01-10"},{"amount":75.0,"date":"2039-01-20"},
+				{"amount":200.0,"date":"2039-02-01"}]}""")).andExpect(status().isCreated());
+
+		mockMvc.perform(post("/api/rewards/snapshot")).andExpect(status().isCreated())
+				.andExpect(jsonPath("$.rows").value(transactionRepository.count()));
+
+		long exported = mockMvc
+				.perform(get("/api/rewards/export").param("startDate", "1900-01-01").param("endDate", "2100-12-31"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString().lines()
+				.mapToLong(line -> readTree(line).get("totalPoints").asLong()).sum();
+		JsonNode result = readTree(mockMvc.perform(post("/api/rewards/snapshot/recompute"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+		assertEquals(transactionRepository.count(), result.get("rows").asLong());
+		assertEquals(exported, result.get("totalPoints").asLong());
+		assertTrue(result.get("customerMonths").asLong() >= result.get("customers").asLong());
+
+		mockMvc.perform(post("/api/rewards/snapshot/recompute").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"monthlyCap\":0}")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalPoints").value(0))
+				.andExpect(jsonPath("$.customerMonths").value(result.get("customerMonths").asLong()));
+		mockMvc.perform(get("/api/rewards/rules")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.monthlyCap").doesNotExist());
+	}
+
+	/**
+	 * Test that invalid candidate rules and a missing snapshot are rejected.
+	 */
+	@Test
+	void testInvalidRequest() throws Exception {
+		mockMvc.perform(post("/api/rewards/snapshot/recompute").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"tiers\":[{\"threshold\":50,\"rate\":1.005}]}")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Tier rate must have at most two decimals."));
+
+		Files.deleteIfExists(Path.of(SNAPSHOT_FILE));
+		mockMvc.perform(post("/api/rewards/snapshot/recompute")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("No transaction snapshot has been written yet."));
+	}
+
+	private JsonNode readTree(String json) {
+		try {
+			return objectMapper.readTree(json);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.infy;
+
+import com.infy.dto.RecomputationResult;
+import com.infy.rules.DateWindowBoostRule;
+import com.infy.rules.MonthlyCapRule;
+import com.infy.rules.RewardPlan;
+import com.infy.service.RewardEngine;
+import com.infy.snapshot.TransactionSnapshot;
+import com.infy.snapshot.TransactionSnapshotWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the columnar transaction snapshot. Recomputations over small
+ * mapped regions and several ranges are compared with points summed per
+ * customer and month while the rows are written.
+ */
+public class TransactionSnapshotTest {
+
+	private static final RewardPlan PLAN = RewardPlan.builder().rules(RewardPlan.DEFAULT_TIERS)
+			.rule(new DateWindowBoostRule(LocalDate.of(2024, 11, 29), LocalDate.of(2024, 12, 2),
+					new BigDecimal("1.5")))
+			.rule(new MonthlyCapRule(400)).build();
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Test that sequential and parallel recomputations return the points of
+	 * every customer and month, and the capped total, across region boundaries,
+	 * on a pool of the requested parallelism.
+	 */
+	@Test
+	void testRecomputeMatchesWrittenRows() throws IOException {
+		Path file = directory.resolve("transactions.snap");
+		Map<String, Long> expected = new TreeMap<>();
+		long rows = 0;
+		Random random = new Random(42);
+		try (TransactionSnapshotWriter writer = new TransactionSnapshotWriter(file)) {
+			int firstDay = (int) LocalDate.of(2024, 10, 1).toEpochDay();
+			for (long customerId = 1; customerId <= 50; customerId++) {
+				int day = firstDay;
+				for (int i = random.nextInt(40); i > 0; i--) {
+					day += random.nextInt(5);
+					long cents = random.nextInt(30_000);
+					writer.append(customerId, day, cents);
+					expected.merge(customerId + "/" + RewardEngine.epochMonth(LocalDate.ofEpochDay(day)),
+							(long) PLAN.boost(PLAN.pointsCents(cents), day), Long::sum);
+					rows++;
+				}
+			}
+			assertEquals(rows, writer.rows());
+			writer.finish();
+		}
+		long expectedTotal = expected.values().stream().mapToLong(PLAN::capMonth).sum();
+
+		TransactionSnapshot snapshot = TransactionSnapshot.open(file, 64);
+		assertEquals(rows, snapshot.rows());
+		for (int parallelism : new int[] { 1, 7 }) {
+			Map<String, Long> months = new ConcurrentHashMap<>();
+			Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+			RecomputationResult result = snapshot.recompute(PLAN, parallelism,
+					(customerId, epochMonth, transactionCount, points) -> {
+						assertNull(months.put(customerId + "/" + epochMonth, points));
+						pools.add(ForkJoinTask.getPool());
+					});
+
+			assertEquals(expected, new TreeMap<>(months));
+			assertEquals(rows, result.rows());
+			assertEquals(expected.size(), result.customerMonths());
+			assertEquals(expectedTotal, result.totalPoints());
+			assertEquals(expected.keySet().stream().map(key -> key.substring(0, key.indexOf('/'))).distinct().count(),
+					result.customers());
+			assertEquals(1, pools.size());
+			assertEquals(parallelism, pools.iterator().next().getParallelism());
+		}
+	}
+
+	/**
+	 * Test that rows out of customer and date order are rejected, and that an
+	 * empty snapshot recomputes to zero.
+	 */
+	@Test
+	void testUnorderedRowsRejected() throws IOException {
+		Path file = directory.resolve("empty.snap");
+		try (TransactionSnapshotWriter writer = new TransactionSnapshotWriter(file)) {
+			writer.append(2, 100, 5_000);
+			assertThrows(IllegalArgumentException.class, () -> writer.append(1, 100, 5_000));
+			assertThrows(IllegalArgumentException.class, () -> writer.append(2, 99, 5_000));
+		}
+		assertFalse(Files.exists(file));
+
+		try (TransactionSnapshotWriter writer = new TransactionSnapshotWriter(file)) {
+			writer.finish();
+		}
+		RecomputationResult result = TransactionSnapshot.open(file).recompute(PLAN, 4, (c, m, t, p) -> fail());
+		assertEquals(0, result.rows());
+		assertEquals(0, result.totalPoints());
+	}
+}
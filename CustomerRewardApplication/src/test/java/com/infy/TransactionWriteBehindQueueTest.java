@@ -0,0 +1,226 @@
+package com.infy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.infy.dto.BulkIngestionResponse;
+import com.infy.dto.CustomerDto;
+import com.infy.dto.ImportFormat;
+import com.infy.dto.ImportResult;
+import com.infy.dto.TransactionDto;
+import com.infy.exception.IngestionQueueFullException;
+import com.infy.exception.InvalidRequestException;
+import com.infy.model.Customer;
+import com.infy.service.TransactionIngestionService;
+import com.infy.service.TransactionWriteBehindQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the write-behind ingestion queue against an ingestion service that
+ * records the batches it is given and can be held to keep the queue full.
+ */
+public class TransactionWriteBehindQueueTest {
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+	private final RecordingIngestionService ingestionService = new RecordingIngestionService();
+
+	@TempDir
+	private Path directory;
+
+	/**
+	 * Test that a full queue rejects customers with a retry hint, and that the
+	 * accepted ones are written once the writer gets going.
+	 */
+	@Test
+	void testFullQueueRejectsAndDrains() throws Exception {
+		TransactionWriteBehindQueue queue = queue(2, null);
+		queue.start();
+
+		// The first customer is taken by the writer, which is held on it
+		queue.enqueue(customer("a", "a-1"));
+		assertTrue(ingestionService.entered.await(5, TimeUnit.SECONDS));
+		queue.enqueue(customer("b", "b-1"));
+		queue.enqueue(customer("c", "c-1"));
+
+		IngestionQueueFullException ex = assertThrows(IngestionQueueFullException.class,
+				() -> queue.enqueue(customer("d", "d-1")));
+		assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+
+		ingestionService.release.countDown();
+		queue.stop();
+
+		assertEquals(List.of("a", "b", "c"), ingestionService.names());
+		assertEquals(2, ingestionService.batches.size());
+		assertEquals(3L, queue.stats().get("written"));
+		assertEquals(1L, queue.stats().get("rejected"));
+	}
+
+	/**
+	 * Test that transactions without an external ID are not queued.
+	 */
+	@Test
+	void testExternalIdRequired() {
+		TransactionWriteBehindQueue queue = queue(10, null);
+		queue.start();
+
+		InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+				() -> queue.enqueue(customer("a", null)));
+		assertEquals("Queued transactions must have an external ID.", ex.getMessage());
+		queue.stop();
+	}
+
+	/**
+	 * Test that customers left in the journal by a previous run are written on
+	 * startup, and that the journal is emptied once the queue drains.
+	 */
+	@Test
+	void testJournalReplayedOnStartup() throws Exception {
+		Path journal = directory.resolve("ingestion.journal");
+		Files.writeString(journal, objectMapper.writeValueAsString(customer("a", "a-1")) + "\n"
+				+ objectMapper.writeValueAsString(customer("b", "b-1")) + "\n{\"customerName\":\"tr");
+		ingestionService.release.countDown();
+
+		TransactionWriteBehindQueue queue = queue(10, journal);
+		queue.start();
+		assertEquals(List.of("a", "b"), ingestionService.names());
+		assertEquals(0, Files.size(journal));
+
+		queue.enqueue(customer("c", "c-1"));
+		queue.stop();
+		assertEquals(List.of("a", "b", "c"), ingestionService.names());
+		assertEquals(0, Files.size(journal));
+	}
+
+	/**
+	 * Test that when a batch is rejected for its data, only the customer with the
+	 * bad data is dropped, and a customer whose own write then fails for another
+	 * reason is retried instead.
+	 */
+	@Test
+	void testOnlyRejectedDataIsDropped() throws Exception {
+		ingestionService.rejectedNames.add("a");
+		ingestionService.timeouts.put("b", 2);
+		TransactionWriteBehindQueue queue = queue(10, null);
+		queue.start();
+
+		// Hold the writer on the first customer, so the next two form one batch
+		queue.enqueue(customer("c", "c-1"));
+		assertTrue(ingestionService.entered.await(5, TimeUnit.SECONDS));
+		queue.enqueue(customer("a", "a-1"));
+		queue.enqueue(customer("b", "b-1"));
+		ingestionService.release.countDown();
+		queue.stop();
+
+		assertEquals(List.of("c", "b"), ingestionService.names());
+		assertEquals(0, ingestionService.timeouts.get("b"));
+		assertEquals(2L, queue.stats().get("written"));
+		assertEquals(1L, queue.stats().get("failed"));
+	}
+
+	/**
+	 * Test that replaying the journal on startup retries while the database is
+	 * unavailable instead of failing the startup.
+	 */
+	@Test
+	void testJournalReplayRetriesUnavailableDatabase() throws Exception {
+		Path journal = directory.resolve("ingestion.journal");
+		Files.writeString(journal, objectMapper.writeValueAsString(customer("a", "a-1")) + "\n");
+		ingestionService.release.countDown();
+		for (int i = 0; i < 3; i++) {
+			ingestionService.failures.add(new CannotGetJdbcConnectionException("connection refused"));
+		}
+
+		TransactionWriteBehindQueue queue = queue(10, journal);
+		queue.start();
+		queue.stop();
+
+		assertEquals(List.of("a"), ingestionService.names());
+		assertTrue(ingestionService.failures.isEmpty());
+		assertEquals(0, Files.size(journal));
+	}
+
+	private TransactionWriteBehindQueue queue(int capacity, Path journal) {
+		return new TransactionWriteBehindQueue(ingestionService, objectMapper, new SimpleMeterRegistry(), capacity,
+				100, Duration.ofSeconds(2), Duration.ofMillis(10), Duration.ofMillis(40), Duration.ofSeconds(5),
+				journal == null ? "" : journal.toString(), false);
+	}
+
+	private static CustomerDto customer(String name, String externalId) {
+		return new CustomerDto(name, List.of(new TransactionDto(120.0, LocalDate.of(2035, 1, 1), externalId)));
+	}
+
+	private static class RecordingIngestionService implements TransactionIngestionService {
+
+		private final List<List<Customer>> batches = new CopyOnWriteArrayList<>();
+
+		private final CountDownLatch entered = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		// Thrown by the next calls, in order, before anything is recorded
+		private final Queue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+
+		// Customers whose writes always fail a constraint
+		private final Set<String> rejectedNames = ConcurrentHashMap.newKeySet();
+
+		// Customers whose next writes time out, and how many times
+		private final Map<String, Integer> timeouts = new ConcurrentHashMap<>();
+
+		@Override
+		public BulkIngestionResponse ingestCustomers(List<Customer> customers) {
+			entered.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			RuntimeException failure = failures.poll();
+			if (failure != null) {
+				throw failure;
+			}
+			if (customers.stream().anyMatch(customer -> rejectedNames.contains(customer.getCustomerName()))) {
+				throw new DataIntegrityViolationException("check constraint");
+			}
+			for (Customer customer : customers) {
+				if (timeouts.getOrDefault(customer.getCustomerName(), 0) > 0) {
+					timeouts.merge(customer.getCustomerName(), -1, Integer::sum);
+					throw new QueryTimeoutException("lock wait timeout");
+				}
+			}
+			batches.add(customers);
+			return new BulkIngestionResponse();
+		}
+
+		@Override
+		public ImportResult importTransactions(InputStream input, ImportFormat format) {
+			throw new UnsupportedOperationException();
+		}
+
+		private List<String> names() {
+			return batches.stream().flatMap(List::stream).map(Customer::getCustomerName).toList();
+		}
+	}
+}
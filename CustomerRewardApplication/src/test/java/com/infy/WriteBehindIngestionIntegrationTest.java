@@ -0,0 +1,74 @@
+package com.infy;
+
+import com.infy.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for write-behind ingestion through
+ * {@code /api/rewards/addCustomer/async}. Transactions are dated in 2035 so no
+ * other test data falls into the reward ranges used here.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application.properties",
+		properties = "rewards.ingestion.write-behind.enabled=true")
+public class WriteBehindIngestionIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	/**
+	 * Test that a queued customer is acknowledged with 202 and its transactions
+	 * are saved by the writer, once even when the request is retried.
+	 */
+	@Test
+	void testQueuedCustomerIsWritten() throws Exception {
+		String body = """
+				{"customerName":"Tess","transaction":[
+				{"amount":120.0,"date":"2035-01-05","externalId":"queued-1"},
+				{"amount":80.0,"date":"2035-01-06","externalId":"queued-2"}]}""";
+
+		for (int attempt = 0; attempt < 2; attempt++) {
+			mockMvc.perform(post("/api/rewards/addCustomer/async").contentType(MediaType.APPLICATION_JSON)
+					.content(body)).andExpect(status().isAccepted())
+					.andExpect(jsonPath("$.transactionsAccepted").value(2));
+		}
+
+		List<String> externalIds = List.of("queued-1", "queued-2");
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (transactionRepository.findOwnersByExternalIds(externalIds).size() < 2
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertEquals(2, transactionRepository.findOwnersByExternalIds(externalIds).size());
+
+		mockMvc.perform(get("/api/rewards/ingestion/queue/stats")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.accepted").value(2)).andExpect(jsonPath("$.failed").value(0));
+	}
+
+	/**
+	 * Test that a queued transaction without an external ID is rejected up front.
+	 */
+	@Test
+	void testQueuedCustomerRequiresExternalId() throws Exception {
+		mockMvc.perform(post("/api/rewards/addCustomer/async").contentType(MediaType.APPLICATION_JSON).content("""
+				{"customerName":"Uma","transaction":[{"amount":120.0,"date":"2035-02-05"}]}"""))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Queued transactions must have an external ID."));
+	}
+}